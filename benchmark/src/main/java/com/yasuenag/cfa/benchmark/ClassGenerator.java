@@ -0,0 +1,122 @@
+package com.yasuenag.cfa.benchmark;
+
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import java.io.IOException;
+import java.lang.classfile.ClassFile;
+import java.lang.constant.ClassDesc;
+import java.lang.constant.ConstantDescs;
+import java.lang.constant.MethodTypeDesc;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+
+/**
+ * Generator of class files for benchmarks.
+ */
+public final class ClassGenerator{
+
+  /**
+   * Prefix of owner classes of refs. Owners are not generated.
+   */
+  public static final String OWNER_PREFIX = "bench.Owner";
+
+  private ClassGenerator(){}
+
+  /**
+   * Generate the class which has the number of methods.
+   * Each method reads the field and calls the method of its own owner class,
+   * so the constant pool has distinct class, field and method refs of each method.
+   *
+   * @param className Class name in Java form.
+   * @param refs Number of methods.
+   * @return Bytes of the class file.
+   */
+  public static byte[] generate(String className, int refs){
+    return ClassFile.of().build(ClassDesc.of(className), cb -> {
+      for(int i = 0; i < refs; i++){
+        int n = i;
+        ClassDesc owner = ClassDesc.of(OWNER_PREFIX + n);
+        cb.withMethodBody("method" + n, MethodTypeDesc.of(ConstantDescs.CD_void),
+                          ClassFile.ACC_PUBLIC | ClassFile.ACC_STATIC, code -> {
+          code.getstatic(owner, "field" + n, ConstantDescs.CD_int)
+              .invokestatic(owner, "method" + n, MethodTypeDesc.of(ConstantDescs.CD_void, ConstantDescs.CD_int))
+              .return_();
+        });
+      }
+    });
+  }
+
+  /**
+   * Generate the JAR which has the number of classes.
+   *
+   * @param path Path to the JAR.
+   * @param entries Number of classes.
+   * @param refs Number of refs of each class.
+   * @throws IOException if the JAR cannot be written.
+   */
+  public static void generateJar(Path path, int entries, int refs) throws IOException{
+    try(var jar = new JarOutputStream(Files.newOutputStream(path))){
+      for(int i = 0; i < entries; i++){
+        String className = "bench.p" + (i % 16) + ".Class" + i;
+        jar.putNextEntry(new JarEntry(className.replace('.', '/') + ".class"));
+        jar.write(generate(className, refs));
+        jar.closeEntry();
+      }
+    }
+  }
+
+  /**
+   * Generate the directory tree. Each level has class files and one subdirectory.
+   *
+   * @param root Root directory of the tree.
+   * @param depth Depth of the tree.
+   * @param classesPerLevel Number of class files in each level.
+   * @param refs Number of refs of each class.
+   * @throws IOException if class files cannot be written.
+   */
+  public static void generateTree(Path root, int depth, int classesPerLevel, int refs) throws IOException{
+    Path dir = root;
+    for(int d = 0; d < depth; d++){
+      dir = Files.createDirectories(dir.resolve("d" + d));
+      for(int i = 0; i < classesPerLevel; i++){
+        String className = "Class" + d + "_" + i;
+        Files.write(dir.resolve(className + ".class"), generate(className, refs));
+      }
+    }
+  }
+
+  /**
+   * Remove the file or the directory recursively.
+   *
+   * @param path Path to remove.
+   * @throws IOException if the path cannot be removed.
+   */
+  public static void delete(Path path) throws IOException{
+    try(var paths = Files.walk(path)){
+      for(Path p : paths.sorted(Comparator.reverseOrder()).toList()){
+        Files.delete(p);
+      }
+    }
+  }
+
+}
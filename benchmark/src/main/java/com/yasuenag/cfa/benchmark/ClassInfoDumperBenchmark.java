@@ -0,0 +1,73 @@
+package com.yasuenag.cfa.benchmark;
+
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.yasuenag.cfa.ClassInfoDumper;
+
+
+/**
+ * Construction of ClassInfoDumper from bytes of the class file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClassInfoDumperBenchmark{
+
+  /**
+   * Size of the class. small has 4 methods, huge has 4000 methods.
+   */
+  @Param({"small", "huge"})
+  public String size;
+
+  private byte[] bytes;
+
+  @Setup
+  public void setup(){
+    bytes = ClassGenerator.generate("bench.Target", size.equals("small") ? 4 : 4000);
+  }
+
+  @Benchmark
+  public ClassInfoDumper fromBytes(){
+    return new ClassInfoDumper(bytes, "bench.class");
+  }
+
+  @Benchmark
+  public ClassInfoDumper fromByteBuffer(){
+    return ClassInfoDumper.parse(ByteBuffer.wrap(bytes), "bench.class");
+  }
+
+}
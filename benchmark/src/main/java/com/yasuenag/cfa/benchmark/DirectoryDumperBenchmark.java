@@ -0,0 +1,83 @@
+package com.yasuenag.cfa.benchmark;
+
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.yasuenag.cfa.DirectoryDumper;
+import com.yasuenag.cfa.Option;
+
+
+/**
+ * Scan of the deep directory tree which has 10 class files in each level.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DirectoryDumperBenchmark{
+
+  @Param({"8", "64"})
+  public int depth;
+
+  private Path root;
+
+  private Option option;
+
+  private PrintWriter out;
+
+  @Setup
+  public void setup() throws IOException{
+    root = Files.createTempDirectory("cfa-benchmark");
+    ClassGenerator.generateTree(root, depth, 10, 10);
+    option = new Option(new String[]{"-c", ClassGenerator.OWNER_PREFIX + "0"});
+    out = new PrintWriter(Writer.nullWriter());
+  }
+
+  @TearDown
+  public void tearDown() throws IOException{
+    ClassGenerator.delete(root);
+  }
+
+  @Benchmark
+  public void dumpInfo(){
+    (new DirectoryDumper(root)).dumpInfo(option, out);
+  }
+
+}
@@ -0,0 +1,78 @@
+package com.yasuenag.cfa.benchmark;
+
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.yasuenag.cfa.ClassInfoDumper;
+import com.yasuenag.cfa.Option;
+
+
+/**
+ * ClassInfoDumper::shouldProcess with -c and -m filters which have
+ * the number of terms. Terms do not match with the class, so all of
+ * refs in the class are evaluated.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShouldProcessBenchmark{
+
+  @Param({"1", "10", "1000"})
+  public int terms;
+
+  private ClassInfoDumper dumper;
+
+  private Option option;
+
+  @Setup
+  public void setup(){
+    dumper = new ClassInfoDumper(ClassGenerator.generate("bench.Target", 100), "bench.class");
+    String classes = IntStream.range(0, terms)
+                              .mapToObj(i -> "bench.NoSuchClass" + i)
+                              .collect(Collectors.joining(","));
+    String methods = IntStream.range(0, terms)
+                              .mapToObj(i -> "noSuchMethod" + i)
+                              .collect(Collectors.joining(","));
+    option = new Option(new String[]{"-c", classes, "-m", methods});
+  }
+
+  @Benchmark
+  public boolean shouldProcess(){
+    return dumper.shouldProcess(option);
+  }
+
+}
@@ -0,0 +1,52 @@
+package com.yasuenag.cfa;
+
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+/**
+ * JFR event of the scan of an archive or a directory.
+ * In parallel mode (-j), the duration covers enumeration of entries
+ * and submission to the pipeline, not parsing them.
+ */
+@Name("com.yasuenag.cfa.ArchiveScan")
+@Label("Archive Scan")
+@Category("CFA")
+@Description("Scan of JAR, WAR, EAR, JMOD or directory")
+class ArchiveScanEvent extends Event{
+
+  @Label("Path")
+  String path;
+
+  @Label("Class Entries")
+  @Description("Number of class entries including nested archives, or class files in the directory")
+  int entries;
+
+  @Label("Size")
+  @Description("Size of the archive, or total size of class files in the directory")
+  @DataAmount
+  long bytes;
+
+}
@@ -0,0 +1,207 @@
+package com.yasuenag.cfa;
+
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+
+/**
+ * Filter conditions from -t, -c, -m and -f options.
+ * This is shared by ClassInfoDumper and ConstantPoolScanner
+ * to evaluate the same conditions against both of ClassModel and raw bytes.
+ */
+public class ClassFilter{
+
+  /**
+   * Matcher for target class set. null if -t is not specified.
+   */
+  private final TermMatcher targetMatcher;
+
+  /**
+   * Matcher for class filter set. null if -c is not specified.
+   */
+  private final TermMatcher classMatcher;
+
+  /**
+   * Matcher for parts of method names in -m. null if there are no such terms.
+   */
+  private final TermMatcher methodMatcher;
+
+  /**
+   * Matcher for member queries in -m. null if there are no such terms.
+   */
+  private final MemberMatcher methodMemberMatcher;
+
+  /**
+   * Matcher for parts of field names in -f. null if there are no such terms.
+   */
+  private final TermMatcher fieldMatcher;
+
+  /**
+   * Matcher for member queries in -f. null if there are no such terms.
+   */
+  private final MemberMatcher fieldMemberMatcher;
+
+  /**
+   * Constructor of ClassFilter.
+   *
+   * @param option Option which contains filter conditions.
+   * @throws IllegalArgumentException if any member query or pattern is invalid.
+   */
+  public ClassFilter(Option option) throws IllegalArgumentException{
+    targetMatcher = compile(option.getTargetSet());
+    classMatcher = compile(option.getClassFilterSet());
+    methodMatcher = compile(option.getMethodFilterSet().map(s -> names(s)));
+    methodMemberMatcher = compileMembers(option.getMethodFilterSet());
+    fieldMatcher = compile(option.getFieldFilterSet().map(s -> names(s)));
+    fieldMemberMatcher = compileMembers(option.getFieldFilterSet());
+  }
+
+  private static TermMatcher compile(Optional<Set<String>> terms){
+    return terms.filter(Predicate.not(Set::isEmpty))
+                .map(TermMatcher::new)
+                .orElse(null);
+  }
+
+  /**
+   * @return Terms which are parts of member names, globs or regexes of them.
+   */
+  private static Set<String> names(Set<String> terms){
+    return terms.stream()
+                .filter(Predicate.not(MemberMatcher::isMemberQuery))
+                .collect(Collectors.toSet());
+  }
+
+  private static MemberMatcher compileMembers(Optional<Set<String>> terms){
+    return terms.map(s -> s.stream()
+                           .filter(MemberMatcher::isMemberQuery)
+                           .collect(Collectors.toSet()))
+                .filter(Predicate.not(Set::isEmpty))
+                .map(MemberMatcher::new)
+                .orElse(null);
+  }
+
+  public boolean hasTargetFilter(){
+    return targetMatcher != null;
+  }
+
+  public boolean hasClassFilter(){
+    return classMatcher != null;
+  }
+
+  public boolean hasMethodFilter(){
+    return methodMatcher != null || methodMemberMatcher != null;
+  }
+
+  /**
+   * @return true if -m has member queries which need owner and descriptor.
+   */
+  public boolean hasMethodMemberFilter(){
+    return methodMemberMatcher != null;
+  }
+
+  public boolean hasFieldFilter(){
+    return fieldMatcher != null || fieldMemberMatcher != null;
+  }
+
+  /**
+   * @return true if -f has member queries which need owner and descriptor.
+   */
+  public boolean hasFieldMemberFilter(){
+    return fieldMemberMatcher != null;
+  }
+
+  /**
+   * @param className Class name in Java form (e.g. java.lang.String)
+   * @return true if the class name matches with -t option.
+   */
+  public boolean matchesTarget(String className){
+    return hasTargetFilter() && targetMatcher.matches(className);
+  }
+
+  /**
+   * @param className Referenced class name in Java form
+   * @return true if the class name matches with -c option.
+   */
+  public boolean matchesClass(String className){
+    return hasClassFilter() && classMatcher.matches(className);
+  }
+
+  /**
+   * Match the method name with terms in -m which are not member queries.
+   *
+   * @param methodName Referenced method name
+   * @return true if the method name matches with -m option.
+   */
+  public boolean matchesMethod(String methodName){
+    return methodMatcher != null && methodMatcher.matches(methodName);
+  }
+
+  /**
+   * @param owner Owner class of the referenced method in Java form.
+   * @param methodName Referenced method name.
+   * @param type Descriptor of the method.
+   * @return true if the method matches with -m option.
+   */
+  public boolean matchesMethod(String owner, String methodName, String type){
+    return matchesMethod(methodName) ||
+           (methodMemberMatcher != null && methodMemberMatcher.matches(owner, methodName, type));
+  }
+
+  /**
+   * @param methodName Referenced method name.
+   * @return false if the method never matches with member queries in -m option.
+   */
+  public boolean mightMatchMethodMember(String methodName){
+    return methodMemberMatcher != null && methodMemberMatcher.mightMatchName(methodName);
+  }
+
+  /**
+   * Match the field name with terms in -f which are not member queries.
+   *
+   * @param fieldName Referenced field name
+   * @return true if the field name matches with -f option.
+   */
+  public boolean matchesField(String fieldName){
+    return fieldMatcher != null && fieldMatcher.matches(fieldName);
+  }
+
+  /**
+   * @param fieldName Referenced field name.
+   * @return false if the field never matches with member queries in -f option.
+   */
+  public boolean mightMatchFieldMember(String fieldName){
+    return fieldMemberMatcher != null && fieldMemberMatcher.mightMatchName(fieldName);
+  }
+
+  /**
+   * @param owner Owner class of the referenced field in Java form.
+   * @param fieldName Referenced field name.
+   * @param type Descriptor of the field.
+   * @return true if the field matches with -f option.
+   */
+  public boolean matchesField(String owner, String fieldName, String type){
+    return matchesField(fieldName) ||
+           (fieldMemberMatcher != null && fieldMemberMatcher.matches(owner, fieldName, type));
+  }
+
+}
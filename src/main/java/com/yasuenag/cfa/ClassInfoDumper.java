@@ -18,21 +18,28 @@ package com.yasuenag.cfa;
  * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
  */
 
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.io.InputStream;
+import java.io.PrintWriter;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.lang.classfile.ClassFile;
 import java.lang.classfile.ClassModel;
 import java.lang.classfile.constantpool.ClassEntry;
+import java.lang.classfile.constantpool.ConstantPoolBuilder;
 import java.lang.classfile.constantpool.FieldRefEntry;
 import java.lang.classfile.constantpool.InterfaceMethodRefEntry;
 import java.lang.classfile.constantpool.MemberRefEntry;
 import java.lang.classfile.constantpool.MethodRefEntry;
+import java.lang.classfile.constantpool.NameAndTypeEntry;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.HashSet;
 import java.util.Properties;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -42,11 +49,6 @@ import java.util.stream.Collectors;
  */
 public class ClassInfoDumper implements Dumper{
 
-  /**
-   * ClassModel of the class.
-   */
-  private ClassModel clazz;
-
   /**
    * File name which is included in this class.
    */
@@ -82,6 +84,16 @@ public class ClassInfoDumper implements Dumper{
    */
   private Set<String> classSet;
 
+  /**
+   * Major version of the class file.
+   */
+  private int majorVersion;
+
+  /**
+   * Minor version of the class file.
+   */
+  private int minorVersion;
+
   /**
    * Pattern for JNI class signature
    */
@@ -105,9 +117,8 @@ public class ClassInfoDumper implements Dumper{
    * @param path Path of class file.
    */
   public ClassInfoDumper(Path path) throws IOException{
-    clazz = ClassFile.of().parse(path);
     fname = path.toString();
-    initialize();
+    initialize(ClassFile.of().parse(path));
   }
 
   /**
@@ -117,9 +128,197 @@ public class ClassInfoDumper implements Dumper{
    * @param fname File name or archive of class.
    */
   public ClassInfoDumper(InputStream in, String fname) throws IOException{
-    clazz = ClassFile.of().parse(in.readAllBytes());
+    this(in.readAllBytes(), fname);
+  }
+
+  /**
+   * Constructor of ClassInfoDumper.
+   *
+   * @param bytes Bytes of class.
+   * @param fname File name or archive of class.
+   */
+  public ClassInfoDumper(byte[] bytes, String fname){
+    this(bytes, fname, ScanStats.DISABLED);
+  }
+
+  /**
+   * Constructor of ClassInfoDumper which records time of parsing.
+   *
+   * @param bytes Bytes of class.
+   * @param fname File name or archive of class.
+   * @param stats Statistics to record.
+   */
+  private ClassInfoDumper(byte[] bytes, String fname, ScanStats stats){
+    this.fname = fname;
+    long start = stats.start();
+    ClassModel clazz = ClassFile.of().parse(bytes);
+    stats.end(ScanStats.Phase.PARSE, start);
+
+    start = stats.start();
+    initialize(clazz);
+    stats.end(ScanStats.Phase.INITIALIZE, start);
+    stats.classParsed();
+  }
+
+  /**
+   * Constructor of ClassInfoDumper.
+   * ConstantPool entries are restored from the summary without parsing
+   * the class file.
+   *
+   * @param summary Summary of class.
+   * @param fname File name or archive of class.
+   */
+  public ClassInfoDumper(ClassSummary summary, String fname){
     this.fname = fname;
-    initialize();
+    className = summary.className();
+    superClass = Optional.ofNullable(summary.superClass());
+    interfaceSet = new HashSet<>(summary.interfaces());
+    majorVersion = summary.majorVersion();
+    minorVersion = summary.minorVersion();
+
+    var builder = ConstantPoolBuilder.of();
+    fieldSet = new HashSet<>();
+    for(ClassSummary.MemberRef f : summary.fieldRefs()){
+      fieldSet.add(builder.fieldRefEntry(builder.classEntry(builder.utf8Entry(f.owner())),
+                                         toNameAndType(builder, f)));
+    }
+    methodSet = new HashSet<>();
+    for(ClassSummary.MemberRef m : summary.methodRefs()){
+      ClassEntry owner = builder.classEntry(builder.utf8Entry(m.owner()));
+      methodSet.add(m.isInterface() ? builder.interfaceMethodRefEntry(owner, toNameAndType(builder, m))
+                                    : builder.methodRefEntry(owner, toNameAndType(builder, m)));
+    }
+
+    initializeClassSet();
+  }
+
+  private static NameAndTypeEntry toNameAndType(ConstantPoolBuilder builder, ClassSummary.MemberRef ref){
+    return builder.nameAndTypeEntry(builder.utf8Entry(ref.name()), builder.utf8Entry(ref.type()));
+  }
+
+  /**
+   * Parse the class and return the summary of it.
+   *
+   * @param buf Bytes of class from position to limit.
+   * @return Summary of the class.
+   */
+  public static ClassSummary summarize(ByteBuffer buf){
+    return parse(buf, null).toSummary();
+  }
+
+  /**
+   * Parse the class regardless of filter conditions.
+   *
+   * @param buf Bytes of class from position to limit.
+   * @param fname File name or archive of class.
+   * @return ClassInfoDumper of the class.
+   */
+  public static ClassInfoDumper parse(ByteBuffer buf, String fname){
+    return new ClassInfoDumper(toByteArray(buf), fname);
+  }
+
+  /**
+   * Parse the class regardless of filter conditions, and record it
+   * to statistics in the option.
+   *
+   * @param buf Bytes of class from position to limit.
+   * @param fname File name or archive of class.
+   * @param option Option which contains statistics.
+   * @return ClassInfoDumper of the class.
+   */
+  public static ClassInfoDumper parse(ByteBuffer buf, String fname, Option option){
+    var event = new ClassParseEvent();
+    event.begin();
+    var dumper = new ClassInfoDumper(toByteArray(buf), fname, option.getStats());
+    event.end();
+    commitParseEvent(event, dumper, buf.remaining(), false);
+    return dumper;
+  }
+
+  /**
+   * Commit ClassParseEvent if it is enabled and it exceeds the threshold.
+   */
+  private static void commitParseEvent(ClassParseEvent event, ClassInfoDumper dumper, int size, boolean matched){
+    if(event.shouldCommit()){
+      event.className = dumper.className;
+      event.file = dumper.fname;
+      event.size = size;
+      event.matched = matched;
+      event.commit();
+    }
+  }
+
+  /**
+   * Return the backing array if the buffer wraps the whole of it, and copy
+   * the content otherwise. Shared buffers (e.g. inflated entries in
+   * MappedZipFile) are read-only, so they are always copied because
+   * ClassModel refers the array after parsing.
+   */
+  private static byte[] toByteArray(ByteBuffer buf){
+    if(buf.hasArray() && buf.arrayOffset() == 0 && buf.position() == 0 &&
+       buf.remaining() == buf.array().length){
+      return buf.array();
+    }
+
+    byte[] bytes = new byte[buf.remaining()];
+    buf.get(buf.position(), bytes);
+    return bytes;
+  }
+
+  /**
+   * Parse the class only if it matches with filter conditions.
+   * ConstantPool is scanned from raw bytes at first, and ClassModel
+   * is built only for classes which might match.
+   *
+   * @param bytes Bytes of class.
+   * @param fname File name or archive of class.
+   * @param option Option which contains filter conditions.
+   * @return ClassInfoDumper of the class, or null if it does not match.
+   */
+  public static ClassInfoDumper parseIfMatches(byte[] bytes, String fname, Option option){
+    return parseIfMatches(ByteBuffer.wrap(bytes), fname, option);
+  }
+
+  /**
+   * Parse the class only if it matches with filter conditions.
+   * The buffer is copied only if the class might match, so the caller can
+   * pass a slice of mapped file or a buffer which would be reused.
+   *
+   * @param buf Bytes of class from position to limit.
+   * @param fname File name or archive of class.
+   * @param option Option which contains filter conditions.
+   * @return ClassInfoDumper of the class, or null if it does not match.
+   */
+  public static ClassInfoDumper parseIfMatches(ByteBuffer buf, String fname, Option option){
+    ScanStats stats = option.getStats();
+    long start = stats.start();
+    boolean mightMatch = ConstantPoolScanner.mightMatch(buf, option.getFilter());
+    stats.end(ScanStats.Phase.PRESCAN, start);
+    if(!mightMatch){
+      return null;
+    }
+
+    Optional<DedupCache> dedup = option.getDedupCache();
+    return dedup.isPresent() ? dedup.get().parseIfMatches(buf, fname, option)
+                             : parseAndFilter(buf, fname, option);
+  }
+
+  /**
+   * Parse the class, and check filter conditions.
+   *
+   * @param buf Bytes of class from position to limit.
+   * @param fname File name or archive of class.
+   * @param option Option which contains filter conditions.
+   * @return ClassInfoDumper of the class, or null if it does not match.
+   */
+  static ClassInfoDumper parseAndFilter(ByteBuffer buf, String fname, Option option){
+    var event = new ClassParseEvent();
+    event.begin();
+    var dumper = new ClassInfoDumper(toByteArray(buf), fname, option.getStats());
+    event.end();
+    boolean matched = dumper.shouldProcess(option);
+    commitParseEvent(event, dumper, buf.remaining(), matched);
+    return matched ? dumper : null;
   }
 
   private String getClassNameInJava(ClassEntry c){
@@ -138,8 +337,12 @@ public class ClassInfoDumper implements Dumper{
 
   /**
    * Initialize class information.
+   *
+   * @param clazz ClassModel of the class.
    */
-  private void initialize(){
+  private void initialize(ClassModel clazz){
+    majorVersion = clazz.majorVersion();
+    minorVersion = clazz.minorVersion();
     className = getClassNameInJava(clazz.thisClass());
     superClass = clazz.superclass()
                       .map(this::getClassNameInJava);
@@ -163,6 +366,13 @@ public class ClassInfoDumper implements Dumper{
             }
           });
 
+    initializeClassSet();
+  }
+
+  /**
+   * Collect classes which are referred from this class.
+   */
+  private void initializeClassSet(){
     classSet = new HashSet<>();
 
     superClass.ifPresent(classSet::add);
@@ -186,41 +396,192 @@ public class ClassInfoDumper implements Dumper{
    *   <li>Class version</li>
    * </ul>
    */
-  public void printClassInfo(boolean isShort){
-    System.out.println("Name: " + className);
-    System.out.println("File: " + fname);
+  public void printClassInfo(PrintWriter out, boolean isShort){
+    out.println("Name: " + className);
+    out.println("File: " + fname);
 
     if(isShort){
       return;
     }
 
-    System.out.println("Super class: " + superClass.orElse("<None>"));
+    out.println("Super class: " + superClass.orElse("<None>"));
 
-    System.out.println("Interfaces:");
-    interfaceSet.forEach(e -> System.out.println("  " + e));
+    out.println("Interfaces:");
+    interfaceSet.forEach(e -> out.println("  " + e));
+
+    out.println(String.format("Class version: %d.%d (Java release: %s)",
+                                     majorVersion, minorVersion, getJavaRelease()));
+  }
 
-    String clsVerStr = (String)CLASS_VERSION_MAP.getOrDefault(Integer.toString(clazz.majorVersion()), "Unknown");
-    if(clazz.minorVersion() != 0){
-      clsVerStr += clazz.minorVersion() == 65535 ? " (Preview)" : " (Unknown minor version)";
+  private String getJavaRelease(){
+    String clsVerStr = (String)CLASS_VERSION_MAP.getOrDefault(Integer.toString(majorVersion), "Unknown");
+    if(minorVersion != 0){
+      clsVerStr += minorVersion == 65535 ? " (Preview)" : " (Unknown minor version)";
     }
-    System.out.println(String.format("Class version: %d.%d (Java release: %s)",
-                                     clazz.majorVersion(), clazz.minorVersion(), clsVerStr));
+    return clsVerStr;
+  }
+
+  private static void printJsonMembers(PrintWriter out, Set<? extends MemberRefEntry> members){
+    out.write('[');
+    boolean first = true;
+    for(MemberRefEntry m : members){
+      if(!first){
+        out.write(',');
+      }
+      first = false;
+      out.write('{');
+      JsonWriter.writeName(out, "owner", true);
+      JsonWriter.writeClassName(out, m.owner().asInternalName());
+      JsonWriter.writeName(out, "name", false);
+      JsonWriter.writeString(out, m.name().stringValue());
+      JsonWriter.writeName(out, "type", false);
+      JsonWriter.writeString(out, m.type().stringValue());
+      out.write('}');
+    }
+    out.write(']');
+  }
+
+  /**
+   * Print class information as JSON object in one line.
+   * Only name and file are printed in short output.
+   */
+  public void printJson(PrintWriter out, boolean isShort){
+    out.write('{');
+    JsonWriter.writeName(out, "name", true);
+    JsonWriter.writeString(out, className);
+    JsonWriter.writeName(out, "file", false);
+    JsonWriter.writeString(out, fname);
+
+    if(!isShort){
+      JsonWriter.writeName(out, "superClass", false);
+      JsonWriter.writeString(out, superClass.orElse(null));
+
+      JsonWriter.writeName(out, "interfaces", false);
+      out.write('[');
+      boolean first = true;
+      for(String i : interfaceSet){
+        if(!first){
+          out.write(',');
+        }
+        first = false;
+        JsonWriter.writeString(out, i);
+      }
+      out.write(']');
+
+      JsonWriter.writeName(out, "classVersion", false);
+      out.write('{');
+      JsonWriter.writeName(out, "major", true);
+      out.print(majorVersion);
+      JsonWriter.writeName(out, "minor", false);
+      out.print(minorVersion);
+      JsonWriter.writeName(out, "release", false);
+      JsonWriter.writeString(out, getJavaRelease());
+      out.write('}');
+
+      JsonWriter.writeName(out, "fieldRefs", false);
+      printJsonMembers(out, fieldSet);
+      JsonWriter.writeName(out, "methodRefs", false);
+      printJsonMembers(out, methodSet);
+    }
+
+    // NDJSON is separated by LF on all platforms.
+    out.write('}');
+    out.write('\n');
   }
 
   /**
    * Print field information.
    */
-  public void printFieldRefInfo(){
-    System.out.println("Field References:");
-    fieldSet.forEach(f -> System.out.printf("  %s %s.%s\n", f.type().stringValue(), getClassNameInJava(f.owner()), f.name().stringValue()));
+  public void printFieldRefInfo(PrintWriter out){
+    out.println("Field References:");
+    fieldSet.forEach(f -> out.printf("  %s %s.%s\n", f.type().stringValue(), getClassNameInJava(f.owner()), f.name().stringValue()));
   }
 
   /**
    * Print method information.
    */
-  public void printMethodRefInfo(){
-    System.out.println("Method References:");
-    methodSet.forEach(m -> System.out.printf("  %s.%s%s\n", getClassNameInJava(m.owner()), m.name().stringValue(), m.type().stringValue()));
+  public void printMethodRefInfo(PrintWriter out){
+    out.println("Method References:");
+    methodSet.forEach(m -> out.printf("  %s.%s%s\n", getClassNameInJava(m.owner()), m.name().stringValue(), m.type().stringValue()));
+  }
+
+  private static ClassSummary.MemberRef toMemberRef(MemberRefEntry ref){
+    return new ClassSummary.MemberRef(ref instanceof InterfaceMethodRefEntry,
+                                      ref.owner().asInternalName(),
+                                      ref.name().stringValue(),
+                                      ref.type().stringValue());
+  }
+
+  /**
+   * Return the summary of this class. Sets are stored in iteration order,
+   * so the dumper which is restored from it prints in the same order.
+   * ConstantPool entries in this dumper refer bytes of the class file,
+   * so the summary should be kept instead of the dumper to hold the class
+   * in memory.
+   *
+   * @return Summary of this class.
+   */
+  public ClassSummary toSummary(){
+    return new ClassSummary(className,
+                            superClass.orElse(null),
+                            List.copyOf(interfaceSet),
+                            fieldSet.stream().map(ClassInfoDumper::toMemberRef).toList(),
+                            methodSet.stream().map(ClassInfoDumper::toMemberRef).toList(),
+                            majorVersion,
+                            minorVersion);
+  }
+
+  /**
+   * @return File name or archive of this class.
+   */
+  public String getFileName(){
+    return fname;
+  }
+
+  /**
+   * @return Class name in Java form.
+   */
+  public String getClassName(){
+    return className;
+  }
+
+  /**
+   * @return Classes which are referred from this class in Java form.
+   */
+  public Set<String> getReferencedClasses(){
+    return Collections.unmodifiableSet(classSet);
+  }
+
+  /**
+   * @return Names of methods which are referred from this class.
+   */
+  public Set<String> getReferencedMethods(){
+    return methodSet.stream()
+                    .map(m -> m.name().stringValue())
+                    .collect(Collectors.toSet());
+  }
+
+  /**
+   * @return Names of fields which are referred from this class.
+   */
+  public Set<String> getReferencedFields(){
+    return fieldSet.stream()
+                   .map(f -> f.name().stringValue())
+                   .collect(Collectors.toSet());
+  }
+
+  @FunctionalInterface
+  private static interface MemberPredicate{
+    public boolean test(String owner, String name, String type);
+  }
+
+  /**
+   * Match the member ref. Owner and descriptor are decoded only if
+   * member queries are specified.
+   */
+  private boolean matchesMember(MemberPredicate predicate, boolean needsMember, MemberRefEntry ref){
+    return needsMember ? predicate.test(getClassNameInJava(ref.owner()), ref.name().stringValue(), ref.type().stringValue())
+                       : predicate.test(null, ref.name().stringValue(), null);
   }
 
   /**
@@ -230,40 +591,93 @@ public class ClassInfoDumper implements Dumper{
    * @return true if the class which is contained in this instance should be processed.
    */
   public boolean shouldProcess(Option option){
-    return option.getTargetSet()
-                 .map(s -> s.stream()
-                            .anyMatch(className::contains))
-                 .orElse(false) ||
-           option.getClassFilterSet()
-                 .map(s -> s.stream()
-                            .anyMatch(t -> classSet.stream()
-                                                   .anyMatch(c -> c.contains(t))))
-                 .orElse(false) ||
-           option.getMethodFilterSet()
-                 .map(s -> s.stream()
-                            .anyMatch(t -> methodSet.stream()
-                                                    .map(m -> m.name().stringValue())
-                                                    .anyMatch(m -> m.contains(t))))
-                 .orElse(false);
+    ScanStats stats = option.getStats();
+    long start = stats.start();
+    ClassFilter filter = option.getFilter();
+    boolean matched = (filter.hasTargetFilter() && filter.matchesTarget(className)) ||
+                      (filter.hasClassFilter() && classSet.stream()
+                                                          .anyMatch(filter::matchesClass)) ||
+                      (filter.hasMethodFilter() && methodSet.stream()
+                                                            .anyMatch(m -> matchesMember(filter::matchesMethod, filter.hasMethodMemberFilter(), m))) ||
+                      (filter.hasFieldFilter() && fieldSet.stream()
+                                                          .anyMatch(f -> matchesMember(filter::matchesField, filter.hasFieldMemberFilter(), f)));
+    stats.end(ScanStats.Phase.FILTER, start);
+    if(matched){
+      stats.classMatched();
+    }
+    return matched;
+  }
+
+  /**
+   * Return whether the class of the summary should be processed.
+   * ClassInfoDumper does not need to be created for classes which do not match.
+   *
+   * @param summary Summary of the class.
+   * @param option instance of Option which contains filter conditions.
+   * @return true if the class should be processed.
+   */
+  public static boolean shouldProcess(ClassSummary summary, Option option){
+    ScanStats stats = option.getStats();
+    long start = stats.start();
+    boolean matched = summary.matches(option.getFilter());
+    stats.end(ScanStats.Phase.FILTER, start);
+    if(matched){
+      stats.classMatched();
+    }
+    return matched;
   }
 
   /**
    * {@inheritDoc}
    */
   @Override
-  public void dumpInfo(Option option){
-    if(!shouldProcess(option)){
-      return;
+  public void dumpInfo(Option option, PrintWriter out){
+    if(shouldProcess(option)){
+      printInfo(option, out);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void submitTo(ScanPipeline pipeline){
+    pipeline.submit(this);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void forEachClass(Option option, Consumer<ClassInfoDumper> consumer){
+    consumer.accept(this);
+  }
+
+  /**
+   * Print all information of this class regardless of filter conditions.
+   *
+   * @param option Option to use in this dumper.
+   * @param out Writer to print.
+   */
+  public void printInfo(Option option, PrintWriter out){
+    ScanStats stats = option.getStats();
+    long start = stats.start();
+
+    if(option.getFormat() == Option.Format.NDJSON){
+      printJson(out, option.isShort());
     }
+    else{
+      printClassInfo(out, option.isShort());
 
-    printClassInfo(option.isShort());
+      if(!option.isShort()){
+        printFieldRefInfo(out);
+        printMethodRefInfo(out);
+      }
 
-    if(!option.isShort()){
-      printFieldRefInfo();
-      printMethodRefInfo();
+      out.println();
     }
 
-    System.out.println();
+    stats.end(ScanStats.Phase.PRINT, start);
   }
 
 }
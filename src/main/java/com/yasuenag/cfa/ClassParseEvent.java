@@ -0,0 +1,57 @@
+package com.yasuenag.cfa;
+
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+
+/**
+ * JFR event of parsing a class. Only classes which take longer than
+ * the threshold are recorded by default; it can be changed in JFR settings
+ * (e.g. com.yasuenag.cfa.ClassParse#threshold=0 ms).
+ */
+@Name("com.yasuenag.cfa.ClassParse")
+@Label("Class Parse")
+@Category("CFA")
+@Description("Parsing a class and collecting references from it")
+@Threshold("10 ms")
+class ClassParseEvent extends Event{
+
+  @Label("Class Name")
+  String className;
+
+  @Label("File")
+  @Description("File name or archive of the class")
+  String file;
+
+  @Label("Size")
+  @DataAmount
+  int size;
+
+  @Label("Matched")
+  @Description("Whether the class matches with filter conditions. Always false if they are not evaluated.")
+  boolean matched;
+
+}
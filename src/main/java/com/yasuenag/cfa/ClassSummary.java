@@ -0,0 +1,370 @@
+package com.yasuenag.cfa;
+
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+
+/**
+ * Summary of the class which ClassInfoDumper needs to filter and print.
+ * This can be stored into the index cache, and ClassInfoDumper can be
+ * restored from it without parsing the class file.
+ *
+ * This is immutable, and it does not refer ClassModel and bytes of the
+ * class file. All of names and descriptors are interned into
+ * SymbolTable.SHARED, and this holds their ids in int arrays.
+ * Each ref is stored as (owner, name, type) in the array.
+ */
+public final class ClassSummary{
+
+  /**
+   * Number of ints per ref in fieldRefs and methodRefs.
+   */
+  private static final int REF_SIZE = 3;
+
+  /**
+   * Flag in the owner id of the method ref if it is InterfaceMethodRef.
+   * ids in SymbolTable are never negative.
+   */
+  private static final int INTERFACE_FLAG = 0x80000000;
+
+  private static final int[] EMPTY = new int[0];
+
+  /**
+   * Reference to the member in ConstantPool.
+   *
+   * @param isInterface true if this is InterfaceMethodRef.
+   * @param owner Owner class in internal form (e.g. java/lang/String)
+   * @param name Member name.
+   * @param type Descriptor of the member.
+   */
+  public static record MemberRef(boolean isInterface, String owner, String name, String type){
+  }
+
+  private final int className;
+
+  /**
+   * id of the super class, or -1 if it does not exist.
+   */
+  private final int superClass;
+
+  private final int[] interfaces;
+
+  private final int[] fieldRefs;
+
+  private final int[] methodRefs;
+
+  private final short majorVersion;
+
+  private final short minorVersion;
+
+  private ClassSummary(int className, int superClass, int[] interfaces, int[] fieldRefs, int[] methodRefs,
+                       int majorVersion, int minorVersion){
+    this.className = className;
+    this.superClass = superClass;
+    this.interfaces = interfaces;
+    this.fieldRefs = fieldRefs;
+    this.methodRefs = methodRefs;
+    this.majorVersion = (short)majorVersion;
+    this.minorVersion = (short)minorVersion;
+  }
+
+  /**
+   * Constructor of ClassSummary.
+   *
+   * @param className Class name in Java form.
+   * @param superClass Super class in Java form, or null if it does not exist.
+   * @param interfaces Interfaces in Java form.
+   * @param fieldRefs FieldRefs in ConstantPool.
+   * @param methodRefs MethodRefs and InterfaceMethodRefs in ConstantPool.
+   * @param majorVersion Major version of the class file.
+   * @param minorVersion Minor version of the class file.
+   */
+  public ClassSummary(String className,
+                      String superClass,
+                      List<String> interfaces,
+                      List<MemberRef> fieldRefs,
+                      List<MemberRef> methodRefs,
+                      int majorVersion,
+                      int minorVersion){
+    this(SymbolTable.SHARED.intern(className),
+         (superClass == null) ? -1 : SymbolTable.SHARED.intern(superClass),
+         internAll(interfaces),
+         internRefs(fieldRefs),
+         internRefs(methodRefs),
+         majorVersion,
+         minorVersion);
+  }
+
+  private static int[] internAll(List<String> symbols){
+    if(symbols.isEmpty()){
+      return EMPTY;
+    }
+
+    int[] result = new int[symbols.size()];
+    for(int i = 0; i < result.length; i++){
+      result[i] = SymbolTable.SHARED.intern(symbols.get(i));
+    }
+    return result;
+  }
+
+  private static int[] internRefs(List<MemberRef> refs){
+    if(refs.isEmpty()){
+      return EMPTY;
+    }
+
+    int[] result = new int[refs.size() * REF_SIZE];
+    int i = 0;
+    for(MemberRef ref : refs){
+      int owner = SymbolTable.SHARED.intern(ref.owner());
+      result[i++] = ref.isInterface() ? (owner | INTERFACE_FLAG) : owner;
+      result[i++] = SymbolTable.SHARED.intern(ref.name());
+      result[i++] = SymbolTable.SHARED.intern(ref.type());
+    }
+    return result;
+  }
+
+  private static String symbol(int id){
+    return SymbolTable.SHARED.get(id & ~INTERFACE_FLAG);
+  }
+
+  private static List<MemberRef> toRefs(int[] refs){
+    var result = new ArrayList<MemberRef>(refs.length / REF_SIZE);
+    for(int i = 0; i < refs.length; i += REF_SIZE){
+      result.add(new MemberRef((refs[i] & INTERFACE_FLAG) != 0, symbol(refs[i]), symbol(refs[i + 1]), symbol(refs[i + 2])));
+    }
+    return result;
+  }
+
+  /**
+   * @return Class name in Java form.
+   */
+  public String className(){
+    return symbol(className);
+  }
+
+  /**
+   * @return Super class in Java form, or null if it does not exist.
+   */
+  public String superClass(){
+    return (superClass == -1) ? null : symbol(superClass);
+  }
+
+  /**
+   * @return Interfaces in Java form.
+   */
+  public List<String> interfaces(){
+    return Arrays.stream(interfaces)
+                 .mapToObj(ClassSummary::symbol)
+                 .toList();
+  }
+
+  /**
+   * @return FieldRefs in ConstantPool.
+   */
+  public List<MemberRef> fieldRefs(){
+    return toRefs(fieldRefs);
+  }
+
+  /**
+   * @return MethodRefs and InterfaceMethodRefs in ConstantPool.
+   */
+  public List<MemberRef> methodRefs(){
+    return toRefs(methodRefs);
+  }
+
+  public int majorVersion(){
+    return Short.toUnsignedInt(majorVersion);
+  }
+
+  public int minorVersion(){
+    return Short.toUnsignedInt(minorVersion);
+  }
+
+  private static String toJavaName(int id){
+    return symbol(id).replace('/', '.');
+  }
+
+  private boolean matchesClass(ClassFilter filter){
+    if(superClass != -1 && filter.matchesClass(symbol(superClass))){
+      return true;
+    }
+    for(int id : interfaces){
+      if(filter.matchesClass(symbol(id))){
+        return true;
+      }
+    }
+    for(int i = 0; i < fieldRefs.length; i += REF_SIZE){
+      String type = symbol(fieldRefs[i + 2]);
+      if(filter.matchesClass(toJavaName(fieldRefs[i])) ||
+         (type.length() > 2 && type.startsWith("L") && type.endsWith(";") &&
+          filter.matchesClass(type.substring(1, type.length() - 1).replace('/', '.')))){
+        return true;
+      }
+    }
+    for(int i = 0; i < methodRefs.length; i += REF_SIZE){
+      if(filter.matchesClass(toJavaName(methodRefs[i]))){
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Match member refs. Owner and descriptor are decoded only if member
+   * queries are specified.
+   */
+  private static boolean matchesRefs(int[] refs, boolean isMethod, boolean needsMember, ClassFilter filter){
+    for(int i = 0; i < refs.length; i += REF_SIZE){
+      String owner = needsMember ? toJavaName(refs[i]) : null;
+      String name = symbol(refs[i + 1]);
+      String type = needsMember ? symbol(refs[i + 2]) : null;
+      if(isMethod ? filter.matchesMethod(owner, name, type) : filter.matchesField(owner, name, type)){
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Return whether the class matches with filter conditions.
+   * This is same as ClassInfoDumper.shouldProcess(), but ConstantPool
+   * entries do not need to be restored.
+   *
+   * @param filter Filter conditions.
+   * @return true if the class matches.
+   */
+  public boolean matches(ClassFilter filter){
+    return (filter.hasTargetFilter() && filter.matchesTarget(className())) ||
+           (filter.hasClassFilter() && matchesClass(filter)) ||
+           (filter.hasMethodFilter() && matchesRefs(methodRefs, true, filter.hasMethodMemberFilter(), filter)) ||
+           (filter.hasFieldFilter() && matchesRefs(fieldRefs, false, filter.hasFieldMemberFilter(), filter));
+  }
+
+  private static void writeSymbols(DataOutput out, int[] ids) throws IOException{
+    out.writeInt(ids.length);
+    for(int id : ids){
+      out.writeUTF(symbol(id));
+    }
+  }
+
+  private static int[] readSymbols(DataInput in) throws IOException{
+    int size = in.readInt();
+    int[] ids = (size == 0) ? EMPTY : new int[size];
+    for(int i = 0; i < size; i++){
+      ids[i] = SymbolTable.SHARED.intern(in.readUTF());
+    }
+    return ids;
+  }
+
+  private static void writeRefs(DataOutput out, int[] refs) throws IOException{
+    out.writeInt(refs.length / REF_SIZE);
+    for(int i = 0; i < refs.length; i += REF_SIZE){
+      out.writeBoolean((refs[i] & INTERFACE_FLAG) != 0);
+      out.writeUTF(symbol(refs[i]));
+      out.writeUTF(symbol(refs[i + 1]));
+      out.writeUTF(symbol(refs[i + 2]));
+    }
+  }
+
+  private static int[] readRefs(DataInput in) throws IOException{
+    int size = in.readInt();
+    int[] refs = (size == 0) ? EMPTY : new int[size * REF_SIZE];
+    for(int i = 0; i < refs.length; i += REF_SIZE){
+      boolean isInterface = in.readBoolean();
+      int owner = SymbolTable.SHARED.intern(in.readUTF());
+      refs[i] = isInterface ? (owner | INTERFACE_FLAG) : owner;
+      refs[i + 1] = SymbolTable.SHARED.intern(in.readUTF());
+      refs[i + 2] = SymbolTable.SHARED.intern(in.readUTF());
+    }
+    return refs;
+  }
+
+  /**
+   * Write this summary in binary form.
+   * Symbols are written as strings, so the output does not depend on
+   * ids in SymbolTable.
+   *
+   * @param out Destination of this summary.
+   * @throws IOException if I/O error occurred.
+   */
+  public void writeTo(DataOutput out) throws IOException{
+    out.writeUTF(symbol(className));
+    out.writeBoolean(superClass != -1);
+    if(superClass != -1){
+      out.writeUTF(symbol(superClass));
+    }
+    writeSymbols(out, interfaces);
+    writeRefs(out, fieldRefs);
+    writeRefs(out, methodRefs);
+    out.writeShort(majorVersion);
+    out.writeShort(minorVersion);
+  }
+
+  /**
+   * Read the summary which is written by writeTo().
+   *
+   * @param in Source of the summary.
+   * @return ClassSummary
+   * @throws IOException if I/O error occurred.
+   */
+  public static ClassSummary readFrom(DataInput in) throws IOException{
+    int className = SymbolTable.SHARED.intern(in.readUTF());
+    int superClass = in.readBoolean() ? SymbolTable.SHARED.intern(in.readUTF()) : -1;
+    int[] interfaces = readSymbols(in);
+    int[] fieldRefs = readRefs(in);
+    int[] methodRefs = readRefs(in);
+    int majorVersion = in.readUnsignedShort();
+    int minorVersion = in.readUnsignedShort();
+    return new ClassSummary(className, superClass, interfaces, fieldRefs, methodRefs, majorVersion, minorVersion);
+  }
+
+  @Override
+  public boolean equals(Object obj){
+    // Same symbols have same ids because all of summaries share SymbolTable.
+    return (obj instanceof ClassSummary other) &&
+           (className == other.className) &&
+           (superClass == other.superClass) &&
+           (majorVersion == other.majorVersion) &&
+           (minorVersion == other.minorVersion) &&
+           Arrays.equals(interfaces, other.interfaces) &&
+           Arrays.equals(fieldRefs, other.fieldRefs) &&
+           Arrays.equals(methodRefs, other.methodRefs);
+  }
+
+  @Override
+  public int hashCode(){
+    return Objects.hash(className, superClass, majorVersion, minorVersion,
+                        Arrays.hashCode(interfaces), Arrays.hashCode(fieldRefs), Arrays.hashCode(methodRefs));
+  }
+
+  @Override
+  public String toString(){
+    return "ClassSummary[className=" + className() + ", superClass=" + superClass() +
+           ", interfaces=" + interfaces() + ", fieldRefs=" + fieldRefs() + ", methodRefs=" + methodRefs() +
+           ", majorVersion=" + majorVersion() + ", minorVersion=" + minorVersion() + "]";
+  }
+
+}
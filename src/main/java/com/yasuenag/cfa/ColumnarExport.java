@@ -0,0 +1,397 @@
+package com.yasuenag.cfa;
+
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Columnar binary export of classes.
+ *
+ * All strings (class names, member names, descriptors and file names) are
+ * stored once in the string table, and other columns refer them by id.
+ * Each column is an array of little-endian int, so the file can be loaded
+ * by memory-mapping without decoding.
+ *
+ * <pre>
+ * header:     magic, version, number of columns, then (offset: long, length in bytes: long) of each column
+ * strings:    STRING_OFFSETS (count + 1), STRING_DATA (UTF-8)
+ * classes:    CLASS_NAME, CLASS_FILE, CLASS_SUPER (-1 if none), CLASS_MAJOR, CLASS_MINOR
+ * interfaces: INTERFACE_OFFSETS (classes + 1), INTERFACES (string id)
+ * refs:       REF_KIND, REF_OWNER, REF_NAME, REF_TYPE (distinct member refs)
+ * edges:      EDGE_OFFSETS (classes + 1), EDGES (ref id)
+ * </pre>
+ */
+public class ColumnarExport implements AutoCloseable{
+
+  private static final int MAGIC = 0x43464143; // "CFAC"
+
+  private static final int VERSION = 1;
+
+  /**
+   * Kind of member ref in REF_KIND column.
+   */
+  public static final int KIND_FIELD = 0;
+  public static final int KIND_METHOD = 1;
+  public static final int KIND_INTERFACE_METHOD = 2;
+
+  private static final int STRING_OFFSETS = 0;
+  private static final int STRING_DATA = 1;
+  private static final int CLASS_NAME = 2;
+  private static final int CLASS_FILE = 3;
+  private static final int CLASS_SUPER = 4;
+  private static final int CLASS_MAJOR = 5;
+  private static final int CLASS_MINOR = 6;
+  private static final int INTERFACE_OFFSETS = 7;
+  private static final int INTERFACES = 8;
+  private static final int REF_KIND = 9;
+  private static final int REF_OWNER = 10;
+  private static final int REF_NAME = 11;
+  private static final int REF_TYPE = 12;
+  private static final int EDGE_OFFSETS = 13;
+  private static final int EDGES = 14;
+  private static final int NUM_COLUMNS = 15;
+
+  private static final int HEADER_SIZE = 12 + NUM_COLUMNS * 16;
+
+  /**
+   * Growable int array for columns.
+   */
+  private static class IntColumn{
+
+    private int[] values = new int[1024];
+
+    private int size = 0;
+
+    private void add(int value){
+      if(size == values.length){
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
+    }
+
+    private ByteBuffer toBuffer(){
+      ByteBuffer buf = ByteBuffer.allocate(size * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      buf.asIntBuffer().put(values, 0, size);
+      return buf;
+    }
+
+  }
+
+  /**
+   * Builder of the columnar export. Classes are stored in order of addition.
+   */
+  public static class Builder{
+
+    private final Map<String, Integer> stringIds;
+
+    private final IntColumn stringOffsets;
+
+    private final ByteArrayOutputStream stringData;
+
+    private final Map<ClassSummary.MemberRef, Integer> refIds;
+
+    private final IntColumn[] columns;
+
+    public Builder(){
+      stringIds = new HashMap<>();
+      stringOffsets = new IntColumn();
+      stringOffsets.add(0);
+      stringData = new ByteArrayOutputStream();
+      refIds = new HashMap<>();
+      columns = new IntColumn[NUM_COLUMNS];
+      for(int i = 0; i < NUM_COLUMNS; i++){
+        columns[i] = new IntColumn();
+      }
+      columns[INTERFACE_OFFSETS].add(0);
+      columns[EDGE_OFFSETS].add(0);
+    }
+
+    private int stringId(String str){
+      return stringIds.computeIfAbsent(str, s -> {
+        stringData.writeBytes(s.getBytes(StandardCharsets.UTF_8));
+        stringOffsets.add(stringData.size());
+        return stringIds.size();
+      });
+    }
+
+    private int refId(ClassSummary.MemberRef ref, int kind){
+      Integer id = refIds.get(ref);
+      if(id == null){
+        id = refIds.size();
+        refIds.put(ref, id);
+        columns[REF_KIND].add(kind);
+        columns[REF_OWNER].add(stringId(ref.owner().replace('/', '.')));
+        columns[REF_NAME].add(stringId(ref.name()));
+        columns[REF_TYPE].add(stringId(ref.type()));
+      }
+      return id;
+    }
+
+    /**
+     * Add the class to the export.
+     *
+     * @param dumper ClassInfoDumper of the class.
+     */
+    public void add(ClassInfoDumper dumper){
+      ClassSummary summary = dumper.toSummary();
+      columns[CLASS_NAME].add(stringId(summary.className()));
+      columns[CLASS_FILE].add(stringId(dumper.getFileName()));
+      columns[CLASS_SUPER].add(summary.superClass() == null ? -1 : stringId(summary.superClass()));
+      columns[CLASS_MAJOR].add(summary.majorVersion());
+      columns[CLASS_MINOR].add(summary.minorVersion());
+
+      for(String i : summary.interfaces()){
+        columns[INTERFACES].add(stringId(i));
+      }
+      columns[INTERFACE_OFFSETS].add(columns[INTERFACES].size);
+
+      for(var f : summary.fieldRefs()){
+        columns[EDGES].add(refId(f, KIND_FIELD));
+      }
+      for(var m : summary.methodRefs()){
+        columns[EDGES].add(refId(m, m.isInterface() ? KIND_INTERFACE_METHOD : KIND_METHOD));
+      }
+      columns[EDGE_OFFSETS].add(columns[EDGES].size);
+    }
+
+    /**
+     * Write the export to the file.
+     *
+     * @param path Path to the file.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(Path path) throws IOException{
+      ByteBuffer[] data = new ByteBuffer[NUM_COLUMNS];
+      for(int i = 0; i < NUM_COLUMNS; i++){
+        data[i] = columns[i].toBuffer();
+      }
+      data[STRING_OFFSETS] = stringOffsets.toBuffer();
+      data[STRING_DATA] = ByteBuffer.wrap(stringData.toByteArray());
+
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+      header.putInt(MAGIC);
+      header.putInt(VERSION);
+      header.putInt(NUM_COLUMNS);
+      long offset = HEADER_SIZE;
+      for(ByteBuffer column : data){
+        header.putLong(offset);
+        header.putLong(column.remaining());
+        offset += column.remaining();
+      }
+      header.flip();
+
+      try(FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+        ch.write(header);
+        for(ByteBuffer column : data){
+          while(column.hasRemaining()){
+            ch.write(column);
+          }
+        }
+      }
+    }
+
+  }
+
+  /**
+   * Mapped columns. STRING_DATA is null in this array.
+   */
+  private final IntBuffer[] columns;
+
+  /**
+   * Mapped STRING_DATA.
+   */
+  private final ByteBuffer stringData;
+
+  private ColumnarExport(IntBuffer[] columns, ByteBuffer stringData){
+    this.columns = columns;
+    this.stringData = stringData;
+  }
+
+  /**
+   * Open the export file. Each column is memory-mapped, and it is not
+   * copied to the heap.
+   *
+   * @param path Path to the export file.
+   * @return ColumnarExport to read the file.
+   * @throws IOException if the file cannot be read, or it is broken.
+   */
+  public static ColumnarExport open(Path path) throws IOException{
+    try(FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)){
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+      while(header.hasRemaining() && ch.read(header) != -1);
+      header.flip();
+      if(header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION ||
+         header.getInt() != NUM_COLUMNS){
+        throw new IOException("Invalid export file: " + path.toString());
+      }
+
+      IntBuffer[] columns = new IntBuffer[NUM_COLUMNS];
+      ByteBuffer stringData = null;
+      for(int i = 0; i < NUM_COLUMNS; i++){
+        long offset = header.getLong();
+        long length = header.getLong();
+        if(offset < 0 || length < 0 || offset + length > ch.size()){
+          throw new IOException("Invalid export file: " + path.toString());
+        }
+        // Mapping is valid after the channel is closed.
+        ByteBuffer column = ch.map(FileChannel.MapMode.READ_ONLY, offset, length).order(ByteOrder.LITTLE_ENDIAN);
+        if(i == STRING_DATA){
+          stringData = column;
+        }
+        else{
+          columns[i] = column.asIntBuffer();
+        }
+      }
+      return new ColumnarExport(columns, stringData);
+    }
+  }
+
+  /**
+   * @return Number of strings in the string table.
+   */
+  public int stringCount(){
+    return columns[STRING_OFFSETS].limit() - 1;
+  }
+
+  /**
+   * @param id String id.
+   * @return String of the id.
+   */
+  public String string(int id){
+    int start = columns[STRING_OFFSETS].get(id);
+    int end = columns[STRING_OFFSETS].get(id + 1);
+    byte[] bytes = new byte[end - start];
+    stringData.get(start, bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @return Number of classes.
+   */
+  public int classCount(){
+    return columns[CLASS_NAME].limit();
+  }
+
+  /**
+   * @return String id of the class name of the class.
+   */
+  public int classNameId(int classId){
+    return columns[CLASS_NAME].get(classId);
+  }
+
+  /**
+   * @return String id of the file name of the class.
+   */
+  public int fileId(int classId){
+    return columns[CLASS_FILE].get(classId);
+  }
+
+  /**
+   * @return String id of the super class of the class, or -1 if it does not exist.
+   */
+  public int superClassId(int classId){
+    return columns[CLASS_SUPER].get(classId);
+  }
+
+  public int majorVersion(int classId){
+    return columns[CLASS_MAJOR].get(classId);
+  }
+
+  public int minorVersion(int classId){
+    return columns[CLASS_MINOR].get(classId);
+  }
+
+  private static int[] slice(IntBuffer offsets, IntBuffer values, int classId){
+    int start = offsets.get(classId);
+    int[] result = new int[offsets.get(classId + 1) - start];
+    values.get(start, result);
+    return result;
+  }
+
+  /**
+   * @return String ids of interfaces of the class.
+   */
+  public int[] interfaceIds(int classId){
+    return slice(columns[INTERFACE_OFFSETS], columns[INTERFACES], classId);
+  }
+
+  /**
+   * @return Ref ids which are referred from the class.
+   */
+  public int[] refIds(int classId){
+    return slice(columns[EDGE_OFFSETS], columns[EDGES], classId);
+  }
+
+  /**
+   * @return Number of distinct member refs.
+   */
+  public int refCount(){
+    return columns[REF_KIND].limit();
+  }
+
+  /**
+   * @return KIND_FIELD, KIND_METHOD or KIND_INTERFACE_METHOD
+   */
+  public int refKind(int refId){
+    return columns[REF_KIND].get(refId);
+  }
+
+  /**
+   * @return String id of the owner class of the ref in Java form.
+   */
+  public int refOwnerId(int refId){
+    return columns[REF_OWNER].get(refId);
+  }
+
+  /**
+   * @return String id of the member name of the ref.
+   */
+  public int refNameId(int refId){
+    return columns[REF_NAME].get(refId);
+  }
+
+  /**
+   * @return String id of the descriptor of the ref.
+   */
+  public int refTypeId(int refId){
+    return columns[REF_TYPE].get(refId);
+  }
+
+  /**
+   * Mapped buffers are released by GC, so this method does nothing.
+   * This class implements AutoCloseable to be used in try-with-resources
+   * as other readers.
+   */
+  @Override
+  public void close(){
+  }
+
+}
@@ -0,0 +1,298 @@
+package com.yasuenag.cfa;
+
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+
+/**
+ * Lightweight scanner to evaluate filter conditions from raw class bytes.
+ * This scanner reads ConstantPool and the class header only, and
+ * collects the same information as ClassInfoDumper without building
+ * ClassModel.
+ */
+public class ConstantPoolScanner{
+
+  private static final int CONSTANT_Utf8 = 1;
+  private static final int CONSTANT_Integer = 3;
+  private static final int CONSTANT_Float = 4;
+  private static final int CONSTANT_Long = 5;
+  private static final int CONSTANT_Double = 6;
+  private static final int CONSTANT_Class = 7;
+  private static final int CONSTANT_String = 8;
+  private static final int CONSTANT_Fieldref = 9;
+  private static final int CONSTANT_Methodref = 10;
+  private static final int CONSTANT_InterfaceMethodref = 11;
+  private static final int CONSTANT_NameAndType = 12;
+  private static final int CONSTANT_MethodHandle = 15;
+  private static final int CONSTANT_MethodType = 16;
+  private static final int CONSTANT_Dynamic = 17;
+  private static final int CONSTANT_InvokeDynamic = 18;
+  private static final int CONSTANT_Module = 19;
+  private static final int CONSTANT_Package = 20;
+
+  /**
+   * Class bytes. Position of this buffer is not changed.
+   */
+  private final ByteBuffer buf;
+
+  /**
+   * Tag of each ConstantPool entry.
+   */
+  private byte[] tags;
+
+  /**
+   * Absolute offset of each ConstantPool entry (next to the tag).
+   */
+  private int[] offsets;
+
+  /**
+   * Cache of decoded Utf8 entries.
+   */
+  private String[] utf8Cache;
+
+  /**
+   * Absolute offset of access_flags.
+   */
+  private int headerOffset;
+
+  private ConstantPoolScanner(ByteBuffer buf){
+    this.buf = buf;
+  }
+
+  /**
+   * Return whether the class might match with filter conditions.
+   * This method returns true if the class cannot be scanned
+   * because the class would be checked by ClassFile API later.
+   *
+   * @param buf Class bytes from position to limit.
+   * @param filter Filter conditions.
+   * @return false if the class never matches with filter conditions.
+   */
+  public static boolean mightMatch(ByteBuffer buf, ClassFilter filter){
+    if(!filter.hasTargetFilter() && !filter.hasClassFilter() && !filter.hasMethodFilter() && !filter.hasFieldFilter()){
+      return false;
+    }
+
+    try{
+      var scanner = new ConstantPoolScanner(buf);
+      scanner.scanConstantPool();
+      return scanner.matches(filter);
+    }
+    catch(RuntimeException e){
+      // Malformed class
+      return true;
+    }
+  }
+
+  private int u1(int offset){
+    return buf.get(offset) & 0xff;
+  }
+
+  private int u2(int offset){
+    return buf.getShort(offset) & 0xffff;
+  }
+
+  private void scanConstantPool(){
+    int pos = buf.position();
+    if(buf.getInt(pos) != 0xCAFEBABE){
+      throw new IllegalArgumentException("Not a class file");
+    }
+
+    int count = u2(pos + 8);
+    tags = new byte[count];
+    offsets = new int[count];
+    utf8Cache = new String[count];
+
+    pos += 10;
+    for(int i = 1; i < count; i++){
+      int tag = u1(pos);
+      tags[i] = (byte)tag;
+      offsets[i] = ++pos;
+      pos += switch(tag){
+        case CONSTANT_Utf8 -> 2 + u2(pos);
+        case CONSTANT_Class, CONSTANT_String, CONSTANT_MethodType,
+             CONSTANT_Module, CONSTANT_Package -> 2;
+        case CONSTANT_MethodHandle -> 3;
+        case CONSTANT_Integer, CONSTANT_Float, CONSTANT_Fieldref,
+             CONSTANT_Methodref, CONSTANT_InterfaceMethodref,
+             CONSTANT_NameAndType, CONSTANT_Dynamic,
+             CONSTANT_InvokeDynamic -> 4;
+        case CONSTANT_Long, CONSTANT_Double -> 8;
+        default -> throw new IllegalArgumentException("Unknown tag: " + tag);
+      };
+
+      if(tag == CONSTANT_Long || tag == CONSTANT_Double){
+        i++; // 8-byte constants take up two entries.
+      }
+    }
+    headerOffset = pos;
+  }
+
+  private void checkTag(int index, int expected){
+    if(tags[index] != expected){
+      throw new IllegalArgumentException("Unexpected tag at #" + index);
+    }
+  }
+
+  private String utf8(int index){
+    String str = utf8Cache[index];
+    if(str != null){
+      return str;
+    }
+
+    checkTag(index, CONSTANT_Utf8);
+    int offset = offsets[index];
+    int len = u2(offset);
+    offset += 2;
+
+    boolean ascii = true;
+    for(int i = 0; i < len; i++){
+      if(buf.get(offset + i) < 0){
+        ascii = false;
+        break;
+      }
+    }
+
+    if(ascii){
+      byte[] bytes = new byte[len];
+      buf.get(offset, bytes);
+      str = new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+    else{
+      str = decodeModifiedUtf8(offset, len);
+    }
+
+    utf8Cache[index] = str;
+    return str;
+  }
+
+  private String decodeModifiedUtf8(int offset, int len){
+    var sb = new StringBuilder(len);
+    int end = offset + len;
+    while(offset < end){
+      int c = u1(offset++);
+      if(c < 0x80){
+        sb.append((char)c);
+      }
+      else if((c & 0xe0) == 0xc0){
+        sb.append((char)(((c & 0x1f) << 6) | (u1(offset++) & 0x3f)));
+      }
+      else{
+        int c2 = u1(offset++);
+        int c3 = u1(offset++);
+        sb.append((char)(((c & 0x0f) << 12) | ((c2 & 0x3f) << 6) | (c3 & 0x3f)));
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * @return Class name in Java form from CONSTANT_Class.
+   */
+  private String className(int index){
+    checkTag(index, CONSTANT_Class);
+    return utf8(u2(offsets[index])).replace('/', '.');
+  }
+
+  /**
+   * @return Class name from field descriptor which is same as
+   *         JNISIG_PATTERN in ClassInfoDumper.
+   */
+  private static String classFromFieldType(String type){
+    return (type.length() > 2 && type.charAt(0) == 'L' && type.charAt(type.length() - 1) == ';')
+             ? type.substring(1, type.length() - 1).replace('/', '.')
+             : null;
+  }
+
+  @FunctionalInterface
+  private static interface MemberPredicate{
+    public boolean test(String owner, String name, String type);
+  }
+
+  /**
+   * Match the member ref at the offset. Owner and descriptor are decoded
+   * only if member queries are specified.
+   */
+  private boolean matchesMember(MemberPredicate predicate, boolean needsMember, int offset){
+    int nameAndType = u2(offset + 2);
+    checkTag(nameAndType, CONSTANT_NameAndType);
+    String name = utf8(u2(offsets[nameAndType]));
+    return needsMember ? predicate.test(className(u2(offset)), name, utf8(u2(offsets[nameAndType] + 2)))
+                       : predicate.test(null, name, null);
+  }
+
+  private boolean matches(ClassFilter filter){
+    int thisClass = u2(headerOffset + 2);
+    if(filter.hasTargetFilter() && filter.matchesTarget(className(thisClass))){
+      return true;
+    }
+
+    if(filter.hasClassFilter()){
+      int superClass = u2(headerOffset + 4);
+      if(superClass != 0 && filter.matchesClass(className(superClass))){
+        return true;
+      }
+
+      int interfaces = u2(headerOffset + 6);
+      for(int i = 0; i < interfaces; i++){
+        if(filter.matchesClass(className(u2(headerOffset + 8 + i * 2)))){
+          return true;
+        }
+      }
+    }
+
+    for(int i = 1; i < tags.length; i++){
+      int tag = tags[i];
+      if(tag == CONSTANT_Fieldref){
+        int offset = offsets[i];
+        if(filter.hasClassFilter()){
+          if(filter.matchesClass(className(u2(offset)))){
+            return true;
+          }
+
+          int nameAndType = u2(offset + 2);
+          checkTag(nameAndType, CONSTANT_NameAndType);
+          String typeClass = classFromFieldType(utf8(u2(offsets[nameAndType] + 2)));
+          if(typeClass != null && filter.matchesClass(typeClass)){
+            return true;
+          }
+        }
+
+        if(filter.hasFieldFilter() && matchesMember(filter::matchesField, filter.hasFieldMemberFilter(), offset)){
+          return true;
+        }
+      }
+      else if(tag == CONSTANT_Methodref || tag == CONSTANT_InterfaceMethodref){
+        int offset = offsets[i];
+        if(filter.hasClassFilter() && filter.matchesClass(className(u2(offset)))){
+          return true;
+        }
+
+        if(filter.hasMethodFilter() && matchesMember(filter::matchesMethod, filter.hasMethodMemberFilter(), offset)){
+          return true;
+        }
+      }
+    }
+
+    return false;
+  }
+
+}
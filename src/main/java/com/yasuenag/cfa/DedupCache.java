@@ -0,0 +1,176 @@
+package com.yasuenag.cfa;
+
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+
+
+/**
+ * Results of archives and classes which have been scanned in this run.
+ * Archives are identified by size and CRC32C of the content, and classes
+ * are identified by CRC32 and size, and are confirmed by SHA-256.
+ * SHA-256 is calculated only if another class has the same CRC32 and size,
+ * so unique classes do not pay for it. The first class which has the
+ * CRC32 and size does not have SHA-256 because its bytes are not kept,
+ * so it is confirmed by CRC32C instead.
+ * Each unique archive or class is parsed once, and its result is reported
+ * for all locations where it appears.
+ *
+ * Results depend on filter conditions, so this cache must not be shared
+ * between Options.
+ */
+public class DedupCache{
+
+  /**
+   * Fingerprint of the archive.
+   */
+  public static record Fingerprint(long size, long hash){}
+
+  /**
+   * Matched class in the archive.
+   *
+   * @param suffix Suffix of the archive name (e.g. "!/BOOT-INF/lib/x.jar"),
+   *               or empty string if the class is in the archive itself.
+   * @param summary Summary of the class.
+   */
+  public static record ArchiveClass(String suffix, ClassSummary summary){}
+
+  private static record EntryKey(long crc, int size){}
+
+  /**
+   * Unique class.
+   *
+   * @param hash CRC32C of the class file.
+   * @param digest SHA-256 of the class file, or null if it is the first class
+   *               which has the key.
+   * @param summary Summary of the class, or null if it does not match.
+   */
+  private static record Blob(long hash, byte[] digest, ClassSummary summary){}
+
+  private final ConcurrentHashMap<Fingerprint, List<ArchiveClass>> archives;
+
+  private final ConcurrentHashMap<EntryKey, List<Blob>> classes;
+
+  public DedupCache(){
+    archives = new ConcurrentHashMap<>();
+    classes = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Calculate the fingerprint of the archive. The whole archive is read.
+   *
+   * @param archive Path to the archive.
+   * @return Fingerprint of the archive.
+   * @throws IOException if the archive cannot be read.
+   */
+  public Fingerprint fingerprint(Path archive) throws IOException{
+    return new Fingerprint(Files.size(archive), IndexCache.contentHash(archive));
+  }
+
+  /**
+   * @param fingerprint Fingerprint of the archive.
+   * @return Matched classes in the archive in order of the scan,
+   *         or null if the archive has not been scanned.
+   */
+  public List<ArchiveClass> findArchive(Fingerprint fingerprint){
+    return archives.get(fingerprint);
+  }
+
+  /**
+   * Store matched classes of the archive.
+   * This should be called after all of classes in the archive are scanned.
+   *
+   * @param fingerprint Fingerprint of the archive.
+   * @param matched Matched classes in the archive in order of the scan.
+   */
+  public void putArchive(Fingerprint fingerprint, List<ArchiveClass> matched){
+    archives.putIfAbsent(fingerprint, List.copyOf(matched));
+  }
+
+  private static byte[] digest(ByteBuffer buf){
+    try{
+      var md = MessageDigest.getInstance("SHA-256");
+      md.update(buf.duplicate());
+      return md.digest();
+    }
+    catch(NoSuchAlgorithmException e){
+      // SHA-256 is supported in all of Java platform.
+      throw new AssertionError(e);
+    }
+  }
+
+  /**
+   * Parse the class only if the same class has not been parsed, and it
+   * matches with filter conditions. ConstantPool of the class should be
+   * checked by ConstantPoolScanner before calling this method.
+   *
+   * @param buf Bytes of class from position to limit.
+   * @param fname File name or archive of class.
+   * @param option Option which contains filter conditions.
+   * @return ClassInfoDumper of the class, or null if it does not match.
+   */
+  ClassInfoDumper parseIfMatches(ByteBuffer buf, String fname, Option option){
+    var crc = new CRC32();
+    crc.update(buf.duplicate());
+    var key = new EntryKey(crc.getValue(), buf.remaining());
+    var hash = new CRC32C();
+    hash.update(buf.duplicate());
+
+    List<Blob> blobs = classes.get(key);
+    byte[] digest = null;
+    if(blobs != null){
+      digest = digest(buf);
+      for(Blob blob : blobs){
+        boolean same = (blob.digest() == null) ? (blob.hash() == hash.getValue())
+                                               : Arrays.equals(blob.digest(), digest);
+        if(same){
+          ScanStats stats = option.getStats();
+          stats.classDeduplicated();
+          if(blob.summary() == null){
+            return null;
+          }
+          stats.classMatched();
+          return new ClassInfoDumper(blob.summary(), fname);
+        }
+      }
+    }
+
+    ClassInfoDumper dumper = ClassInfoDumper.parseAndFilter(buf, fname, option);
+    var blob = new Blob(hash.getValue(), digest, (dumper == null) ? null : dumper.toSummary());
+    classes.compute(key, (k, list) -> {
+      // Lists are replaced instead of updated because they are read without lock.
+      var newList = (list == null) ? new ArrayList<Blob>(1) : new ArrayList<Blob>(list);
+      newList.add(blob);
+      return newList;
+    });
+    return dumper;
+  }
+
+}
@@ -0,0 +1,439 @@
+package com.yasuenag.cfa;
+
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+
+/**
+ * Class-level dependency graph of all scanned classes.
+ * Each class (including referenced classes which are not scanned) has an
+ * int id in order of the first appearance. Edges are stored in CSR
+ * (compressed sparse row) form for both directions: offsets of each class
+ * and sorted ids of adjacent classes, so each edge takes 4 bytes per
+ * direction.
+ */
+public class DependencyGraph{
+
+  /**
+   * Frontiers which are smaller than this are expanded in the current thread.
+   */
+  private static final int PARALLEL_THRESHOLD = 256;
+
+  /**
+   * Kind of the graph query.
+   */
+  public static enum Kind{
+    /**
+     * Classes which are reachable from the classes.
+     */
+    REACHABLE,
+
+    /**
+     * Classes which can reach the classes.
+     */
+    REACHING,
+
+    /**
+     * Scanned classes which are not reachable from the classes.
+     */
+    UNREACHABLE,
+
+    /**
+     * Shortest path from the first class to the second one.
+     */
+    PATH
+  }
+
+  /**
+   * Graph query which is specified by --graph.
+   *
+   * @param kind Kind of the query.
+   * @param classes Classes in Java form in order of the argument.
+   */
+  public static record Query(Kind kind, List<String> classes){
+
+    /**
+     * Parse the query in "kind=class1,class2,..." form.
+     *
+     * @param str Query string.
+     * @return Query
+     * @throws IllegalArgumentException if the query is invalid.
+     */
+    public static Query parse(String str) throws IllegalArgumentException{
+      int sep = str.indexOf('=');
+      if(sep < 0 || sep == str.length() - 1){
+        throw new IllegalArgumentException("Invalid graph query.");
+      }
+
+      Kind kind = switch(str.substring(0, sep)){
+        case "reachable" -> Kind.REACHABLE;
+        case "reaching" -> Kind.REACHING;
+        case "unreachable" -> Kind.UNREACHABLE;
+        case "path" -> Kind.PATH;
+        default -> throw new IllegalArgumentException("Invalid graph query.");
+      };
+      List<String> classes = List.of(str.substring(sep + 1).split(","));
+      if(kind == Kind.PATH && classes.size() != 2){
+        throw new IllegalArgumentException("path query needs 2 classes.");
+      }
+
+      return new Query(kind, classes);
+    }
+
+  }
+
+  /**
+   * Class name of each id in Java form.
+   */
+  private final String[] names;
+
+  /**
+   * Map from class names to ids.
+   */
+  private final Map<String, Integer> ids;
+
+  /**
+   * Ids of classes which are scanned. Others are referenced only.
+   */
+  private final BitSet scanned;
+
+  private final int[] forwardOffsets;
+
+  private final int[] forwardEdges;
+
+  private final int[] reverseOffsets;
+
+  private final int[] reverseEdges;
+
+  /**
+   * Builder of DependencyGraph.
+   */
+  public static class Builder{
+
+    private final Map<String, Integer> ids;
+
+    private final List<String> names;
+
+    private final BitSet scanned;
+
+    /**
+     * Edges in order of addition. They are converted to CSR in build().
+     */
+    private int[] froms;
+
+    private int[] tos;
+
+    private int edgeCount;
+
+    public Builder(){
+      ids = new HashMap<>();
+      names = new ArrayList<>();
+      scanned = new BitSet();
+      froms = new int[1024];
+      tos = new int[1024];
+      edgeCount = 0;
+    }
+
+    private int idOf(String name){
+      Integer id = ids.get(name);
+      if(id == null){
+        id = names.size();
+        ids.put(name, id);
+        names.add(name);
+      }
+      return id;
+    }
+
+    /**
+     * Add the class and its references to this graph.
+     * The class which appears in several files is merged into one.
+     *
+     * @param dumper ClassInfoDumper of the class.
+     */
+    public void add(ClassInfoDumper dumper){
+      int from = idOf(dumper.getClassName());
+      scanned.set(from);
+      for(String ref : dumper.getReferencedClasses()){
+        int to = idOf(ref);
+        if(to == from){
+          continue;
+        }
+        if(edgeCount == froms.length){
+          froms = Arrays.copyOf(froms, edgeCount * 2);
+          tos = Arrays.copyOf(tos, edgeCount * 2);
+        }
+        froms[edgeCount] = from;
+        tos[edgeCount] = to;
+        edgeCount++;
+      }
+    }
+
+    /**
+     * @return DependencyGraph which has all classes which are added to this builder.
+     */
+    public DependencyGraph build(){
+      int n = names.size();
+      int[] forwardOffsets = new int[n + 1];
+      int[] forwardEdges = toCsr(n, froms, tos, edgeCount, forwardOffsets);
+      int[] reverseOffsets = new int[n + 1];
+      int[] reverseEdges = toCsr(n, tos, froms, edgeCount, reverseOffsets);
+      return new DependencyGraph(names.toArray(String[]::new), new HashMap<>(ids), (BitSet)scanned.clone(),
+                                 forwardOffsets, forwardEdges, reverseOffsets, reverseEdges);
+    }
+
+  }
+
+  private DependencyGraph(String[] names, Map<String, Integer> ids, BitSet scanned, int[] forwardOffsets, int[] forwardEdges,
+                          int[] reverseOffsets, int[] reverseEdges){
+    this.names = names;
+    this.ids = ids;
+    this.scanned = scanned;
+    this.forwardOffsets = forwardOffsets;
+    this.forwardEdges = forwardEdges;
+    this.reverseOffsets = reverseOffsets;
+    this.reverseEdges = reverseEdges;
+  }
+
+  /**
+   * Convert the edge list to CSR form by counting sort. Adjacent ids of
+   * each class are sorted, and duplicated edges are removed.
+   *
+   * @param offsets Array to store offsets of each class. The length should be n + 1.
+   * @return Adjacent ids of all classes.
+   */
+  private static int[] toCsr(int n, int[] froms, int[] tos, int count, int[] offsets){
+    int[] starts = new int[n + 1];
+    for(int i = 0; i < count; i++){
+      starts[froms[i] + 1]++;
+    }
+    for(int i = 0; i < n; i++){
+      starts[i + 1] += starts[i];
+    }
+
+    int[] edges = new int[count];
+    int[] positions = Arrays.copyOf(starts, n);
+    for(int i = 0; i < count; i++){
+      edges[positions[froms[i]]++] = tos[i];
+    }
+
+    int size = 0;
+    for(int v = 0; v < n; v++){
+      Arrays.sort(edges, starts[v], starts[v + 1]);
+      offsets[v] = size;
+      for(int i = starts[v]; i < starts[v + 1]; i++){
+        if(size == offsets[v] || edges[size - 1] != edges[i]){
+          edges[size++] = edges[i];
+        }
+      }
+    }
+    offsets[n] = size;
+
+    return Arrays.copyOf(edges, size);
+  }
+
+  /**
+   * @return Number of classes in this graph including referenced classes.
+   */
+  public int size(){
+    return names.length;
+  }
+
+  /**
+   * @return Number of distinct edges.
+   */
+  public int edgeCount(){
+    return forwardEdges.length;
+  }
+
+  /**
+   * Find the id of the class.
+   *
+   * @param name Class name in Java form.
+   * @return Id of the class, or -1 if the class is not in this graph.
+   */
+  public int idOf(String name){
+    return ids.getOrDefault(name, -1);
+  }
+
+  /**
+   * @param id Id of the class.
+   * @return Class name in Java form.
+   */
+  public String nameOf(int id){
+    return names[id];
+  }
+
+  private static boolean visit(AtomicLongArray visited, int id){
+    int idx = id >>> 6;
+    long bit = 1L << id;
+    long current;
+    do{
+      current = visited.get(idx);
+      if((current & bit) != 0){
+        return false;
+      }
+    }while(!visited.compareAndSet(idx, current, current | bit));
+    return true;
+  }
+
+  /**
+   * Level-synchronous breadth-first search. Each frontier is expanded in
+   * parallel in the current ForkJoinPool, and each class is claimed by
+   * CAS on the visited bitmap, so it is visited only once.
+   *
+   * @param sources Ids of classes to start.
+   * @param reverse true if edges are followed from referenced classes to referrers.
+   * @param parents Array to store the parent of each visited class, or null.
+   * @return Visited classes including sources.
+   */
+  private BitSet search(int[] sources, boolean reverse, int[] parents){
+    int[] offsets = reverse ? reverseOffsets : forwardOffsets;
+    int[] edges = reverse ? reverseEdges : forwardEdges;
+    var visited = new AtomicLongArray((names.length + 63) >>> 6);
+
+    int[] frontier = IntStream.of(sources)
+                              .filter(v -> visit(visited, v))
+                              .toArray();
+    while(frontier.length > 0){
+      IntStream stream = IntStream.of(frontier);
+      if(frontier.length >= PARALLEL_THRESHOLD){
+        stream = stream.parallel();
+      }
+      frontier = stream.flatMap(v -> IntStream.range(offsets[v], offsets[v + 1])
+                                              .map(i -> edges[i])
+                                              .filter(w -> {
+                                                if(!visit(visited, w)){
+                                                  return false;
+                                                }
+                                                if(parents != null){
+                                                  // Only the thread which visits w writes it.
+                                                  parents[w] = v;
+                                                }
+                                                return true;
+                                              }))
+                       .toArray();
+    }
+
+    long[] words = new long[visited.length()];
+    for(int i = 0; i < words.length; i++){
+      words[i] = visited.get(i);
+    }
+    return BitSet.valueOf(words);
+  }
+
+  /**
+   * Find classes which are reachable from the sources.
+   *
+   * @param sources Ids of classes to start.
+   * @param reverse true if classes which can reach the sources should be found.
+   * @return Reachable classes including sources.
+   */
+  public BitSet reachable(int[] sources, boolean reverse){
+    return search(sources, reverse, null);
+  }
+
+  /**
+   * Find the shortest path between classes.
+   *
+   * @param from Id of the class to start.
+   * @param to Id of the target class.
+   * @return Ids of classes on the path including both ends, or empty array if there is no path.
+   */
+  public int[] shortestPath(int from, int to){
+    int[] parents = new int[names.length];
+    if(!search(new int[]{from}, false, parents).get(to)){
+      return new int[0];
+    }
+
+    var path = new ArrayList<Integer>();
+    for(int v = to; v != from; v = parents[v]){
+      path.add(v);
+    }
+    path.add(from);
+    return IntStream.range(0, path.size())
+                    .map(i -> path.get(path.size() - 1 - i))
+                    .toArray();
+  }
+
+  private int[] toIds(List<String> classes){
+    return classes.stream()
+                  .mapToInt(c -> {
+                    int id = idOf(c);
+                    if(id == -1){
+                      System.err.println("Unknown class: " + c);
+                    }
+                    return id;
+                  })
+                  .filter(id -> id != -1)
+                  .toArray();
+  }
+
+  private void run(Query query, PrintWriter out){
+    int[] sources = toIds(query.classes());
+    BitSet result = switch(query.kind()){
+      case REACHABLE, REACHING -> {
+        BitSet reached = reachable(sources, query.kind() == Kind.REACHING);
+        IntStream.of(sources).forEach(reached::clear);
+        yield reached;
+      }
+      case UNREACHABLE -> {
+        BitSet unreached = (BitSet)scanned.clone();
+        unreached.andNot(reachable(sources, false));
+        yield unreached;
+      }
+      case PATH -> null;
+    };
+
+    if(result != null){
+      result.stream().forEach(id -> out.println(names[id]));
+    }
+    else if(sources.length == 2){
+      IntStream.of(shortestPath(sources[0], sources[1])).forEach(id -> out.println(names[id]));
+    }
+  }
+
+  /**
+   * Run the query, and print classes in the result one per line.
+   * Classes are printed in order of the path for path query, and in
+   * order of the scan for others. Sources are not printed for reachable
+   * and reaching query.
+   *
+   * @param query Query to run.
+   * @param parallelism Number of threads to search.
+   * @param out Writer to print.
+   */
+  public void query(Query query, int parallelism, PrintWriter out){
+    // Parallel streams in search() run in the pool which runs the task.
+    try(var pool = new ForkJoinPool(parallelism)){
+      pool.submit(() -> run(query, out)).join();
+    }
+  }
+
+}
@@ -0,0 +1,384 @@
+package com.yasuenag.cfa;
+
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+
+/**
+ * Dependency matrix between packages or archives like jdeps summary.
+ * Each cell is the number of references from classes in a group to
+ * classes in another group. References in the same group are not counted.
+ */
+public class DependencyMatrix{
+
+  /**
+   * Group which does not have the definition of referenced classes.
+   */
+  public static final String NOT_FOUND = "not found";
+
+  /**
+   * Level of the group.
+   */
+  public static enum Level{
+    PACKAGE,
+    ARCHIVE
+  }
+
+  /**
+   * Matrix which is specified by --matrix.
+   *
+   * @param level Level of the group.
+   * @param table true if the result should be printed as the table instead of the edge list.
+   */
+  public static record Spec(Level level, boolean table){
+
+    /**
+     * Parse the spec in "package|archive[:table]" form.
+     *
+     * @param str Spec string.
+     * @return Spec
+     * @throws IllegalArgumentException if the spec is invalid.
+     */
+    public static Spec parse(String str) throws IllegalArgumentException{
+      boolean table = str.endsWith(":table");
+      Level level = switch(table ? str.substring(0, str.length() - 6) : str){
+        case "package" -> Level.PACKAGE;
+        case "archive" -> Level.ARCHIVE;
+        default -> throw new IllegalArgumentException("Invalid matrix.");
+      };
+      return new Spec(level, table);
+    }
+
+  }
+
+  /**
+   * Edge between groups.
+   *
+   * @param from Name of the referrer group.
+   * @param to Name of the referenced group.
+   * @param count Number of references.
+   */
+  public static record Edge(String from, String to, long count){
+  }
+
+  private final List<Edge> edges;
+
+  /**
+   * Builder of DependencyMatrix. References of all classes are collected
+   * as int ids, and they are reduced after all classes are added because
+   * archives of referenced classes are known at the end.
+   */
+  public static class Builder{
+
+    private final Map<String, Integer> classIds;
+
+    private final Map<String, Integer> packageIds;
+
+    private final Map<String, Integer> archiveIds;
+
+    private final List<String> packages;
+
+    private final List<String> archives;
+
+    /**
+     * Package id of each class id.
+     */
+    private int[] packageOf;
+
+    /**
+     * Archive id which defines each class id, or -1 if it is not scanned.
+     * The first archive is used if the class is in several archives as
+     * same as the classpath.
+     */
+    private int[] archiveOf;
+
+    /**
+     * Class id of each added class.
+     */
+    private int[] classes;
+
+    /**
+     * Archive id of each added class.
+     */
+    private int[] classArchives;
+
+    /**
+     * Offset of references of each added class in refs.
+     */
+    private int[] refOffsets;
+
+    private int[] refs;
+
+    private int classCount;
+
+    private int refCount;
+
+    public Builder(){
+      classIds = new HashMap<>();
+      packageIds = new HashMap<>();
+      archiveIds = new HashMap<>();
+      packages = new ArrayList<>();
+      archives = new ArrayList<>();
+      packageOf = new int[1024];
+      archiveOf = new int[1024];
+      classes = new int[1024];
+      classArchives = new int[1024];
+      refOffsets = new int[1025];
+      refs = new int[1024];
+      classCount = 0;
+      refCount = 0;
+    }
+
+    private static int idOf(Map<String, Integer> ids, List<String> names, String name){
+      Integer id = ids.get(name);
+      if(id == null){
+        id = names.size();
+        ids.put(name, id);
+        names.add(name);
+      }
+      return id;
+    }
+
+    private int classIdOf(String className){
+      Integer id = classIds.get(className);
+      if(id == null){
+        id = classIds.size();
+        classIds.put(className, id);
+        if(id == packageOf.length){
+          packageOf = Arrays.copyOf(packageOf, id * 2);
+          archiveOf = Arrays.copyOf(archiveOf, id * 2);
+        }
+        int sep = className.lastIndexOf('.');
+        packageOf[id] = idOf(packageIds, packages, (sep == -1) ? "(default)" : className.substring(0, sep));
+        archiveOf[id] = -1;
+      }
+      return id;
+    }
+
+    /**
+     * Archive of the class. Class files in the directory belong to the
+     * directory which is the root of the package.
+     */
+    private static String archiveName(ClassInfoDumper dumper){
+      String fname = dumper.getFileName();
+      for(char sep : new char[]{'/', '\\'}){
+        String suffix = sep + dumper.getClassName().replace('.', sep) + ".class";
+        if(fname.endsWith(suffix)){
+          return fname.substring(0, fname.length() - suffix.length());
+        }
+      }
+      return fname;
+    }
+
+    /**
+     * Reduce the array class to its element class.
+     *
+     * @param className Referenced class in Java form (e.g. [Ljava.lang.Object;)
+     * @return Element class, or null if it is an array of primitive type.
+     */
+    private static String elementClassOf(String className){
+      if(!className.startsWith("[")){
+        return className;
+      }
+      String element = className.substring(className.lastIndexOf('[') + 1);
+      return (element.startsWith("L") && element.endsWith(";")) ? element.substring(1, element.length() - 1) : null;
+    }
+
+    /**
+     * Add the class and its references to this matrix.
+     *
+     * @param dumper ClassInfoDumper of the class.
+     */
+    public void add(ClassInfoDumper dumper){
+      int classId = classIdOf(dumper.getClassName());
+      int archive = idOf(archiveIds, archives, archiveName(dumper));
+      if(archiveOf[classId] == -1){
+        archiveOf[classId] = archive;
+      }
+
+      if(classCount == classes.length){
+        classes = Arrays.copyOf(classes, classCount * 2);
+        classArchives = Arrays.copyOf(classArchives, classCount * 2);
+        refOffsets = Arrays.copyOf(refOffsets, classCount * 2 + 1);
+      }
+      classes[classCount] = classId;
+      classArchives[classCount] = archive;
+      for(String referenced : dumper.getReferencedClasses()){
+        // Array owners of methods (e.g. clone()) refer the element class.
+        String ref = elementClassOf(referenced);
+        if(ref == null){
+          continue;
+        }
+        int refId = classIdOf(ref);
+        if(refId == classId){
+          continue;
+        }
+        if(refCount == refs.length){
+          refs = Arrays.copyOf(refs, refCount * 2);
+        }
+        refs[refCount++] = refId;
+      }
+      classCount++;
+      refOffsets[classCount] = refCount;
+    }
+
+    /**
+     * Count references of the class between groups into the partial map
+     * of the current thread.
+     */
+    private void count(Map<Long, long[]> partial, int idx, Level level){
+      int from = (level == Level.PACKAGE) ? packageOf[classes[idx]] : classArchives[idx];
+      for(int i = refOffsets[idx]; i < refOffsets[idx + 1]; i++){
+        int to;
+        if(level == Level.PACKAGE){
+          to = packageOf[refs[i]];
+        }
+        else{
+          // Id of NOT_FOUND is the next of the last archive.
+          to = (archiveOf[refs[i]] == -1) ? archives.size() : archiveOf[refs[i]];
+        }
+        if(from != to){
+          partial.computeIfAbsent(((long)from << 32) | to, k -> new long[1])[0]++;
+        }
+      }
+    }
+
+    private static Map<Long, long[]> merge(Map<Long, long[]> to, Map<Long, long[]> from){
+      from.forEach((k, v) -> to.merge(k, v, (a, b) -> {
+        a[0] += b[0];
+        return a;
+      }));
+      return to;
+    }
+
+    /**
+     * Reduce references of all classes to the matrix. Classes are counted
+     * into partial maps of each thread in parallel, and partial maps are
+     * merged at the end.
+     *
+     * @param level Level of the group.
+     * @param parallelism Number of threads to reduce.
+     * @return DependencyMatrix
+     */
+    public DependencyMatrix build(Level level, int parallelism){
+      Map<Long, long[]> counts;
+      try(var pool = new ForkJoinPool(parallelism)){
+        counts = pool.submit(() -> IntStream.range(0, classCount)
+                                            .parallel()
+                                            .collect(HashMap<Long, long[]>::new,
+                                                     (m, i) -> count(m, i, level),
+                                                     Builder::merge))
+                     .join();
+      }
+
+      List<String> groups = (level == Level.PACKAGE) ? packages : new ArrayList<>(archives);
+      if(level == Level.ARCHIVE){
+        groups.add(NOT_FOUND);
+      }
+      List<Edge> edges = counts.entrySet()
+                               .stream()
+                               .map(e -> new Edge(groups.get((int)(e.getKey() >>> 32)),
+                                                  groups.get((int)(e.getKey() & 0xffffffffL)),
+                                                  e.getValue()[0]))
+                               .sorted(Comparator.comparing(Edge::from).thenComparing(Edge::to))
+                               .toList();
+      return new DependencyMatrix(edges);
+    }
+
+  }
+
+  private DependencyMatrix(List<Edge> edges){
+    this.edges = edges;
+  }
+
+  /**
+   * @return Edges in order of names of groups.
+   */
+  public List<Edge> edges(){
+    return edges;
+  }
+
+  /**
+   * Print edges one per line.
+   *
+   * @param option Option which has output format.
+   * @param out Writer to print.
+   */
+  public void printEdges(Option option, PrintWriter out){
+    for(Edge edge : edges){
+      if(option.getFormat() == Option.Format.NDJSON){
+        out.write('{');
+        JsonWriter.writeName(out, "from", true);
+        JsonWriter.writeString(out, edge.from());
+        JsonWriter.writeName(out, "to", false);
+        JsonWriter.writeString(out, edge.to());
+        JsonWriter.writeName(out, "count", false);
+        out.print(edge.count());
+        out.write("}\n");
+      }
+      else{
+        out.println(edge.from() + " -> " + edge.to() + ": " + edge.count());
+      }
+    }
+  }
+
+  /**
+   * Print the matrix as tab-separated table. Rows are referrers, and
+   * columns are referenced groups. Only groups which have edges are printed.
+   *
+   * @param out Writer to print.
+   */
+  public void printTable(PrintWriter out){
+    var groups = new TreeSet<String>();
+    edges.forEach(e -> {
+      groups.add(e.from());
+      groups.add(e.to());
+    });
+    List<String> names = List.copyOf(groups);
+    var index = new HashMap<String, Integer>();
+    for(int i = 0; i < names.size(); i++){
+      index.put(names.get(i), i);
+    }
+
+    long[][] cells = new long[names.size()][names.size()];
+    edges.forEach(e -> cells[index.get(e.from())][index.get(e.to())] = e.count());
+
+    out.println("\t" + String.join("\t", names));
+    for(int i = 0; i < names.size(); i++){
+      out.print(names.get(i));
+      for(long count : cells[i]){
+        out.print('\t');
+        out.print(count);
+      }
+      out.println();
+    }
+  }
+
+}
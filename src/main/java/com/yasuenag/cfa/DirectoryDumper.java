@@ -18,13 +18,14 @@ package com.yasuenag.cfa;
  * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
  */
 
-import java.util.Objects;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
-import java.util.stream.StreamSupport;
 import java.io.IOException;
+import java.io.PrintWriter;
 import java.io.UncheckedIOException;
+import java.util.function.Consumer;
 
 
 /**
@@ -46,23 +47,157 @@ public class DirectoryDumper implements Dumper{
     dir = path;
   }
 
+  private static boolean isClassFile(Path path){
+    return path.toString().endsWith(".class") && !Files.isDirectory(path);
+  }
+
+  private static ByteBuffer readClassFile(Path path, ScanStats stats) throws IOException{
+    stats.entriesSeen(1);
+    long start = stats.start();
+    ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(path));
+    stats.endRead(start, buf);
+    return buf;
+  }
+
+  /**
+   * Dump the class file. ClassModel is built only if the class might match
+   * with filter conditions.
+   *
+   * @return Size of the class file.
+   */
+  private int dumpClassFile(Path path, Option option, PrintWriter out){
+    try{
+      ByteBuffer buf = readClassFile(path, option.getStats());
+      ClassInfoDumper dumper = ClassInfoDumper.parseIfMatches(buf, path.toString(), option);
+      if(dumper != null){
+        dumper.printInfo(option, out);
+      }
+      return buf.remaining();
+    }
+    catch(IOException e){
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Commit ArchiveScanEvent of this directory if it is enabled.
+   * The duration includes subdirectories.
+   *
+   * @param event Event which has been begun.
+   * @param entries Number of class files in this directory.
+   * @param bytes Total size of class files in this directory.
+   */
+  private void commitScanEvent(ArchiveScanEvent event, int entries, long bytes){
+    event.end();
+    if(event.shouldCommit()){
+      event.path = dir.toString();
+      event.entries = entries;
+      event.bytes = bytes;
+      event.commit();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void dumpInfo(Option option, PrintWriter out){
+    DumperChooser chooser = new DumperChooser();
+    var event = new ArchiveScanEvent();
+    event.begin();
+    int entries = 0;
+    long bytes = 0;
+
+    try(DirectoryStream<Path> stream = Files.newDirectoryStream(dir)){
+      for(Path path : stream){
+        if(isClassFile(path)){
+          bytes += dumpClassFile(path, option, out);
+          entries++;
+        }
+        else{
+          Dumper dumper = chooser.apply(path);
+          if(dumper != null){
+            dumper.dumpInfo(option, out);
+          }
+        }
+      }
+    }
+    catch(IOException e){
+      throw new UncheckedIOException(e);
+    }
+
+    commitScanEvent(event, entries, bytes);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void submitTo(ScanPipeline pipeline){
+    DumperChooser chooser = new DumperChooser();
+    var event = new ArchiveScanEvent();
+    event.begin();
+    int entries = 0;
+    long bytes = 0;
+
+    try(DirectoryStream<Path> stream = Files.newDirectoryStream(dir)){
+      for(Path path : stream){
+        if(isClassFile(path)){
+          pipeline.getOption().getStats().entriesSeen(1);
+          entries++;
+          if(event.isEnabled()){
+            bytes += Files.size(path);
+          }
+          pipeline.submit(path.toString(), () -> ByteBuffer.wrap(Files.readAllBytes(path)));
+        }
+        else{
+          Dumper dumper = chooser.apply(path);
+          if(dumper != null){
+            // Archives and subdirectories are read on their own thread.
+            pipeline.fork(dumper);
+          }
+        }
+      }
+    }
+    catch(IOException e){
+      throw new UncheckedIOException(e);
+    }
+
+    commitScanEvent(event, entries, bytes);
+  }
+
   /**
    * {@inheritDoc}
    */
   @Override
-  public void dumpInfo(Option option){
+  public void forEachClass(Option option, Consumer<ClassInfoDumper> consumer){
     DumperChooser chooser = new DumperChooser();
+    var event = new ArchiveScanEvent();
+    event.begin();
+    int entries = 0;
+    long bytes = 0;
 
     try(DirectoryStream<Path> stream = Files.newDirectoryStream(dir)){
-      StreamSupport.stream(stream.spliterator(), false)
-                   .map(chooser)
-                   .filter(Objects::nonNull)
-                   .forEach(d -> d.dumpInfo(option));
+      for(Path path : stream){
+        if(isClassFile(path)){
+          ByteBuffer buf = readClassFile(path, option.getStats());
+          entries++;
+          bytes += buf.remaining();
+          consumer.accept(ClassInfoDumper.parse(buf, path.toString(), option));
+        }
+        else{
+          Dumper dumper = chooser.apply(path);
+          if(dumper != null){
+            dumper.forEachClass(option, consumer);
+          }
+        }
+      }
     }
     catch(IOException e){
       throw new UncheckedIOException(e);
     }
 
+    commitScanEvent(event, entries, bytes);
   }
 
 }
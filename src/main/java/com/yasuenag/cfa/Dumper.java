@@ -18,19 +18,50 @@ package com.yasuenag.cfa;
  * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
  */
 
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.function.Consumer;
+
 
 /**
  * Interface for class information dumper.
  */
-@FunctionalInterface
 public interface Dumper{
 
   /**
    * Dump class information.
    *
    * @param option Option to use in this dumper.
+   * @param out Writer to print class information.
+   */
+  public void dumpInfo(Option option, PrintWriter out);
+
+  /**
+   * Dump class information to stdout.
+   *
+   * @param option Option to use in this dumper.
+   */
+  public default void dumpInfo(Option option){
+    var out = new PrintWriter(new OutputStreamWriter(System.out, System.out.charset()));
+    dumpInfo(option, out);
+    out.flush();
+  }
+
+  /**
+   * Submit classes in this dumper to the scan pipeline.
+   *
+   * @param pipeline ScanPipeline to process classes.
+   */
+  public void submitTo(ScanPipeline pipeline);
+
+  /**
+   * Pass all classes in this dumper to the consumer regardless of
+   * filter conditions. This is used to build the index.
+   *
+   * @param option Option to use in this dumper.
+   * @param consumer Consumer of classes.
    */
-  public void dumpInfo(Option option);
+  public void forEachClass(Option option, Consumer<ClassInfoDumper> consumer);
 
 }
 
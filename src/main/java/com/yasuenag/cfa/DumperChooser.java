@@ -29,10 +29,17 @@ public class DumperChooser implements Function<Path, Dumper>{
   @Override
   public Dumper apply(Path path){
     try{
-      if(path.toFile().isDirectory()){
-        return new DirectoryDumper(path);
+      if(JrtDumper.isJrtPath(path)){
+        return JrtDumper.ofJrtPath(path);
       }
-      else if(path.toString().endsWith(".jar")){
+      else if(path.toFile().isDirectory()){
+        return JrtDumper.isJavaHome(path) ? JrtDumper.ofJavaHome(path)
+                                          : new DirectoryDumper(path);
+      }
+      else if(path.toString().endsWith(".jmod")){
+        return new JarClassInfoDumper(path);
+      }
+      else if(JarClassInfoDumper.isArchiveName(path.toString())){
         return new JarClassInfoDumper(path);
       }
       else if(path.toString().endsWith(".class")){
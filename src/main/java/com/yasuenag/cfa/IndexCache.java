@@ -0,0 +1,263 @@
+package com.yasuenag.cfa;
+
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+
+/**
+ * On-disk cache of class summaries in the archive.
+ * The index of each archive is stored in the cache directory, and is keyed
+ * by path, size, modified time and CRC32C of the content of the archive.
+ * Summaries of unchanged entries can be reused by CRC32 of ZIP entry
+ * even if the archive is updated.
+ */
+public class IndexCache{
+
+  private static final int MAGIC = 0x43464149; // "CFAI"
+
+  private static final int VERSION = 1;
+
+  /**
+   * Class in the archive.
+   *
+   * @param fname Archive name which includes the class.
+   *              This is different from the archive if the class is in nested archive.
+   * @param entryName Entry name in the archive.
+   * @param crc CRC32 of the entry.
+   * @param summary Summary of the class.
+   */
+  public static record Entry(String fname, String entryName, long crc, ClassSummary summary){}
+
+  /**
+   * Index of the archive which is read from the cache.
+   */
+  public static class Index{
+
+    private final long size;
+
+    private final long lastModified;
+
+    private final long contentHash;
+
+    private final List<Entry> entries;
+
+    private Map<String, Entry> entryMap;
+
+    private Index(long size, long lastModified, long contentHash, List<Entry> entries){
+      this.size = size;
+      this.lastModified = lastModified;
+      this.contentHash = contentHash;
+      this.entries = entries;
+      this.entryMap = null;
+    }
+
+    /**
+     * @return Classes in order of the archive.
+     */
+    public List<Entry> entries(){
+      return entries;
+    }
+
+    /**
+     * Find the summary of the entry which is not changed.
+     *
+     * @param fname Archive name which includes the class.
+     * @param entryName Entry name in the archive.
+     * @param crc CRC32 of the entry.
+     * @return Summary of the entry, or null if the entry is not cached or is changed.
+     */
+    public ClassSummary find(String fname, String entryName, long crc){
+      if(entryMap == null){
+        entryMap = new HashMap<>();
+        entries.forEach(e -> entryMap.put(e.fname() + "!/" + e.entryName(), e));
+      }
+      Entry entry = entryMap.get(fname + "!/" + entryName);
+      return (entry != null && entry.crc() == crc) ? entry.summary() : null;
+    }
+
+  }
+
+  /**
+   * Cache directory.
+   */
+  private final Path dir;
+
+  /**
+   * Constructor of IndexCache.
+   *
+   * @param dir Cache directory. It will be created if it does not exist.
+   */
+  public IndexCache(Path dir){
+    this.dir = dir;
+  }
+
+  private Path indexPath(Path archive){
+    try{
+      var digest = MessageDigest.getInstance("SHA-256");
+      byte[] key = archive.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8);
+      return dir.resolve(HexFormat.of().formatHex(digest.digest(key)) + ".idx");
+    }
+    catch(NoSuchAlgorithmException e){
+      // SHA-256 is supported in all of Java platform.
+      throw new AssertionError(e);
+    }
+  }
+
+  /**
+   * @param archive Path to the archive.
+   * @return CRC32C of the content of the archive.
+   * @throws IOException if the archive cannot be read.
+   */
+  static long contentHash(Path archive) throws IOException{
+    var crc = new CRC32C();
+    ByteBuffer buf = ByteBuffer.allocateDirect(1024 * 1024);
+    try(FileChannel ch = FileChannel.open(archive, StandardOpenOption.READ)){
+      while(ch.read(buf) != -1){
+        buf.flip();
+        crc.update(buf);
+        buf.clear();
+      }
+    }
+    return crc.getValue();
+  }
+
+  /**
+   * Load the index of the archive.
+   *
+   * @param archive Path to the archive.
+   * @return Index of the archive, or null if it is not cached or it is broken.
+   */
+  public Index load(Path archive){
+    try(var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath(archive))))){
+      if(in.readInt() != MAGIC || in.readInt() != VERSION){
+        return null;
+      }
+      if(!in.readUTF().equals(archive.toAbsolutePath().normalize().toString())){
+        return null;
+      }
+
+      long size = in.readLong();
+      long lastModified = in.readLong();
+      long contentHash = in.readLong();
+      int count = in.readInt();
+      var entries = new ArrayList<Entry>(count);
+      for(int i = 0; i < count; i++){
+        entries.add(new Entry(in.readUTF(), in.readUTF(), in.readLong(), ClassSummary.readFrom(in)));
+      }
+      return new Index(size, lastModified, contentHash, entries);
+    }
+    catch(NoSuchFileException e){
+      return null;
+    }
+    catch(IOException e){
+      // Broken cache is ignored, and it will be overwritten.
+      return null;
+    }
+  }
+
+  /**
+   * Return whether the index is valid for the current archive.
+   * Content hash is checked only if the size is same and modified time is
+   * different (e.g. the archive was rebuilt with the same content).
+   *
+   * @param index Index which is loaded from the cache.
+   * @param archive Path to the archive.
+   * @return true if all of classes can be read from the index.
+   * @throws IOException if the archive cannot be read.
+   */
+  public boolean isValid(Index index, Path archive) throws IOException{
+    var attrs = Files.readAttributes(archive, BasicFileAttributes.class);
+    if(attrs.size() != index.size){
+      return false;
+    }
+    if(attrs.lastModifiedTime().toMillis() == index.lastModified){
+      return true;
+    }
+    return contentHash(archive) == index.contentHash;
+  }
+
+  /**
+   * Store the index of the archive.
+   * The index is written to the temporary file at first, and it is
+   * replaced atomically.
+   *
+   * @param archive Path to the archive.
+   * @param entries Classes in order of the archive.
+   * @throws IOException if the index cannot be written.
+   */
+  public void store(Path archive, List<Entry> entries) throws IOException{
+    Files.createDirectories(dir);
+    var attrs = Files.readAttributes(archive, BasicFileAttributes.class);
+    long hash = contentHash(archive);
+
+    Path target = indexPath(archive);
+    Path tmp = Files.createTempFile(dir, target.getFileName().toString(), ".tmp");
+    try{
+      try(var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))){
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(archive.toAbsolutePath().normalize().toString());
+        out.writeLong(attrs.size());
+        out.writeLong(attrs.lastModifiedTime().toMillis());
+        out.writeLong(hash);
+        out.writeInt(entries.size());
+        for(Entry e : entries){
+          out.writeUTF(e.fname());
+          out.writeUTF(e.entryName());
+          out.writeLong(e.crc());
+          e.summary().writeTo(out);
+        }
+      }
+
+      try{
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      }
+      catch(AtomicMoveNotSupportedException e){
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+    finally{
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+}
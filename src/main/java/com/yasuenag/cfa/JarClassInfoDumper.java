@@ -19,16 +19,30 @@ package com.yasuenag.cfa;
  */
 
 
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.io.FilterInputStream;
 import java.io.InputStream;
 import java.io.IOException;
-import java.util.function.Predicate;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.stream.Stream;
 
 
 /**
- * ClassInfoDumper for JAR.
+ * ClassInfoDumper for JAR, WAR and EAR.
+ * Nested archives (e.g. BOOT-INF/lib/*.jar, WEB-INF/lib/*.jar) are also
+ * scanned, and classes in them are reported as "outer.jar!/path/to/nested.jar".
  */
 public class JarClassInfoDumper implements Dumper{
 
@@ -37,21 +51,422 @@ public class JarClassInfoDumper implements Dumper{
    */
   private final String fname;
 
+  /**
+   * Path to archive.
+   */
+  private final Path path;
+
   /**
    * Constructor of JarClassInfoDumper.
    *
-   * @param path Path to JAR.
+   * @param path Path to archive.
    */
   public JarClassInfoDumper(Path path){
+    this.path = path;
     fname = path.toString();
   }
 
-  private void dumpFromStream(JarFile jar, JarEntry entry, Option option){
+  /**
+   * Consumer of classes in the archive.
+   */
+  @FunctionalInterface
+  private static interface ClassConsumer{
+
+    /**
+     * @param fname Archive name which includes the class.
+     * @param entryName Entry name of the class in the archive.
+     * @param crc CRC32 of the entry.
+     * @param reader Function to read bytes of the class.
+     */
+    public void accept(String fname, String entryName, long crc, Callable<ByteBuffer> reader);
+
+  }
+
+  private static boolean isClassEntry(String name){
+    return !name.endsWith("/") && name.endsWith(".class");
+  }
+
+  /**
+   * @param name File name or entry name.
+   * @return true if the name is JAR, WAR or EAR.
+   */
+  public static boolean isArchiveName(String name){
+    return name.endsWith(".jar") || name.endsWith(".war") || name.endsWith(".ear");
+  }
+
+  private static boolean isNestedArchiveEntry(String name){
+    return !name.endsWith("/") && isArchiveName(name);
+  }
+
+  private static String nestedName(String outer, String entryName){
+    return outer + "!/" + entryName;
+  }
+
+  private static ByteBuffer readEntry(JarFile jar, JarEntry entry) throws IOException{
     try(InputStream in = jar.getInputStream(entry)){
-      ClassInfoDumper dumper = new ClassInfoDumper(in, fname);
-      dumper.dumpInfo(option);
+      return ByteBuffer.wrap(in.readAllBytes());
+    }
+  }
+
+  private static void reportNestedError(String name, Exception e){
+    System.err.println("Could not read " + name + ": " + e.getMessage());
+  }
+
+  /**
+   * Walk the archive which is read by JarFile.
+   * Nested archives are read in-stream with ZipInputStream.
+   */
+  private void walk(JarFile jar, ClassConsumer consumer){
+    // Do not use JarFile::stream because it calls the action with holding
+    // the lock of JarFile. It blocks workers which read entries while
+    // the consumer waits for them.
+    Enumeration<JarEntry> entries = jar.entries();
+    while(entries.hasMoreElements()){
+      JarEntry e = entries.nextElement();
+      if(isClassEntry(e.getName())){
+        consumer.accept(fname, e.getName(), e.getCrc(), () -> readEntry(jar, e));
+      }
+      else if(isNestedArchiveEntry(e.getName())){
+        String name = nestedName(fname, e.getName());
+        try(ZipInputStream nested = new ZipInputStream(jar.getInputStream(e))){
+          walk(nested, name, consumer);
+        }
+        catch(IOException ex){
+          reportNestedError(name, ex);
+        }
+      }
+    }
+  }
+
+  /**
+   * Walk the nested archive from the stream. Classes are read from the
+   * stream before passing to the consumer because the stream cannot be
+   * read at random.
+   */
+  private static void walk(ZipInputStream zin, String archiveName, ClassConsumer consumer) throws IOException{
+    ZipEntry entry;
+    while((entry = zin.getNextEntry()) != null){
+      if(isClassEntry(entry.getName())){
+        ByteBuffer buf = ByteBuffer.wrap(zin.readAllBytes());
+        // CRC32 is available after reading if the entry has data descriptor.
+        consumer.accept(archiveName, entry.getName(), entry.getCrc(), () -> buf);
+      }
+      else if(isNestedArchiveEntry(entry.getName())){
+        // Do not close the outer stream via the nested one.
+        var nested = new ZipInputStream(new FilterInputStream(zin){
+                                          @Override
+                                          public void close(){}
+                                        });
+        try(nested){
+          walk(nested, nestedName(archiveName, entry.getName()), consumer);
+        }
+      }
+    }
+  }
+
+  /**
+   * Walk the archive which is mapped by MappedZipFile.
+   * STORED nested archives are read from slices of the outer archive,
+   * so their entries can be inflated in parallel as same as the outer.
+   */
+  private static void walk(MappedZipFile zip, String archiveName, ClassConsumer consumer){
+    for(MappedZipFile.Entry e : zip.entries()){
+      if(isClassEntry(e.name())){
+        consumer.accept(archiveName, e.name(), e.crc(), () -> zip.read(e));
+      }
+      else if(isNestedArchiveEntry(e.name())){
+        String name = nestedName(archiveName, e.name());
+        try{
+          ByteBuffer buf = zip.read(e);
+          if(e.method() != MappedZipFile.STORED){
+            // Inflated buffer would be reused, so it should be copied.
+            byte[] bytes = new byte[buf.remaining()];
+            buf.get(buf.position(), bytes);
+            buf = ByteBuffer.wrap(bytes);
+          }
+          walk(new MappedZipFile(buf), name, consumer);
+        }
+        catch(IOException ex){
+          reportNestedError(name, ex);
+        }
+      }
+    }
+  }
+
+  /**
+   * Map the JAR if --mmap is specified.
+   *
+   * @return MappedZipFile of the JAR, or null if JarFile should be used.
+   */
+  private MappedZipFile openMapped(Option option){
+    if(!option.isMmap()){
+      return null;
+    }
+
+    try{
+      return MappedZipFile.open(Path.of(fname));
+    }
+    catch(IOException e){
+      // Fall back to JarFile
+      return null;
+    }
+  }
+
+  /**
+   * Commit ArchiveScanEvent of this archive if it is enabled.
+   *
+   * @param event Event which has been begun.
+   * @param entries Number of class entries in the archive.
+   */
+  private void commitScanEvent(ArchiveScanEvent event, int entries){
+    event.end();
+    if(event.shouldCommit()){
+      event.path = fname;
+      event.entries = entries;
+      try{
+        event.bytes = Files.size(path);
+      }
+      catch(IOException e){
+        // The archive might be removed after the scan.
+      }
+      event.commit();
+    }
+  }
+
+  /**
+   * Walk all classes in the archive.
+   *
+   * @return false if the archive cannot be opened.
+   */
+  private boolean walk(Option option, ClassConsumer consumer){
+    return walk(option, consumer, null);
+  }
+
+  /**
+   * Walk all classes in the archive.
+   *
+   * @param mappedConsumer Consumer of classes in the memory-mapped archive.
+   *                       The archive is loaded before walking, and readers
+   *                       can be called in other threads.
+   *                       consumer is used if this is null.
+   * @return false if the archive cannot be opened.
+   */
+  private boolean walk(Option option, ClassConsumer consumer, ClassConsumer mappedConsumer){
+    var event = new ArchiveScanEvent();
+    event.begin();
+    int[] entries = new int[1];
+    ClassConsumer counter = (name, entryName, crc, reader) -> {
+      entries[0]++;
+      consumer.accept(name, entryName, crc, reader);
+    };
+
+    try{
+      MappedZipFile zip = openMapped(option);
+      if(zip != null){
+        if(mappedConsumer != null){
+          zip.load();
+          walk(zip, fname, (name, entryName, crc, reader) -> {
+            entries[0]++;
+            mappedConsumer.accept(name, entryName, crc, reader);
+          });
+        }
+        else{
+          walk(zip, fname, counter);
+        }
+        return true;
+      }
+
+      try(JarFile jar = new JarFile(fname)){
+        walk(jar, counter);
+        return true;
+      }
+      catch(IOException e){
+        e.printStackTrace();
+        return false;
+      }
+    }
+    finally{
+      commitScanEvent(event, entries[0]);
+    }
+  }
+
+  /**
+   * Entry of the index which might be summarized in worker thread.
+   *
+   * @param summary Summary which is found in the cache or is parsed in the current thread.
+   * @param task Task to summarize the class, or null if summary is available.
+   */
+  private static record PendingEntry(String fname, String entryName, long crc, ClassSummary summary, ForkJoinTask<ClassSummary> task){
+  }
+
+  /**
+   * Load summaries of all classes in the archive from the cache.
+   * Classes which are not in the cache are parsed, and the index is
+   * stored to the cache again.
+   *
+   * @param pipeline Pipeline to summarize classes in worker threads.
+   *                 Classes are summarized in the current thread if this is null.
+   * @return Summaries in order of the archive, or null if the archive cannot be read.
+   */
+  private List<IndexCache.Entry> loadIndex(Option option, IndexCache cache, ScanPipeline pipeline){
+    ScanStats stats = option.getStats();
+    var event = new ArchiveScanEvent();
+    event.begin();
+    IndexCache.Index index = cache.load(path);
+    try{
+      if(index != null && cache.isValid(index, path)){
+        stats.entriesSeen(index.entries().size());
+        commitScanEvent(event, index.entries().size());
+        return index.entries();
+      }
+    }
+    catch(IOException e){
+      e.printStackTrace();
+      return null;
+    }
+
+    // All of classes should be summarized regardless of filter conditions
+    // because the index would be used by other queries.
+    var pending = new ArrayList<PendingEntry>();
+    ClassConsumer consumer = (name, entryName, crc, reader) -> {
+      stats.entriesSeen(1);
+      ClassSummary summary = (index == null) ? null : index.find(name, entryName, crc);
+      if(summary != null){
+        pending.add(new PendingEntry(name, entryName, crc, summary, null));
+      }
+      else if(pipeline != null){
+        pending.add(new PendingEntry(name, entryName, crc, null, pipeline.summarize(name, reader)));
+      }
+      else{
+        try{
+          summary = ClassInfoDumper.parse(stats.read(reader), name, option).toSummary();
+          pending.add(new PendingEntry(name, entryName, crc, summary, null));
+        }
+        catch(Exception ex){
+          stats.parseFailed();
+        }
+      }
+    };
+    ClassConsumer mappedConsumer = (pipeline == null) ? null : (name, entryName, crc, reader) -> {
+      stats.entriesSeen(1);
+      ClassSummary summary = (index == null) ? null : index.find(name, entryName, crc);
+      pending.add((summary != null) ? new PendingEntry(name, entryName, crc, summary, null)
+                                    : new PendingEntry(name, entryName, crc, null, pipeline.summarizeInMemory(name, reader)));
+    };
+    if(!walk(option, consumer, mappedConsumer)){
+      return null;
+    }
+
+    var entries = new ArrayList<IndexCache.Entry>(pending.size());
+    for(PendingEntry p : pending){
+      ClassSummary summary = (p.task() == null) ? p.summary() : p.task().join();
+      if(summary != null){
+        entries.add(new IndexCache.Entry(p.fname(), p.entryName(), p.crc(), summary));
+      }
+    }
+
+    try{
+      cache.store(path, entries);
+    }
+    catch(IOException e){
+      System.err.println("Could not store index of " + fname + ": " + e.getMessage());
+    }
+    return entries;
+  }
+
+  /**
+   * Calculate the fingerprint of this archive if --dedup is specified.
+   *
+   * @return Fingerprint of this archive, or null if dedup is disabled or the archive cannot be read.
+   */
+  private DedupCache.Fingerprint fingerprint(Option option){
+    if(option.getDedupCache().isEmpty()){
+      return null;
+    }
+
+    try{
+      return option.getDedupCache().get().fingerprint(path);
+    }
+    catch(IOException e){
+      return null;
+    }
+  }
+
+  /**
+   * Find matched classes of the identical archive which has been scanned.
+   *
+   * @return Matched classes which are reported as in this archive, or null if it is not found.
+   */
+  private List<ClassInfoDumper> findDuplicate(Option option, DedupCache.Fingerprint fingerprint){
+    if(fingerprint == null){
+      return null;
+    }
+
+    List<DedupCache.ArchiveClass> found = option.getDedupCache().get().findArchive(fingerprint);
+    if(found == null){
+      return null;
+    }
+
+    option.getStats().archiveDeduplicated();
+    return found.stream()
+                .map(c -> new ClassInfoDumper(c.summary(), fname + c.suffix()))
+                .toList();
+  }
+
+  private DedupCache.ArchiveClass toArchiveClass(ClassInfoDumper dumper){
+    // Nested archive is reported as "fname!/path/to/nested.jar".
+    return new DedupCache.ArchiveClass(dumper.getFileName().substring(fname.length()), dumper.toSummary());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void dumpInfo(Option option, PrintWriter out){
+    if(option.getParallelism() > 1){
+      try(ScanPipeline pipeline = new ScanPipeline(option, out)){
+        pipeline.run(Stream.of(this));
+      }
+      return;
     }
-    catch(Exception ex){
+
+    if(option.getCacheDir().isPresent()){
+      List<IndexCache.Entry> entries = loadIndex(option, new IndexCache(option.getCacheDir().get()), null);
+      if(entries != null){
+        // Filter summaries to restore ConstantPool entries of matched classes only.
+        entries.stream()
+               .filter(e -> ClassInfoDumper.shouldProcess(e.summary(), option))
+               .forEach(e -> new ClassInfoDumper(e.summary(), e.fname()).printInfo(option, out));
+      }
+      return;
+    }
+
+    DedupCache.Fingerprint fingerprint = fingerprint(option);
+    List<ClassInfoDumper> duplicate = findDuplicate(option, fingerprint);
+    if(duplicate != null){
+      duplicate.forEach(d -> d.dumpInfo(option, out));
+      return;
+    }
+
+    ScanStats stats = option.getStats();
+    var matched = new ArrayList<DedupCache.ArchiveClass>();
+    ClassConsumer consumer = (name, entryName, crc, reader) -> {
+      stats.entriesSeen(1);
+      try{
+        ClassInfoDumper dumper = ClassInfoDumper.parseIfMatches(stats.read(reader), name, option);
+        if(dumper != null){
+          dumper.printInfo(option, out);
+          if(fingerprint != null){
+            matched.add(toArchiveClass(dumper));
+          }
+        }
+      }
+      catch(Exception ex){
+        stats.parseFailed();
+      }
+    };
+    if(walk(option, consumer) && fingerprint != null){
+      option.getDedupCache().get().putArchive(fingerprint, matched);
     }
   }
 
@@ -59,17 +474,105 @@ public class JarClassInfoDumper implements Dumper{
    * {@inheritDoc}
    */
   @Override
-  public void dumpInfo(Option option){
-    try(JarFile jar = new JarFile(fname)){
-      jar.stream()
-         .filter(Predicate.not(JarEntry::isDirectory))
-         .filter(e -> e.getName().endsWith(".class"))
-         .forEach(e -> dumpFromStream(jar, e, option));
+  public void forEachClass(Option option, Consumer<ClassInfoDumper> consumer){
+    if(option.getCacheDir().isPresent()){
+      List<IndexCache.Entry> entries = loadIndex(option, new IndexCache(option.getCacheDir().get()), null);
+      if(entries != null){
+        entries.forEach(e -> consumer.accept(new ClassInfoDumper(e.summary(), e.fname())));
+      }
+      return;
+    }
+
+    ScanStats stats = option.getStats();
+    walk(option, (name, entryName, crc, reader) -> {
+      stats.entriesSeen(1);
+      ClassInfoDumper dumper;
+      try{
+        dumper = ClassInfoDumper.parse(stats.read(reader), name, option);
+      }
+      catch(Exception ex){
+        stats.parseFailed();
+        return;
+      }
+      consumer.accept(dumper);
+    });
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void submitTo(ScanPipeline pipeline){
+    Option option = pipeline.getOption();
+    if(option.getCacheDir().isPresent()){
+      List<IndexCache.Entry> entries = loadIndex(option, new IndexCache(option.getCacheDir().get()), pipeline);
+      if(entries != null){
+        entries.stream()
+               .filter(e -> ClassInfoDumper.shouldProcess(e.summary(), option))
+               .forEach(e -> pipeline.submitMatched(new ClassInfoDumper(e.summary(), e.fname())));
+      }
+      return;
+    }
+
+    DedupCache.Fingerprint fingerprint = fingerprint(option);
+    List<ClassInfoDumper> duplicate = findDuplicate(option, fingerprint);
+    if(duplicate != null){
+      duplicate.forEach(pipeline::submit);
+      return;
+    }
+
+    // Matched classes are collected in the render stage, and they are
+    // stored after all of classes in this archive are rendered.
+    List<DedupCache.ArchiveClass> matched = (fingerprint == null) ? null : new ArrayList<>();
+    Consumer<ClassInfoDumper> listener = (matched == null) ? null : d -> matched.add(toArchiveClass(d));
+    Runnable storeMatched = () -> {
+      if(matched != null){
+        pipeline.submitClose(() -> option.getDedupCache().get().putArchive(fingerprint, matched));
+      }
+    };
+
+    ScanStats stats = option.getStats();
+    var event = new ArchiveScanEvent();
+    event.begin();
+    int[] entries = new int[1];
+    ClassConsumer consumer = (name, entryName, crc, reader) -> {
+      stats.entriesSeen(1);
+      entries[0]++;
+      pipeline.submit(name, reader, listener);
+    };
+    MappedZipFile zip = openMapped(option);
+    if(zip != null){
+      // Read the archive in the current thread, and inflate entries in
+      // worker threads.
+      zip.load();
+      walk(zip, fname, (name, entryName, crc, reader) -> {
+        stats.entriesSeen(1);
+        entries[0]++;
+        pipeline.submitInMemory(name, reader, listener);
+      });
+      storeMatched.run();
+      commitScanEvent(event, entries[0]);
+      return;
+    }
+
+    JarFile jar;
+    try{
+      jar = new JarFile(fname);
     }
     catch(IOException e){
       e.printStackTrace();
+      return;
+    }
+
+    // JAR will be closed after all of entries are rendered.
+    try{
+      walk(jar, consumer);
+      storeMatched.run();
+    }
+    finally{
+      pipeline.submitClose(jar);
+      commitScanEvent(event, entries[0]);
     }
   }
 
 }
-
@@ -0,0 +1,214 @@
+package com.yasuenag.cfa;
+
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+
+/**
+ * ClassInfoDumper for JDK runtime image (lib/modules).
+ * Classes are read from the jimage directly via jrt filesystem.
+ */
+public class JrtDumper implements Dumper{
+
+  /**
+   * JDK home to open its runtime image. null if jrt path is given.
+   */
+  private final Path javaHome;
+
+  /**
+   * Path in jrt filesystem to scan. null if JDK home is given.
+   */
+  private final Path jrtPath;
+
+  private JrtDumper(Path javaHome, Path jrtPath){
+    this.javaHome = javaHome;
+    this.jrtPath = jrtPath;
+  }
+
+  /**
+   * Create JrtDumper for the JDK home.
+   *
+   * @param javaHome Path to JDK home which has lib/modules.
+   * @return JrtDumper which scans all modules in the JDK.
+   */
+  public static JrtDumper ofJavaHome(Path javaHome){
+    return new JrtDumper(javaHome, null);
+  }
+
+  /**
+   * Create JrtDumper for the path in jrt filesystem of the current runtime
+   * (e.g. jrt:/ or jrt:/java.base).
+   *
+   * @param path Path in jrt filesystem.
+   * @return JrtDumper which scans classes under the path.
+   */
+  public static JrtDumper ofJrtPath(Path path){
+    return new JrtDumper(null, path);
+  }
+
+  /**
+   * @param path Path to check.
+   * @return true if the path is in jrt filesystem.
+   */
+  public static boolean isJrtPath(Path path){
+    return path.getFileSystem().provider().getScheme().equals("jrt");
+  }
+
+  /**
+   * @param path Path to check.
+   * @return true if the path is JDK home which has runtime image.
+   */
+  public static boolean isJavaHome(Path path){
+    return Files.isRegularFile(path.resolve("lib").resolve("modules"));
+  }
+
+  /**
+   * Open jrt filesystem of JDK home.
+   *
+   * @return jrt filesystem, or null if this dumper scans the current runtime.
+   */
+  private FileSystem openFileSystem() throws IOException{
+    return (javaHome == null) ? null
+                              : FileSystems.newFileSystem(URI.create("jrt:/"), Map.of("java.home", javaHome.toString()));
+  }
+
+  /**
+   * Walk class files in the runtime image in order of the path.
+   *
+   * @param fs jrt filesystem which is opened by openFileSystem().
+   * @param consumer Consumer which accepts archive name and path of class file.
+   */
+  private void walk(FileSystem fs, BiConsumer<String, Path> consumer) throws IOException{
+    Path root = (fs == null) ? jrtPath : fs.getPath("/modules");
+    String prefix = (fs == null) ? "jrt:/"
+                                 : javaHome.resolve("lib").resolve("modules").toString() + "!/";
+
+    // Path in jrt filesystem is /modules/<module>/<package>/<class>
+    try(Stream<Path> files = Files.walk(root)){
+      files.filter(p -> p.toString().endsWith(".class"))
+           .filter(Files::isRegularFile)
+           .sorted()
+           .forEach(p -> consumer.accept(prefix + p.getName(1).toString(), p));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void dumpInfo(Option option, PrintWriter out){
+    if(option.getParallelism() > 1){
+      try(ScanPipeline pipeline = new ScanPipeline(option, out)){
+        pipeline.run(Stream.of(this));
+      }
+      return;
+    }
+
+    ScanStats stats = option.getStats();
+    try(FileSystem fs = openFileSystem()){
+      walk(fs, (name, path) -> {
+        stats.entriesSeen(1);
+        try{
+          ByteBuffer buf = stats.read(() -> ByteBuffer.wrap(Files.readAllBytes(path)));
+          ClassInfoDumper dumper = ClassInfoDumper.parseIfMatches(buf, name, option);
+          if(dumper != null){
+            dumper.printInfo(option, out);
+          }
+        }
+        catch(Exception e){
+          stats.parseFailed();
+        }
+      });
+    }
+    catch(IOException e){
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void forEachClass(Option option, Consumer<ClassInfoDumper> consumer){
+    ScanStats stats = option.getStats();
+    try(FileSystem fs = openFileSystem()){
+      walk(fs, (name, path) -> {
+        stats.entriesSeen(1);
+        ClassInfoDumper dumper;
+        try{
+          dumper = ClassInfoDumper.parse(stats.read(() -> ByteBuffer.wrap(Files.readAllBytes(path))), name, option);
+        }
+        catch(Exception e){
+          stats.parseFailed();
+          return;
+        }
+        consumer.accept(dumper);
+      });
+    }
+    catch(IOException e){
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void submitTo(ScanPipeline pipeline){
+    FileSystem fs;
+    try{
+      fs = openFileSystem();
+    }
+    catch(IOException e){
+      throw new UncheckedIOException(e);
+    }
+
+    // Class files are read from the jimage in the reader thread of this input.
+    // jrt filesystem will be closed after all of classes are rendered.
+    try{
+      ScanStats stats = pipeline.getOption().getStats();
+      walk(fs, (name, path) -> {
+        stats.entriesSeen(1);
+        pipeline.submit(name, () -> ByteBuffer.wrap(Files.readAllBytes(path)));
+      });
+    }
+    catch(IOException e){
+      throw new UncheckedIOException(e);
+    }
+    finally{
+      if(fs != null){
+        pipeline.submitClose(fs);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,105 @@
+package com.yasuenag.cfa;
+
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import java.io.PrintWriter;
+
+
+/**
+ * Helper to write JSON values directly to the writer.
+ * Strings are escaped while writing, so intermediate strings are not built.
+ */
+public final class JsonWriter{
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private JsonWriter(){}
+
+  /**
+   * Write the string as JSON string literal.
+   *
+   * @param out Writer to write.
+   * @param str String to write. null is written as null literal.
+   */
+  public static void writeString(PrintWriter out, String str){
+    writeString(out, str, false);
+  }
+
+  /**
+   * Write the class name in internal form (e.g. java/lang/String) as
+   * JSON string literal in Java form (e.g. java.lang.String).
+   *
+   * @param out Writer to write.
+   * @param internalName Class name in internal form.
+   */
+  public static void writeClassName(PrintWriter out, String internalName){
+    writeString(out, internalName, true);
+  }
+
+  private static void writeString(PrintWriter out, String str, boolean javaName){
+    if(str == null){
+      out.write("null");
+      return;
+    }
+
+    out.write('"');
+    int start = 0;
+    for(int i = 0; i < str.length(); i++){
+      char c = str.charAt(i);
+      if(c >= 0x20 && c != '"' && c != '\\' && !(javaName && c == '/')){
+        continue;
+      }
+
+      // Write characters which do not need to be escaped at once.
+      out.write(str, start, i - start);
+      start = i + 1;
+      switch(c){
+        case '/' -> out.write('.');
+        case '"' -> out.write("\\\"");
+        case '\\' -> out.write("\\\\");
+        case '\n' -> out.write("\\n");
+        case '\r' -> out.write("\\r");
+        case '\t' -> out.write("\\t");
+        default -> {
+          out.write("\\u00");
+          out.write(HEX[c >> 4]);
+          out.write(HEX[c & 0xf]);
+        }
+      }
+    }
+    out.write(str, start, str.length() - start);
+    out.write('"');
+  }
+
+  /**
+   * Write the name of the member in JSON object.
+   *
+   * @param out Writer to write.
+   * @param name Name of the member.
+   * @param first true if this is the first member in the object.
+   */
+  public static void writeName(PrintWriter out, String name, boolean first){
+    if(!first){
+      out.write(',');
+    }
+    writeString(out, name);
+    out.write(':');
+  }
+
+}
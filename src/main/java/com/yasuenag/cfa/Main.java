@@ -18,11 +18,43 @@ package com.yasuenag.cfa;
  * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
  */
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Objects;
+import java.util.stream.Stream;
 
 
 public class Main{
 
+  private static ReferenceIndex buildIndex(Option option, Stream<Dumper> dumpers){
+    var builder = new ReferenceIndex.Builder();
+    dumpers.forEach(d -> d.forEachClass(option, builder::add));
+    return builder.build();
+  }
+
+  private static void runServer(Option option, Stream<Dumper> dumpers) throws IOException{
+    ReferenceIndex index = option.getIndexPath().isPresent() ? ReferenceIndex.load(option.getIndexPath().get())
+                                                             : buildIndex(option, dumpers);
+    var server = new QueryServer(option.getServerSocketPath().get(), index);
+    // Remove the socket file when the server is stopped by signal.
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      try{
+        server.close();
+      }
+      catch(IOException e){
+        throw new UncheckedIOException(e);
+      }
+    }));
+    System.err.println("CFA server is ready: " + index.size() + " classes");
+    server.serve();
+  }
+
+  private static void printStats(Option option){
+    if(option.getStats().isEnabled()){
+      option.getStats().print(System.err);
+    }
+  }
+
   public static void main(String[] args) throws Exception{
     Option option;
     try{
@@ -35,12 +67,90 @@ public class Main{
       return;
     }
 
+    if(option.isHelp()){
+      Option.printOptions();
+      System.exit(1);
+      return;
+    }
+
     DumperChooser chooser = new DumperChooser();
-    option.getFileSet()
-          .stream()
-          .map(chooser)
-          .filter(Objects::nonNull)
-          .forEach(d -> d.dumpInfo(option));
+    // Inputs are streamed in order of arguments without collecting them.
+    var dumpers = option.getInputs()
+                        .map(chooser)
+                        .filter(Objects::nonNull);
+
+    if(option.getBuildIndexPath().isPresent()){
+      buildIndex(option, dumpers).write(option.getBuildIndexPath().get());
+      printStats(option);
+      return;
+    }
+    else if(option.getExportPath().isPresent()){
+      var builder = new ColumnarExport.Builder();
+      dumpers.forEach(d -> d.forEachClass(option, builder::add));
+      builder.write(option.getExportPath().get());
+      printStats(option);
+      return;
+    }
+    else if(option.getServerSocketPath().isPresent()){
+      runServer(option, dumpers);
+      return;
+    }
+
+    try(OutputSink out = OutputSink.open(option)){
+      if(option.isWatch()){
+        try(Watcher watcher = new Watcher(option, out)){
+          watcher.scan();
+          watcher.watch();
+        }
+      }
+      else if(option.getClientSocketPath().isPresent()){
+        try{
+          QueryServer.query(option.getClientSocketPath().get(), option.getQueryArguments(), out);
+        }
+        catch(IllegalArgumentException e){
+          out.flush();
+          System.err.println(e.getMessage());
+          System.exit(1);
+        }
+      }
+      else if(option.getGraphQuery().isPresent()){
+        var builder = new DependencyGraph.Builder();
+        dumpers.forEach(d -> d.forEachClass(option, builder::add));
+        builder.build().query(option.getGraphQuery().get(), option.getParallelism(), out);
+      }
+      else if(option.getMatrixSpec().isPresent()){
+        DependencyMatrix.Spec spec = option.getMatrixSpec().get();
+        var builder = new DependencyMatrix.Builder();
+        dumpers.forEach(d -> d.forEachClass(option, builder::add));
+        DependencyMatrix matrix = builder.build(spec.level(), option.getParallelism());
+        if(spec.table()){
+          matrix.printTable(out);
+        }
+        else{
+          matrix.printEdges(option, out);
+        }
+      }
+      else if(option.getIndexPath().isPresent()){
+        ReferenceIndex.load(option.getIndexPath().get()).query(option, out);
+      }
+      else if(option.getParallelism() > 1){
+        try(ScanPipeline pipeline = new ScanPipeline(option, out)){
+          pipeline.run(dumpers);
+        }
+      }
+      else{
+        dumpers.forEach(d -> {
+          d.dumpInfo(option, out);
+          out.flush();
+        });
+      }
+
+      if(out.checkError()){
+        System.err.println("Error occurred while writing output.");
+        System.exit(1);
+      }
+    }
+    printStats(option);
   }
 
 }
@@ -0,0 +1,355 @@
+package com.yasuenag.cfa;
+
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+
+/**
+ * ZIP reader which reads the archive from memory-mapped buffer.
+ * Central directory is parsed by this class, STORED entries are returned
+ * as slices of the mapped buffer, and DEFLATED entries are inflated into
+ * a buffer which is reused in each thread.
+ * Data before the archive (e.g. header of JMOD) is skipped.
+ */
+public class MappedZipFile{
+
+  private static final int LOCAL_HEADER_SIG = 0x04034b50;
+  private static final int CENTRAL_HEADER_SIG = 0x02014b50;
+  private static final int END_SIG = 0x06054b50;
+  private static final int ZIP64_END_SIG = 0x06064b50;
+  private static final int ZIP64_LOCATOR_SIG = 0x07064b50;
+  private static final int ZIP64_EXTRA_ID = 0x0001;
+
+  private static final int LOCAL_HEADER_SIZE = 30;
+  private static final int CENTRAL_HEADER_SIZE = 46;
+  private static final int END_HEADER_SIZE = 22;
+  private static final int ZIP64_END_HEADER_SIZE = 56;
+  private static final int MAX_COMMENT_SIZE = 0xffff;
+
+  public static final int STORED = 0;
+  public static final int DEFLATED = 8;
+
+  /**
+   * Entry in the archive.
+   *
+   * @param name Entry name.
+   * @param method Compression method.
+   * @param crc CRC32 of uncompressed data.
+   * @param compressedSize Size of compressed data.
+   * @param size Size of uncompressed data.
+   * @param localHeaderOffset Offset of the local file header.
+   */
+  public static record Entry(String name, int method, long crc, long compressedSize, long size, long localHeaderOffset){
+
+    public boolean isDirectory(){
+      return name.endsWith("/");
+    }
+
+  }
+
+  /**
+   * Buffer to inflate entries. This buffer is reused in each thread.
+   */
+  private static final ThreadLocal<byte[]> INFLATE_BUFFER = ThreadLocal.withInitial(() -> new byte[64 * 1024]);
+
+  /**
+   * Inflater which is reused in each thread.
+   */
+  private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(() -> new Inflater(true));
+
+  /**
+   * Whole of the archive.
+   */
+  private final ByteBuffer buf;
+
+  /**
+   * Offset of the archive from the top of the buffer.
+   * This is not 0 if the archive has a prefix (e.g. JMOD header).
+   */
+  private int base;
+
+  /**
+   * Entries in order of the central directory.
+   */
+  private final List<Entry> entries;
+
+  /**
+   * Constructor of MappedZipFile.
+   *
+   * @param buf Whole of the archive.
+   * @throws ZipException if the archive is broken or is not supported.
+   */
+  public MappedZipFile(ByteBuffer buf) throws ZipException{
+    this.buf = buf.slice().order(ByteOrder.LITTLE_ENDIAN);
+    entries = Collections.unmodifiableList(readCentralDirectory());
+  }
+
+  /**
+   * Map the archive file and read the central directory.
+   *
+   * @param path Path to the archive.
+   * @return MappedZipFile of the archive.
+   * @throws IOException if the archive cannot be mapped, or it is broken.
+   */
+  public static MappedZipFile open(Path path) throws IOException{
+    try(FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)){
+      long size = ch.size();
+      if(size > Integer.MAX_VALUE){
+        throw new ZipException("Too large to map: " + path.toString());
+      }
+      // Mapping is valid after the channel is closed.
+      return new MappedZipFile(ch.map(FileChannel.MapMode.READ_ONLY, 0, size));
+    }
+  }
+
+  private void check(long offset, long length) throws ZipException{
+    if(offset < 0 || length < 0 || offset + length > buf.limit()){
+      throw new ZipException("Invalid offset: " + offset);
+    }
+  }
+
+  private int i4(int offset) throws ZipException{
+    check(offset, 4);
+    return buf.getInt(offset);
+  }
+
+  private int u2(int offset) throws ZipException{
+    check(offset, 2);
+    return buf.getShort(offset) & 0xffff;
+  }
+
+  private long u4(int offset) throws ZipException{
+    check(offset, 4);
+    return buf.getInt(offset) & 0xffffffffL;
+  }
+
+  private long u8(int offset) throws ZipException{
+    check(offset, 8);
+    long value = buf.getLong(offset);
+    if(value < 0){
+      throw new ZipException("Invalid value at " + offset);
+    }
+    return value;
+  }
+
+  private int toOffset(long offset) throws ZipException{
+    check(offset, 0);
+    return (int)offset;
+  }
+
+  private int findEndHeader() throws ZipException{
+    int min = Math.max(0, buf.limit() - END_HEADER_SIZE - MAX_COMMENT_SIZE);
+    for(int pos = buf.limit() - END_HEADER_SIZE; pos >= min; pos--){
+      if(buf.getInt(pos) == END_SIG){
+        return pos;
+      }
+    }
+    throw new ZipException("End of central directory not found");
+  }
+
+  private int findZip64EndHeader(int locator) throws ZipException{
+    // ZIP64 end of central directory record is usually placed just before
+    // the locator. The offset in the locator is relative to the top of
+    // the archive, so it is used only if the record is not found there.
+    int candidate = locator - ZIP64_END_HEADER_SIZE;
+    if(candidate >= 0 && buf.getInt(candidate) == ZIP64_END_SIG){
+      return candidate;
+    }
+    int zip64End = toOffset(u8(locator + 8));
+    if(i4(zip64End) != ZIP64_END_SIG){
+      throw new ZipException("Invalid ZIP64 end of central directory");
+    }
+    return zip64End;
+  }
+
+  private List<Entry> readCentralDirectory() throws ZipException{
+    int end = findEndHeader();
+    long total = u2(end + 10);
+    long cdSize = u4(end + 12);
+    long cdOffset = u4(end + 16);
+    int cdEnd = end;
+
+    // ZIP64 end of central directory
+    int locator = end - 20;
+    if(locator >= 0 && buf.getInt(locator) == ZIP64_LOCATOR_SIG){
+      cdEnd = findZip64EndHeader(locator);
+      total = u8(cdEnd + 32);
+      cdSize = u8(cdEnd + 40);
+      cdOffset = u8(cdEnd + 48);
+    }
+
+    // Offsets in the archive are relative to the top of the archive,
+    // so the length of the prefix can be computed from the central directory.
+    base = toOffset(cdEnd - cdSize - cdOffset);
+
+    int pos = toOffset(base + cdOffset);
+    var result = new ArrayList<Entry>((int)Math.min(total, 1 << 16));
+    for(long i = 0; i < total; i++){
+      if(i4(pos) != CENTRAL_HEADER_SIG){
+        throw new ZipException("Invalid central directory header");
+      }
+
+      check(pos, CENTRAL_HEADER_SIZE);
+      int method = u2(pos + 10);
+      long crc = u4(pos + 16);
+      long compressedSize = u4(pos + 20);
+      long size = u4(pos + 24);
+      int nameLen = u2(pos + 28);
+      int extraLen = u2(pos + 30);
+      int commentLen = u2(pos + 32);
+      long localHeaderOffset = u4(pos + 42);
+
+      int extra = pos + CENTRAL_HEADER_SIZE + nameLen;
+      int extraEnd = extra + extraLen;
+      check(pos, CENTRAL_HEADER_SIZE + nameLen + extraLen + commentLen);
+
+      byte[] nameBytes = new byte[nameLen];
+      buf.get(pos + CENTRAL_HEADER_SIZE, nameBytes);
+      String name = new String(nameBytes, StandardCharsets.UTF_8);
+
+      // ZIP64 extended information
+      while(extra + 4 <= extraEnd){
+        int id = u2(extra);
+        int len = u2(extra + 2);
+        if(id == ZIP64_EXTRA_ID){
+          int field = extra + 4;
+          int fieldEnd = Math.min(field + len, extraEnd);
+          if(size == 0xffffffffL){
+            size = u8(field);
+            field += 8;
+          }
+          if(compressedSize == 0xffffffffL){
+            compressedSize = u8(field);
+            field += 8;
+          }
+          if(localHeaderOffset == 0xffffffffL){
+            localHeaderOffset = u8(field);
+            field += 8;
+          }
+          if(field > fieldEnd){
+            throw new ZipException("Invalid ZIP64 extra field: " + name);
+          }
+          break;
+        }
+        extra += 4 + len;
+      }
+
+      result.add(new Entry(name, method, crc, compressedSize, size, localHeaderOffset));
+      pos = extraEnd + commentLen;
+    }
+
+    return result;
+  }
+
+  /**
+   * @return Entries in order of the central directory.
+   */
+  public List<Entry> entries(){
+    return entries;
+  }
+
+  private ByteBuffer rawData(Entry entry) throws ZipException{
+    int header = toOffset(base + entry.localHeaderOffset());
+    if(i4(header) != LOCAL_HEADER_SIG){
+      throw new ZipException("Invalid local file header: " + entry.name());
+    }
+    check(header, LOCAL_HEADER_SIZE);
+    int data = toOffset((long)header + LOCAL_HEADER_SIZE + u2(header + 26) + u2(header + 28));
+    int end = toOffset(data + entry.compressedSize());
+    return buf.slice(data, end - data).order(ByteOrder.BIG_ENDIAN);
+  }
+
+  /**
+   * Load whole of the archive into physical memory if it is mapped from
+   * the file, so following reads do not block on I/O.
+   */
+  public void load(){
+    if(buf instanceof MappedByteBuffer mapped){
+      mapped.load();
+    }
+  }
+
+  /**
+   * Read uncompressed data of the entry.
+   * The buffer of DEFLATED entry is shared in the current thread, so the
+   * content is valid until the next call of this method in the same thread.
+   * It is read-only and does not expose the backing array, so the caller
+   * has to copy it if the content is kept.
+   *
+   * @param entry Entry to read.
+   * @return Uncompressed data of the entry.
+   * @throws ZipException if the entry is broken or is not supported.
+   */
+  public ByteBuffer read(Entry entry) throws ZipException{
+    ByteBuffer raw = rawData(entry);
+    if(entry.method() == STORED){
+      return raw;
+    }
+    else if(entry.method() != DEFLATED){
+      throw new ZipException("Unsupported compression method " + entry.method() + ": " + entry.name());
+    }
+
+    if(entry.size() > Integer.MAX_VALUE){
+      throw new ZipException("Too large entry: " + entry.name());
+    }
+    int size = (int)entry.size();
+    byte[] out = INFLATE_BUFFER.get();
+    if(out.length < size){
+      out = new byte[size];
+      INFLATE_BUFFER.set(out);
+    }
+
+    Inflater inflater = INFLATER.get();
+    inflater.reset();
+    inflater.setInput(raw);
+    try{
+      int n = 0;
+      while(n < size){
+        int inflated = inflater.inflate(out, n, size - n);
+        if(inflated == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())){
+          break;
+        }
+        n += inflated;
+      }
+      if(n != size){
+        throw new ZipException("Invalid entry size: " + entry.name());
+      }
+    }
+    catch(DataFormatException e){
+      throw new ZipException(e.getMessage() + ": " + entry.name());
+    }
+
+    return ByteBuffer.wrap(out, 0, size).asReadOnlyBuffer();
+  }
+
+}
@@ -0,0 +1,229 @@
+package com.yasuenag.cfa;
+
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+
+/**
+ * Matcher of exact member queries in "Owner.name:descriptor" form
+ * (e.g. java/io/Closeable.close:()V or java.io.Closeable.close).
+ * Owner and descriptor can be omitted, and each part can be "*" which
+ * matches any. Queries are stored in a hash set, and each member ref is
+ * looked up once per combination of specified parts which appears in
+ * queries (up to 8), so the cost does not depend on the number of queries.
+ * Queries which have globs in their parts (e.g. java.io.*.close) are
+ * matched one by one.
+ * This class is immutable and thread-safe after construction.
+ */
+public class MemberMatcher{
+
+  private static final int OWNER = 1;
+
+  private static final int NAME = 2;
+
+  private static final int TYPE = 4;
+
+  /**
+   * Member query. null means any.
+   *
+   * @param owner Owner class in Java form.
+   * @param name Member name.
+   * @param type Descriptor.
+   */
+  private static record Key(String owner, String name, String type){
+  }
+
+  /**
+   * Member query which has globs. Each part is a predicate.
+   */
+  private static record GlobQuery(Predicate<String> owner, Predicate<String> name, Predicate<String> type){
+  }
+
+  private final Set<Key> keys;
+
+  private final List<GlobQuery> globQueries;
+
+  /**
+   * Matcher of glob names in queries. null if there are no such names.
+   */
+  private final TermMatcher globNameMatcher;
+
+  /**
+   * Combinations of specified parts which appear in queries.
+   */
+  private final int[] masks;
+
+  /**
+   * Member names which appear in queries.
+   */
+  private final Set<String> names;
+
+  /**
+   * Whether any query matches any name.
+   */
+  private final boolean anyName;
+
+  /**
+   * Return whether the term is a member query rather than a part of
+   * the member name.
+   *
+   * @param term Term of -m or -f option.
+   * @return true if the term has owner or descriptor.
+   */
+  public static boolean isMemberQuery(String term){
+    return !TermMatcher.isRegex(term) && (term.indexOf('.') != -1 || term.indexOf(':') != -1);
+  }
+
+  private static String part(String str, String term){
+    if(str.isEmpty()){
+      throw new IllegalArgumentException("Invalid member query: " + term);
+    }
+    return str.equals("*") ? null : str;
+  }
+
+  private static boolean isGlob(Key key){
+    return (key.owner() != null && TermMatcher.isGlob(key.owner())) ||
+           (key.name() != null && TermMatcher.isGlob(key.name())) ||
+           (key.type() != null && TermMatcher.isGlob(key.type()));
+  }
+
+  private static Predicate<String> toPredicate(String part){
+    if(part == null){
+      return s -> true;
+    }
+    else if(TermMatcher.isGlob(part)){
+      return new TermMatcher(List.of(part))::matches;
+    }
+    return part::equals;
+  }
+
+  private static Key parse(String term){
+    String member = term;
+    String type = null;
+    int sep = member.indexOf(':');
+    if(sep != -1){
+      type = part(member.substring(sep + 1), term);
+      member = member.substring(0, sep);
+    }
+
+    String owner = null;
+    sep = member.lastIndexOf('.');
+    if(sep != -1){
+      owner = part(member.substring(0, sep), term);
+      if(owner != null){
+        owner = owner.replace('/', '.');
+      }
+      member = member.substring(sep + 1);
+    }
+
+    return new Key(owner, part(member, term), type);
+  }
+
+  /**
+   * Constructor of MemberMatcher.
+   *
+   * @param queries Member queries.
+   * @throws IllegalArgumentException if any query is invalid.
+   */
+  public MemberMatcher(Collection<String> queries) throws IllegalArgumentException{
+    keys = new HashSet<>();
+    names = new HashSet<>();
+    globQueries = new ArrayList<>();
+    var globNames = new ArrayList<String>();
+    boolean any = false;
+    int usedMasks = 0;
+    for(String query : queries){
+      Key key = parse(query);
+      if(key.name() == null){
+        any = true;
+      }
+      else if(TermMatcher.isGlob(key.name())){
+        globNames.add(key.name());
+      }
+      else{
+        names.add(key.name());
+      }
+
+      if(isGlob(key)){
+        globQueries.add(new GlobQuery(toPredicate(key.owner()), toPredicate(key.name()), toPredicate(key.type())));
+        continue;
+      }
+      keys.add(key);
+      int mask = ((key.owner() == null) ? 0 : OWNER) |
+                 ((key.name() == null) ? 0 : NAME) |
+                 ((key.type() == null) ? 0 : TYPE);
+      usedMasks |= 1 << mask;
+    }
+    anyName = any;
+    globNameMatcher = globNames.isEmpty() ? null : new TermMatcher(globNames);
+
+    int[] found = new int[Integer.bitCount(usedMasks)];
+    int idx = 0;
+    for(int mask = 0; mask < 8; mask++){
+      if((usedMasks & (1 << mask)) != 0){
+        found[idx++] = mask;
+      }
+    }
+    masks = found;
+  }
+
+  /**
+   * Return whether the member matches with any query.
+   *
+   * @param owner Owner class in Java form.
+   * @param name Member name.
+   * @param type Descriptor.
+   * @return true if the member matches.
+   */
+  public boolean matches(String owner, String name, String type){
+    for(int mask : masks){
+      var key = new Key(((mask & OWNER) == 0) ? null : owner,
+                        ((mask & NAME) == 0) ? null : name,
+                        ((mask & TYPE) == 0) ? null : type);
+      if(keys.contains(key)){
+        return true;
+      }
+    }
+    for(GlobQuery query : globQueries){
+      if(query.owner().test(owner) && query.name().test(name) && query.type().test(type)){
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Return whether the member which has the name might match with any
+   * query. This is used to narrow down candidates by the name.
+   *
+   * @param name Member name.
+   * @return false if the member never matches.
+   */
+  public boolean mightMatchName(String name){
+    return anyName || names.contains(name) || (globNameMatcher != null && globNameMatcher.matches(name));
+  }
+
+}
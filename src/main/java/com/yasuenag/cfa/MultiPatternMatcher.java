@@ -0,0 +1,175 @@
+package com.yasuenag.cfa;
+
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+
+
+/**
+ * Aho-Corasick automaton to find any of patterns in a string in single pass.
+ * Transitions are compiled into a DFA table, so matching cost does not
+ * depend on the number of patterns.
+ * This class is immutable and thread-safe after construction.
+ */
+public class MultiPatternMatcher{
+
+  /**
+   * Alphabet index for ASCII characters. 0 means the character which does
+   * not appear in any pattern.
+   */
+  private final int[] asciiAlphabet;
+
+  /**
+   * Alphabet index for non-ASCII characters.
+   */
+  private final Map<Character, Integer> otherAlphabet;
+
+  /**
+   * Number of alphabet including "other".
+   */
+  private final int alphabetSize;
+
+  /**
+   * DFA transition table: next state = delta[state * alphabetSize + alphabet]
+   */
+  private final int[] delta;
+
+  /**
+   * Whether any pattern ends at the state.
+   */
+  private final boolean[] accept;
+
+  /**
+   * Whether this matcher has empty pattern.
+   */
+  private final boolean matchesAll;
+
+  /**
+   * Constructor of MultiPatternMatcher.
+   *
+   * @param patterns Patterns to find.
+   */
+  public MultiPatternMatcher(Collection<String> patterns){
+    asciiAlphabet = new int[128];
+    otherAlphabet = new HashMap<>();
+    int nextAlphabet = 1;
+    int maxStates = 1;
+    for(String pattern : patterns){
+      maxStates += pattern.length();
+      for(int i = 0; i < pattern.length(); i++){
+        char c = pattern.charAt(i);
+        if(c < 128){
+          if(asciiAlphabet[c] == 0){
+            asciiAlphabet[c] = nextAlphabet++;
+          }
+        }
+        else if(!otherAlphabet.containsKey(c)){
+          otherAlphabet.put(c, nextAlphabet++);
+        }
+      }
+    }
+    alphabetSize = nextAlphabet;
+
+    // Build trie. -1 means no transition.
+    int[] trie = new int[maxStates * alphabetSize];
+    Arrays.fill(trie, -1);
+    boolean[] terminal = new boolean[maxStates];
+    boolean empty = false;
+    int states = 1;
+    for(String pattern : patterns){
+      if(pattern.isEmpty()){
+        empty = true;
+        continue;
+      }
+
+      int state = 0;
+      for(int i = 0; i < pattern.length(); i++){
+        int idx = state * alphabetSize + alphabetOf(pattern.charAt(i));
+        if(trie[idx] == -1){
+          trie[idx] = states++;
+        }
+        state = trie[idx];
+      }
+      terminal[state] = true;
+    }
+    matchesAll = empty;
+
+    // Build DFA with failure links in BFS order.
+    delta = Arrays.copyOf(trie, states * alphabetSize);
+    accept = Arrays.copyOf(terminal, states);
+    int[] fail = new int[states];
+    Queue<Integer> queue = new ArrayDeque<>();
+    for(int a = 0; a < alphabetSize; a++){
+      int next = delta[a];
+      if(next == -1){
+        delta[a] = 0;
+      }
+      else{
+        fail[next] = 0;
+        queue.add(next);
+      }
+    }
+    while(!queue.isEmpty()){
+      int state = queue.remove();
+      accept[state] |= accept[fail[state]];
+      for(int a = 0; a < alphabetSize; a++){
+        int idx = state * alphabetSize + a;
+        int next = delta[idx];
+        if(next == -1){
+          delta[idx] = delta[fail[state] * alphabetSize + a];
+        }
+        else{
+          fail[next] = delta[fail[state] * alphabetSize + a];
+          queue.add(next);
+        }
+      }
+    }
+  }
+
+  private int alphabetOf(char c){
+    return (c < 128) ? asciiAlphabet[c] : otherAlphabet.getOrDefault(c, 0);
+  }
+
+  /**
+   * Return whether any of patterns appears in the string.
+   *
+   * @param str String to scan.
+   * @return true if the string contains any of patterns.
+   */
+  public boolean matches(CharSequence str){
+    if(matchesAll){
+      return true;
+    }
+
+    int state = 0;
+    for(int i = 0; i < str.length(); i++){
+      state = delta[state * alphabetSize + alphabetOf(str.charAt(i))];
+      if(accept[state]){
+        return true;
+      }
+    }
+    return false;
+  }
+
+}
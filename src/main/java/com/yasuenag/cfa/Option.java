@@ -19,17 +19,27 @@ package com.yasuenag.cfa;
  */
 
 
+import java.net.URI;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.nio.file.Path;
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 
 /**
@@ -37,6 +47,14 @@ import java.util.Set;
  */
 public class Option{
 
+  /**
+   * Output format.
+   */
+  public static enum Format{
+    TEXT,
+    NDJSON
+  }
+
   /**
    * Target class set.
    */
@@ -53,15 +71,128 @@ public class Option{
   private Set<String> methodFilterSet;
 
   /**
-   * File set to analyze.
+   * Field filter set.
+   */
+  private Set<String> fieldFilterSet;
+
+  /**
+   * Path to output file. null means stdout.
+   */
+  private Path outputPath;
+
+  /**
+   * Whether output is written in another thread.
+   */
+  private boolean asyncOutput;
+
+  /**
+   * Whether JARs are read from memory-mapped file.
+   */
+  private boolean mmap;
+
+  /**
+   * Directory of index cache. null means cache is not used.
+   */
+  private Path cacheDir;
+
+  /**
+   * Path to the reference index to build. null means index is not built.
+   */
+  private Path buildIndexPath;
+
+  /**
+   * Path to the reference index to query. null means inputs are scanned.
+   */
+  private Path indexPath;
+
+  /**
+   * Path to the columnar export file to write. null means classes are not exported.
+   */
+  private Path exportPath;
+
+  /**
+   * Query of the dependency graph. null means graph mode is not used.
+   */
+  private DependencyGraph.Query graphQuery;
+
+  /**
+   * Dependency matrix to aggregate. null means matrix mode is not used.
+   */
+  private DependencyMatrix.Spec matrixSpec;
+
+  /**
+   * Path to the socket file of the query server. null means server mode is not used.
+   */
+  private Path serverSocketPath;
+
+  /**
+   * Path to the socket file to send the query. null means client mode is not used.
+   */
+  private Path clientSocketPath;
+
+  /**
+   * Arguments which are sent to the query server in client mode.
+   */
+  private List<String> queryArguments;
+
+  /**
+   * Whether -h is specified.
+   */
+  private boolean help;
+
+  /**
+   * Whether inputs are watched after the scan.
+   */
+  private boolean watch;
+
+  /**
+   * Output format.
+   */
+  private Format format;
+
+  /**
+   * Results of scanned archives and classes. null means --dedup is not specified.
+   */
+  private DedupCache dedupCache;
+
+  /**
+   * Statistics of the scan. ScanStats.DISABLED if --stats is not specified.
+   */
+  private ScanStats stats;
+
+  /**
+   * Filter conditions which are built from target, class and method filter set.
+   */
+  private ClassFilter filter;
+
+  /**
+   * File set to analyze which is specified in arguments directly.
+   * Inputs from --classpath, @argfile and stdin are not included.
    */
   private Set<Path> fileSet;
 
+  /**
+   * Sources of inputs in order of arguments.
+   * Paths in --classpath, @argfile and stdin are read and validated
+   * when inputs are streamed.
+   */
+  private List<Supplier<Stream<Path>>> inputSources;
+
   /**
    * Whether short output?
    */
   private boolean shortOutput;
 
+  /**
+   * Number of worker threads to parse classes.
+   */
+  private int parallelism;
+
+  /**
+   * Upper bound in MB of bytes which are read but not parsed yet in -j mode.
+   */
+  private int ioBudget;
+
   /**
    * Print usage.
    */
@@ -81,6 +212,10 @@ public class Option{
     Usage:
       cfa [options] [file or directory...]
 
+      File: JAR, WAR, EAR, JMOD, class file, directory, JDK home or jrt:/ path
+      @argfile: Read inputs from the file (one path per line).
+      -: Read inputs from stdin (one path per line).
+
     Options:
       -h: This help.
       -t class1,class2,...: Target class.
@@ -89,23 +224,168 @@ public class Option{
                             CFA will pick up classes which include them in ConstantPool.
       -m method1,method2,...: Method filter.
                               CFA will pick up classes which include them in ConstantPool.
+                              Owner.name:descriptor (e.g. java/io/Closeable.close:()V)
+                              matches the method exactly. Each part can be * or glob
+                              (e.g. java.io.*.close, Foo.get*), and owner and
+                              descriptor can be omitted (e.g. *.close).
+      -f field1,field2,...: Field filter. The syntax is same as -m.
+      Terms of -t, -c and names in -m and -f match as a part of the string.
+      Term which has * or ? is a glob which matches the whole string
+      (e.g. org.apache.*.Logger), and term enclosed in / is a regex
+      (e.g. /^(get|set)[A-Z]/).
       -s: Short output.
           If this option is added, CFA will output class name and file path only.
+      -j threads: Number of threads to parse classes.
+                  Results are printed in the same order as single thread.
+      --io-budget MB: Upper bound of bytes which are read but not parsed yet
+                      with -j. Default is 64.
+      -o file: Output file. CFA will output to stdout if this option is omitted.
+      --classpath path1:path2:...: Inputs separated by path separator.
+                                   They are processed in order of the classpath.
+      --format text|ndjson: Output format. Default is text.
+                            ndjson prints one JSON object per class in one line.
+      --async-output: Write output in another thread.
+      --mmap: Read JARs via memory-mapped file instead of JarFile.
+      --cache dir: Directory to store summaries of classes in archives.
+                   Unchanged archives are not parsed again.
+      --build-index file: Build reference index of all classes in inputs.
+      --index file: Answer -t, -c, -m and -f from the reference index
+                    instead of scanning inputs.
+      --export file: Export all classes in inputs to the columnar binary file.
+      --graph query: Query the class dependency graph of all classes in inputs.
+                     query: reachable=class1,...   Classes reachable from them
+                            reaching=class1,...    Classes which can reach them
+                            unreachable=class1,... Scanned classes unreachable from them
+                            path=from,to           Shortest path between classes
+      --matrix package|archive[:table]: Print dependencies between packages or
+                                        archives with the number of references.
+                                        :table prints them as tab-separated table.
+      --server socket: Load inputs (or --index) once, and answer queries
+                       from clients over Unix domain socket.
+      --client socket: Send -t, -c, -m, -f, -s and --format to the server,
+                       and print the result.
+      --dedup: Parse identical archives and classes once, and report
+               the result for every location where they appear.
+               This cannot be specified with --cache.
+      --stats: Print statistics of the scan (bytes read, classes parsed,
+               time of each phase, etc.) to stderr.
+      --watch: Watch inputs after the scan, and print classes in files
+               which are created, modified or deleted.
     """);
   }
 
+  /**
+   * Convert the argument to the path of the input.
+   *
+   * @param str Argument.
+   * @return Path of the input.
+   * @throws IllegalArgumentException if the input does not exist.
+   */
+  private static Path toPath(String str) throws IllegalArgumentException{
+    if(str.startsWith("jrt:/")){
+      Path jrtPath;
+      try{
+        jrtPath = Paths.get(URI.create(str));
+      }
+      catch(IllegalArgumentException | FileSystemNotFoundException e){
+        throw new IllegalArgumentException("Invalid jrt path: " + str, e);
+      }
+
+      if(!Files.exists(jrtPath)){
+        throw new IllegalArgumentException("Invalid jrt path: " + str);
+      }
+
+      return jrtPath;
+    }
+
+    Path path = Paths.get(str);
+    File file = path.toFile();
+
+    if(!file.exists()){
+      throw new IllegalArgumentException(
+                                 "Invalid file: " + path.toString());
+    }
+
+    return path;
+  }
+
+  /**
+   * Convert the entry of --classpath, @argfile or stdin to the path.
+   * Invalid entries are reported to stderr, and are skipped as same as
+   * the classpath of Java.
+   */
+  private static Stream<Path> toLazyPath(String str){
+    String entry = str.strip();
+    if(entry.isEmpty() || entry.startsWith("#")){
+      return Stream.empty();
+    }
+
+    try{
+      return Stream.of(toPath(entry));
+    }
+    catch(IllegalArgumentException e){
+      System.err.println(e.getMessage());
+      return Stream.empty();
+    }
+  }
+
+  private static Stream<Path> readArgFile(Path argFile){
+    try{
+      return Files.lines(argFile)
+                  .flatMap(Option::toLazyPath);
+    }
+    catch(IOException e){
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static Stream<Path> readStdin(){
+    var reader = new BufferedReader(new InputStreamReader(System.in));
+    return reader.lines()
+                 .onClose(() -> {
+                   try{
+                     reader.close();
+                   }
+                   catch(IOException e){
+                     throw new UncheckedIOException(e);
+                   }
+                 })
+                 .flatMap(Option::toLazyPath);
+  }
+
   /**
    * Constructor of Option.
    *
    * @param args Commandline arguments.
    */
-  @SuppressWarnings("fallthrough")
   public Option(String[] args) throws IllegalArgumentException{
     targetSet = null;
     classFilterSet = null;
     methodFilterSet = null;
+    fieldFilterSet = null;
     shortOutput = false;
-    fileSet = new HashSet<>();
+    parallelism = 1;
+    ioBudget = 64;
+    outputPath = null;
+    asyncOutput = false;
+    mmap = false;
+    cacheDir = null;
+    buildIndexPath = null;
+    indexPath = null;
+    exportPath = null;
+    graphQuery = null;
+    matrixSpec = null;
+    serverSocketPath = null;
+    clientSocketPath = null;
+    queryArguments = new ArrayList<>();
+    help = false;
+    watch = false;
+    format = Format.TEXT;
+    stats = ScanStats.DISABLED;
+    dedupCache = null;
+
+    fileSet = new LinkedHashSet<>();
+    inputSources = new ArrayList<>();
 
     Iterator<String> itr = Arrays.asList(args).iterator();
     while(itr.hasNext()){
@@ -114,8 +394,8 @@ public class Option{
       switch(str){
 
         case "-h":
-          Option.printOptions();
-          System.exit(1);
+          help = true;
+          break;
 
         case "-t":
 
@@ -123,7 +403,10 @@ public class Option{
             throw new IllegalArgumentException("Invalid target list.");
           }
 
-          targetSet = new HashSet<>(Arrays.asList(itr.next().split(",")));
+          String targets = itr.next();
+          targetSet = new HashSet<>(Arrays.asList(targets.split(",")));
+          queryArguments.add(str);
+          queryArguments.add(targets);
           break;
 
         case "-c":
@@ -132,7 +415,10 @@ public class Option{
             throw new IllegalArgumentException("Invalid class filter list.");
           }
 
-          classFilterSet = new HashSet<>(Arrays.asList(itr.next().split(",")));
+          String classes = itr.next();
+          classFilterSet = new HashSet<>(Arrays.asList(classes.split(",")));
+          queryArguments.add(str);
+          queryArguments.add(classes);
           break;
 
         case "-m":
@@ -141,28 +427,254 @@ public class Option{
             throw new IllegalArgumentException("Invalid method filter list.");
           }
 
-          methodFilterSet = new HashSet<>(Arrays.asList(itr.next().split(",")));
+          String methods = itr.next();
+          methodFilterSet = new HashSet<>(Arrays.asList(methods.split(",")));
+          queryArguments.add(str);
+          queryArguments.add(methods);
+          break;
+
+        case "-f":
+
+          if(!itr.hasNext()){
+            throw new IllegalArgumentException("Invalid field filter list.");
+          }
+
+          String fields = itr.next();
+          fieldFilterSet = new HashSet<>(Arrays.asList(fields.split(",")));
+          queryArguments.add(str);
+          queryArguments.add(fields);
           break;
 
         case "-s":
           shortOutput = true;
+          queryArguments.add(str);
           break;
 
-        default:
-          Path path = Paths.get(str);
-          File file = path.toFile();
+        case "-j":
+
+          if(!itr.hasNext()){
+            throw new IllegalArgumentException("Invalid number of threads.");
+          }
+
+          try{
+            parallelism = Integer.parseInt(itr.next());
+          }
+          catch(NumberFormatException e){
+            throw new IllegalArgumentException("Invalid number of threads.", e);
+          }
+
+          if(parallelism < 1){
+            throw new IllegalArgumentException("Invalid number of threads.");
+          }
+          break;
+
+        case "--io-budget":
+
+          if(!itr.hasNext()){
+            throw new IllegalArgumentException("Invalid I/O budget.");
+          }
+
+          try{
+            ioBudget = Integer.parseInt(itr.next());
+          }
+          catch(NumberFormatException e){
+            throw new IllegalArgumentException("Invalid I/O budget.", e);
+          }
+
+          // Budget is managed in KB in ScanPipeline.
+          if((ioBudget < 1) || (ioBudget > (Integer.MAX_VALUE / 1024))){
+            throw new IllegalArgumentException("Invalid I/O budget.");
+          }
+          break;
+
+        case "-o":
+
+          if(!itr.hasNext()){
+            throw new IllegalArgumentException("Invalid output file.");
+          }
+
+          outputPath = Paths.get(itr.next());
+          break;
+
+        case "--format":
+
+          if(!itr.hasNext()){
+            throw new IllegalArgumentException("Invalid output format.");
+          }
+
+          String formatName = itr.next();
+          format = switch(formatName){
+            case "text" -> Format.TEXT;
+            case "ndjson" -> Format.NDJSON;
+            default -> throw new IllegalArgumentException("Invalid output format.");
+          };
+          queryArguments.add(str);
+          queryArguments.add(formatName);
+          break;
+
+        case "--async-output":
+          asyncOutput = true;
+          break;
+
+        case "--mmap":
+          mmap = true;
+          break;
+
+        case "--cache":
+
+          if(!itr.hasNext()){
+            throw new IllegalArgumentException("Invalid cache directory.");
+          }
+
+          cacheDir = Paths.get(itr.next());
+          if(Files.exists(cacheDir) && !Files.isDirectory(cacheDir)){
+            throw new IllegalArgumentException("Invalid cache directory: " + cacheDir.toString());
+          }
+          break;
+
+        case "--build-index":
+
+          if(!itr.hasNext()){
+            throw new IllegalArgumentException("Invalid index file.");
+          }
+
+          buildIndexPath = Paths.get(itr.next());
+          break;
+
+        case "--index":
+
+          if(!itr.hasNext()){
+            throw new IllegalArgumentException("Invalid index file.");
+          }
+
+          indexPath = Paths.get(itr.next());
+          if(!Files.isRegularFile(indexPath)){
+            throw new IllegalArgumentException("Invalid index file: " + indexPath.toString());
+          }
+          break;
+
+        case "--export":
+
+          if(!itr.hasNext()){
+            throw new IllegalArgumentException("Invalid export file.");
+          }
+
+          exportPath = Paths.get(itr.next());
+          break;
+
+        case "--graph":
+
+          if(!itr.hasNext()){
+            throw new IllegalArgumentException("Invalid graph query.");
+          }
 
-          if(!file.exists()){
-            throw new IllegalArgumentException(
-                                       "Invalid file: " + path.toString());
+          graphQuery = DependencyGraph.Query.parse(itr.next());
+          break;
+
+        case "--matrix":
+
+          if(!itr.hasNext()){
+            throw new IllegalArgumentException("Invalid matrix.");
+          }
+
+          matrixSpec = DependencyMatrix.Spec.parse(itr.next());
+          break;
+
+        case "--server":
+
+          if(!itr.hasNext()){
+            throw new IllegalArgumentException("Invalid socket file.");
+          }
+
+          serverSocketPath = Paths.get(itr.next());
+          break;
+
+        case "--client":
+
+          if(!itr.hasNext()){
+            throw new IllegalArgumentException("Invalid socket file.");
+          }
+
+          clientSocketPath = Paths.get(itr.next());
+          break;
+
+        case "--watch":
+          watch = true;
+          break;
+
+        case "--dedup":
+          dedupCache = new DedupCache();
+          break;
+
+        case "--stats":
+          stats = ScanStats.create();
+          break;
+
+        case "--classpath":
+
+          if(!itr.hasNext()){
+            throw new IllegalArgumentException("Invalid classpath.");
+          }
+
+          String classpath = itr.next();
+          inputSources.add(() -> Arrays.stream(classpath.split(File.pathSeparator))
+                                       .flatMap(Option::toLazyPath));
+          break;
+
+        case "-":
+          inputSources.add(Option::readStdin);
+          break;
+
+        default:
+          if(str.startsWith("@")){
+            Path argFile = Paths.get(str.substring(1));
+            if(!Files.isReadable(argFile)){
+              throw new IllegalArgumentException("Invalid argument file: " + argFile.toString());
+            }
+            inputSources.add(() -> readArgFile(argFile));
+            break;
           }
 
+          Path path = toPath(str);
           fileSet.add(path);
+          inputSources.add(() -> Stream.of(path));
 
       }
 
     }
 
+    if(buildIndexPath != null && indexPath != null){
+      throw new IllegalArgumentException("--build-index and --index cannot be specified at the same time.");
+    }
+
+    if(exportPath != null && (buildIndexPath != null || indexPath != null || serverSocketPath != null || clientSocketPath != null || watch)){
+      throw new IllegalArgumentException("--export cannot be specified with --build-index, --index, --server, --client and --watch.");
+    }
+
+    if(graphQuery != null && (buildIndexPath != null || indexPath != null || exportPath != null || serverSocketPath != null || clientSocketPath != null || watch)){
+      throw new IllegalArgumentException("--graph cannot be specified with --build-index, --index, --export, --server, --client and --watch.");
+    }
+
+    if(matrixSpec != null && (graphQuery != null || buildIndexPath != null || indexPath != null || exportPath != null || serverSocketPath != null || clientSocketPath != null || watch)){
+      throw new IllegalArgumentException("--matrix cannot be specified with --graph, --build-index, --index, --export, --server, --client and --watch.");
+    }
+
+    if(dedupCache != null && cacheDir != null){
+      throw new IllegalArgumentException("--dedup and --cache cannot be specified at the same time.");
+    }
+
+    if(serverSocketPath != null && clientSocketPath != null){
+      throw new IllegalArgumentException("--server and --client cannot be specified at the same time.");
+    }
+    if(watch && (buildIndexPath != null || indexPath != null || serverSocketPath != null || clientSocketPath != null)){
+      throw new IllegalArgumentException("--watch cannot be specified with --build-index, --index, --server and --client.");
+    }
+    if(clientSocketPath != null && hasInputs()){
+      throw new IllegalArgumentException("Input files cannot be specified with --client.");
+    }
+
+    filter = new ClassFilter(this);
+
   }
 
   public Optional<Set<String>> getTargetSet(){
@@ -177,13 +689,125 @@ public class Option{
     return Optional.ofNullable(methodFilterSet);
   }
 
+  public Optional<Set<String>> getFieldFilterSet(){
+    return Optional.ofNullable(fieldFilterSet);
+  }
+
+  public ClassFilter getFilter(){
+    return filter;
+  }
+
+  /**
+   * @return Paths which are specified in arguments directly. Inputs from
+   *         --classpath, @argfile and stdin are not included, so
+   *         getInputs() should be used to process all inputs.
+   */
   public Set<Path> getFileSet(){
     return fileSet;
   }
 
+  /**
+   * Stream all inputs in order of arguments. Duplicated inputs are
+   * processed only once.
+   * Inputs from stdin can be streamed only once.
+   *
+   * @return Stream of inputs.
+   */
+  public Stream<Path> getInputs(){
+    return inputSources.stream()
+                       .flatMap(Supplier::get)
+                       .distinct();
+  }
+
+  public boolean hasInputs(){
+    return !inputSources.isEmpty();
+  }
+
   public boolean isShort(){
     return shortOutput;
   }
 
+  public int getParallelism(){
+    return parallelism;
+  }
+
+  public int getIOBudget(){
+    return ioBudget;
+  }
+
+  public Optional<Path> getOutputPath(){
+    return Optional.ofNullable(outputPath);
+  }
+
+  public Format getFormat(){
+    return format;
+  }
+
+  public boolean isAsyncOutput(){
+    return asyncOutput;
+  }
+
+  public boolean isMmap(){
+    return mmap;
+  }
+
+  public Optional<Path> getCacheDir(){
+    return Optional.ofNullable(cacheDir);
+  }
+
+  public Optional<Path> getBuildIndexPath(){
+    return Optional.ofNullable(buildIndexPath);
+  }
+
+  public Optional<Path> getIndexPath(){
+    return Optional.ofNullable(indexPath);
+  }
+
+  public Optional<Path> getExportPath(){
+    return Optional.ofNullable(exportPath);
+  }
+
+  public Optional<DependencyGraph.Query> getGraphQuery(){
+    return Optional.ofNullable(graphQuery);
+  }
+
+  public Optional<DependencyMatrix.Spec> getMatrixSpec(){
+    return Optional.ofNullable(matrixSpec);
+  }
+
+  public Optional<Path> getServerSocketPath(){
+    return Optional.ofNullable(serverSocketPath);
+  }
+
+  public Optional<Path> getClientSocketPath(){
+    return Optional.ofNullable(clientSocketPath);
+  }
+
+  public Optional<DedupCache> getDedupCache(){
+    return Optional.ofNullable(dedupCache);
+  }
+
+  public ScanStats getStats(){
+    return stats;
+  }
+
+  public boolean isWatch(){
+    return watch;
+  }
+
+  /**
+   * @return true if -h is specified. Usage should be printed instead of the scan.
+   */
+  public boolean isHelp(){
+    return help;
+  }
+
+  /**
+   * @return -t, -c, -m, -f, -s and --format to send to the query server.
+   */
+  public List<String> getQueryArguments(){
+    return queryArguments;
+  }
+
 }
 
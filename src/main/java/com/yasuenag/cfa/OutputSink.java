@@ -0,0 +1,264 @@
+package com.yasuenag.cfa;
+
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+
+/**
+ * Output destination of CFA.
+ * Output is buffered in large chunks and is not flushed at each line.
+ * Callers have to call flush() at the point where output should be visible.
+ */
+public class OutputSink extends PrintWriter{
+
+  /**
+   * Size of output buffer in chars.
+   */
+  public static final int BUFFER_SIZE = 256 * 1024;
+
+  /**
+   * Number of chunks which can be queued to the writer thread.
+   */
+  private static final int ASYNC_QUEUE_SIZE = 4;
+
+  /**
+   * Writer which hands filled buffers to a dedicated writer thread.
+   * The thread which prints class information is not blocked by I/O
+   * unless the queue is full.
+   */
+  private static class AsyncWriter extends Writer{
+
+    /**
+     * Marker to request flush to the writer thread.
+     */
+    private static final char[] FLUSH = new char[0];
+
+    private final Writer target;
+
+    private final BlockingQueue<char[]> queue;
+
+    private final Thread writerThread;
+
+    private char[] buf;
+
+    private int count;
+
+    private volatile IOException error;
+
+    private final Object flushLock;
+
+    private long requestedFlush;
+
+    private long completedFlush;
+
+    AsyncWriter(Writer target){
+      this.target = target;
+      queue = new ArrayBlockingQueue<>(ASYNC_QUEUE_SIZE);
+      buf = new char[BUFFER_SIZE];
+      count = 0;
+      flushLock = new Object();
+      requestedFlush = 0;
+      completedFlush = 0;
+      writerThread = Thread.ofPlatform()
+                           .name("cfa-output")
+                           .daemon()
+                           .start(this::writeLoop);
+    }
+
+    private void writeLoop(){
+      try{
+        while(true){
+          char[] chunk = queue.take();
+          try{
+            if(chunk == FLUSH){
+              try{
+                target.flush();
+              }
+              finally{
+                synchronized(flushLock){
+                  completedFlush++;
+                  flushLock.notifyAll();
+                }
+              }
+            }
+            else{
+              target.write(chunk);
+            }
+          }
+          catch(IOException e){
+            error = e;
+          }
+        }
+      }
+      catch(InterruptedException e){
+        // close() was called.
+      }
+    }
+
+    private void checkError() throws IOException{
+      if(error != null){
+        throw error;
+      }
+    }
+
+    private void enqueue(char[] chunk) throws IOException{
+      try{
+        queue.put(chunk);
+      }
+      catch(InterruptedException e){
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException();
+      }
+    }
+
+    private void handOff() throws IOException{
+      if(count > 0){
+        enqueue(count == buf.length ? buf : Arrays.copyOf(buf, count));
+        buf = new char[BUFFER_SIZE];
+        count = 0;
+      }
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException{
+      checkError();
+      while(len > 0){
+        int n = Math.min(len, buf.length - count);
+        System.arraycopy(cbuf, off, buf, count, n);
+        count += n;
+        off += n;
+        len -= n;
+        if(count == buf.length){
+          handOff();
+        }
+      }
+    }
+
+    @Override
+    public void flush() throws IOException{
+      handOff();
+      long ticket;
+      synchronized(flushLock){
+        ticket = ++requestedFlush;
+      }
+      enqueue(FLUSH);
+
+      synchronized(flushLock){
+        while(completedFlush < ticket && error == null){
+          try{
+            flushLock.wait();
+          }
+          catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+          }
+        }
+      }
+      checkError();
+    }
+
+    @Override
+    public void close() throws IOException{
+      try{
+        flush();
+      }
+      finally{
+        writerThread.interrupt();
+        target.close();
+      }
+    }
+
+  }
+
+  /**
+   * Stream which writes to System.out, and does not close it.
+   * PrintStream does not throw IOException, so the error (e.g. broken pipe)
+   * is checked after writing to stop printing.
+   */
+  private static class StdoutStream extends OutputStream{
+
+    private void checkError() throws IOException{
+      if(System.out.checkError()){
+        throw new IOException("Failed to write to stdout");
+      }
+    }
+
+    @Override
+    public void write(int b) throws IOException{
+      System.out.write(b);
+      checkError();
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException{
+      System.out.write(b, off, len);
+      checkError();
+    }
+
+    @Override
+    public void flush() throws IOException{
+      System.out.flush();
+      checkError();
+    }
+
+    @Override
+    public void close() throws IOException{
+      flush();
+    }
+
+  }
+
+  private OutputSink(Writer writer){
+    super(writer, false);
+  }
+
+  private static Writer openTarget(Option option) throws IOException{
+    if(option.getOutputPath().isPresent()){
+      return new OutputStreamWriter(Files.newOutputStream(option.getOutputPath().get()), StandardCharsets.UTF_8);
+    }
+    return new OutputStreamWriter(new StdoutStream(), System.out.charset());
+  }
+
+  /**
+   * Open the output which is specified in the option.
+   * Output goes to the file which is specified by -o, or stdout.
+   *
+   * @param option Option to use.
+   * @return OutputSink to print class information.
+   * @throws IOException if the output file cannot be opened.
+   */
+  public static OutputSink open(Option option) throws IOException{
+    Writer target = openTarget(option);
+    return new OutputSink(option.isAsyncOutput() ? new AsyncWriter(target)
+                                                 : new BufferedWriter(target, BUFFER_SIZE));
+  }
+
+}
@@ -0,0 +1,247 @@
+package com.yasuenag.cfa;
+
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Server which answers queries from the reference index in memory
+ * over Unix domain socket.
+ *
+ * Request is the number of arguments (int) and arguments (modified UTF-8)
+ * which are parsed by Option in the server. Only -t, -c, -m, -f, -s and
+ * --format are accepted. Response is the status (byte), and the output in
+ * UTF-8 if the status is STATUS_OK, or the error message (modified UTF-8)
+ * if it is STATUS_ERROR. The server closes the connection
+ * after the response. Requests which have too many or too large arguments
+ * are answered with STATUS_ERROR.
+ */
+public class QueryServer implements AutoCloseable{
+
+  private static final byte STATUS_OK = 0;
+
+  private static final byte STATUS_ERROR = 1;
+
+  /**
+   * Upper bound of the number of arguments in the request.
+   */
+  private static final int MAX_ARGUMENTS = 1024;
+
+  /**
+   * Upper bound of total length of arguments in the request in chars.
+   */
+  private static final int MAX_REQUEST_CHARS = 1024 * 1024;
+
+  /**
+   * Options which can be specified in the query, and whether each of them
+   * takes a value. Other arguments are rejected before they are parsed by
+   * Option, so inputs and argument files are not touched in the server.
+   */
+  private static final Map<String, Boolean> QUERY_OPTIONS = Map.of("-t", true,
+                                                                   "-c", true,
+                                                                   "-m", true,
+                                                                   "-f", true,
+                                                                   "-s", false,
+                                                                   "--format", true);
+
+  /**
+   * Path to the socket file.
+   */
+  private final Path socketPath;
+
+  /**
+   * Index to answer queries. This is shared by all of connections.
+   */
+  private final ReferenceIndex index;
+
+  /**
+   * Server socket which is bound to socketPath.
+   */
+  private final ServerSocketChannel server;
+
+  /**
+   * Constructor of QueryServer. The socket file is created in this constructor.
+   *
+   * @param socketPath Path to the socket file.
+   *                   It would be removed if it already exists.
+   * @param index Index to answer queries.
+   * @throws IOException if the socket cannot be bound.
+   */
+  public QueryServer(Path socketPath, ReferenceIndex index) throws IOException{
+    this.socketPath = socketPath;
+    this.index = index;
+
+    // Remove the socket file which was left by previous server.
+    Files.deleteIfExists(socketPath);
+    server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+    server.bind(UnixDomainSocketAddress.of(socketPath));
+  }
+
+  /**
+   * Accept connections until this server is closed.
+   * Each query is processed in its own virtual thread.
+   *
+   * @throws IOException if I/O error occurred in the server socket.
+   */
+  public void serve() throws IOException{
+    try{
+      while(true){
+        SocketChannel ch = server.accept();
+        Thread.ofVirtual()
+              .name("cfa-query")
+              .start(() -> handle(ch));
+      }
+    }
+    catch(AsynchronousCloseException e){
+      // close() was called.
+    }
+  }
+
+  /**
+   * Read arguments of the request. The request is bounded because the
+   * server is shared by all clients.
+   *
+   * @throws IllegalArgumentException if the request is too large.
+   */
+  private static String[] readArguments(DataInputStream in) throws IOException, IllegalArgumentException{
+    int count = in.readInt();
+    if(count < 0 || count > MAX_ARGUMENTS){
+      throw new IllegalArgumentException("Invalid number of arguments: " + count);
+    }
+
+    String[] args = new String[count];
+    long total = 0;
+    for(int i = 0; i < args.length; i++){
+      args[i] = in.readUTF();
+      total += args[i].length();
+      if(total > MAX_REQUEST_CHARS){
+        throw new IllegalArgumentException("Too large request.");
+      }
+    }
+    return args;
+  }
+
+  /**
+   * Check that arguments have only options which are allowed in the query.
+   * Missing values are reported by Option.
+   *
+   * @throws IllegalArgumentException if unsupported argument is found.
+   */
+  private static void checkArguments(String[] args) throws IllegalArgumentException{
+    for(int i = 0; i < args.length; i++){
+      Boolean hasValue = QUERY_OPTIONS.get(args[i]);
+      if(hasValue == null){
+        throw new IllegalArgumentException("Unsupported argument in the query: " + args[i]);
+      }
+      if(hasValue){
+        i++;
+      }
+    }
+  }
+
+  private void handle(SocketChannel ch){
+    try(ch){
+      var in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(ch)));
+      var out = new BufferedOutputStream(Channels.newOutputStream(ch));
+      Option option;
+      try{
+        String[] args = readArguments(in);
+        checkArguments(args);
+        option = new Option(args);
+      }
+      catch(IllegalArgumentException e){
+        var data = new DataOutputStream(out);
+        data.writeByte(STATUS_ERROR);
+        data.writeUTF(String.valueOf(e.getMessage()));
+        data.flush();
+        return;
+      }
+
+      out.write(STATUS_OK);
+      var writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+      index.query(option, writer);
+      writer.flush();
+    }
+    catch(IOException e){
+      // The client would be gone.
+    }
+  }
+
+  /**
+   * Close the server socket and remove the socket file.
+   * Queries in progress are not interrupted.
+   */
+  @Override
+  public void close() throws IOException{
+    try{
+      server.close();
+    }
+    finally{
+      Files.deleteIfExists(socketPath);
+    }
+  }
+
+  /**
+   * Send the query to the server, and copy the result to the writer.
+   *
+   * @param socketPath Path to the socket file of the server.
+   * @param args Arguments of the query (e.g. -c, -m, -t and -s).
+   * @param out Writer to copy the result.
+   * @throws IOException if the server cannot be connected.
+   * @throws IllegalArgumentException if the server rejects the query.
+   */
+  public static void query(Path socketPath, List<String> args, Writer out) throws IOException{
+    try(SocketChannel ch = SocketChannel.open(UnixDomainSocketAddress.of(socketPath))){
+      var request = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(ch)));
+      request.writeInt(args.size());
+      for(String arg : args){
+        request.writeUTF(arg);
+      }
+      request.flush();
+
+      var in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(ch)));
+      if(in.readByte() == STATUS_ERROR){
+        throw new IllegalArgumentException(in.readUTF());
+      }
+      new InputStreamReader(in, StandardCharsets.UTF_8).transferTo(out);
+    }
+  }
+
+}
@@ -0,0 +1,408 @@
+package com.yasuenag.cfa;
+
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+
+/**
+ * Inverted index from referenced classes, methods and fields to classes which
+ * refer them. Each class has an int id in order of the scan, and postings
+ * are sorted lists of ids. Queries evaluate -c and -m conditions against
+ * distinct referenced names instead of all classes, and print results in
+ * the same order as the linear scan.
+ */
+public class ReferenceIndex{
+
+  private static final int MAGIC = 0x43464158; // "CFAX"
+
+  private static final int VERSION = 2;
+
+  /**
+   * Archive or file name of each class.
+   */
+  private final String[] fnames;
+
+  /**
+   * Class name of each class in Java form.
+   */
+  private final String[] classNames;
+
+  /**
+   * Offset of the summary of each class in summaries.
+   */
+  private final int[] summaryOffsets;
+
+  /**
+   * Serialized ClassSummary of all classes.
+   */
+  private final byte[] summaries;
+
+  /**
+   * Referenced class names in order of the name.
+   */
+  private final String[] classTerms;
+
+  /**
+   * Postings of classTerms.
+   */
+  private final int[][] classPostings;
+
+  /**
+   * Referenced method names in order of the name.
+   */
+  private final String[] methodTerms;
+
+  /**
+   * Postings of methodTerms.
+   */
+  private final int[][] methodPostings;
+
+  /**
+   * Referenced field names in order of the name.
+   */
+  private final String[] fieldTerms;
+
+  /**
+   * Postings of fieldTerms.
+   */
+  private final int[][] fieldPostings;
+
+  /**
+   * Builder of ReferenceIndex. Classes should be added in order of the scan.
+   */
+  public static class Builder{
+
+    private final List<String> fnames;
+
+    private final List<String> classNames;
+
+    private final List<Integer> summaryOffsets;
+
+    private final ByteArrayOutputStream summaryBuf;
+
+    private final DataOutputStream summaryOut;
+
+    private final Map<String, IntList> classPostings;
+
+    private final Map<String, IntList> methodPostings;
+
+    private final Map<String, IntList> fieldPostings;
+
+    public Builder(){
+      fnames = new ArrayList<>();
+      classNames = new ArrayList<>();
+      summaryOffsets = new ArrayList<>();
+      summaryBuf = new ByteArrayOutputStream();
+      summaryOut = new DataOutputStream(summaryBuf);
+      classPostings = new TreeMap<>();
+      methodPostings = new TreeMap<>();
+      fieldPostings = new TreeMap<>();
+    }
+
+    /**
+     * Add the class to this index.
+     *
+     * @param dumper ClassInfoDumper of the class.
+     */
+    public void add(ClassInfoDumper dumper){
+      int id = fnames.size();
+      fnames.add(dumper.getFileName());
+      classNames.add(dumper.getClassName());
+      summaryOffsets.add(summaryOut.size());
+      try{
+        dumper.toSummary().writeTo(summaryOut);
+      }
+      catch(IOException e){
+        // ByteArrayOutputStream does not throw IOException.
+        throw new UncheckedIOException(e);
+      }
+
+      dumper.getReferencedClasses().forEach(c -> classPostings.computeIfAbsent(c, k -> new IntList()).add(id));
+      dumper.getReferencedMethods().forEach(m -> methodPostings.computeIfAbsent(m, k -> new IntList()).add(id));
+      dumper.getReferencedFields().forEach(f -> fieldPostings.computeIfAbsent(f, k -> new IntList()).add(id));
+    }
+
+    /**
+     * @return Number of classes in this index.
+     */
+    public int size(){
+      return fnames.size();
+    }
+
+    private static int[][] toPostings(Map<String, IntList> postings, String[] terms){
+      int[][] result = new int[postings.size()][];
+      int i = 0;
+      for(var entry : postings.entrySet()){
+        terms[i] = entry.getKey();
+        result[i] = Arrays.copyOf(entry.getValue().values, entry.getValue().size);
+        i++;
+      }
+      return result;
+    }
+
+    /**
+     * @return ReferenceIndex which has all classes which are added to this builder.
+     */
+    public ReferenceIndex build(){
+      String[] classTerms = new String[classPostings.size()];
+      String[] methodTerms = new String[methodPostings.size()];
+      String[] fieldTerms = new String[fieldPostings.size()];
+      return new ReferenceIndex(fnames.toArray(String[]::new),
+                                classNames.toArray(String[]::new),
+                                summaryOffsets.stream().mapToInt(Integer::intValue).toArray(),
+                                summaryBuf.toByteArray(),
+                                classTerms, toPostings(classPostings, classTerms),
+                                methodTerms, toPostings(methodPostings, methodTerms),
+                                fieldTerms, toPostings(fieldPostings, fieldTerms));
+    }
+
+  }
+
+  /**
+   * Growable int array for postings. Ids are added in ascending order.
+   */
+  private static class IntList{
+
+    private int[] values = new int[4];
+
+    private int size = 0;
+
+    private void add(int value){
+      if(size > 0 && values[size - 1] == value){
+        return;
+      }
+      if(size == values.length){
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
+    }
+
+  }
+
+  private ReferenceIndex(String[] fnames, String[] classNames, int[] summaryOffsets, byte[] summaries,
+                         String[] classTerms, int[][] classPostings, String[] methodTerms, int[][] methodPostings,
+                         String[] fieldTerms, int[][] fieldPostings){
+    this.fnames = fnames;
+    this.classNames = classNames;
+    this.summaryOffsets = summaryOffsets;
+    this.summaries = summaries;
+    this.classTerms = classTerms;
+    this.classPostings = classPostings;
+    this.methodTerms = methodTerms;
+    this.methodPostings = methodPostings;
+    this.fieldTerms = fieldTerms;
+    this.fieldPostings = fieldPostings;
+  }
+
+  private static void writePostings(DataOutputStream out, String[] terms, int[][] postings) throws IOException{
+    out.writeInt(terms.length);
+    for(int i = 0; i < terms.length; i++){
+      out.writeUTF(terms[i]);
+      out.writeInt(postings[i].length);
+      for(int id : postings[i]){
+        out.writeInt(id);
+      }
+    }
+  }
+
+  /**
+   * Write this index to the file.
+   *
+   * @param path Path to the index file.
+   * @throws IOException if the index cannot be written.
+   */
+  public void write(Path path) throws IOException{
+    try(var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))){
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(fnames.length);
+      for(int i = 0; i < fnames.length; i++){
+        out.writeUTF(fnames[i]);
+        out.writeUTF(classNames[i]);
+        out.writeInt(summaryOffsets[i]);
+      }
+      writePostings(out, classTerms, classPostings);
+      writePostings(out, methodTerms, methodPostings);
+      writePostings(out, fieldTerms, fieldPostings);
+      out.writeInt(summaries.length);
+      out.write(summaries);
+    }
+  }
+
+  private static int[][] readPostings(DataInputStream in, String[] terms) throws IOException{
+    int[][] postings = new int[terms.length][];
+    for(int i = 0; i < terms.length; i++){
+      terms[i] = in.readUTF();
+      int[] ids = new int[in.readInt()];
+      for(int j = 0; j < ids.length; j++){
+        ids[j] = in.readInt();
+      }
+      postings[i] = ids;
+    }
+    return postings;
+  }
+
+  /**
+   * Load the index file which is written by Builder.
+   *
+   * @param path Path to the index file.
+   * @return ReferenceIndex
+   * @throws IOException if the index cannot be read, or it is broken.
+   */
+  public static ReferenceIndex load(Path path) throws IOException{
+    try(var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))){
+      if(in.readInt() != MAGIC || in.readInt() != VERSION){
+        throw new IOException("Invalid index file: " + path.toString());
+      }
+
+      int count = in.readInt();
+      String[] fnames = new String[count];
+      String[] classNames = new String[count];
+      int[] summaryOffsets = new int[count];
+      for(int i = 0; i < count; i++){
+        fnames[i] = in.readUTF();
+        classNames[i] = in.readUTF();
+        summaryOffsets[i] = in.readInt();
+      }
+
+      String[] classTerms = new String[in.readInt()];
+      int[][] classPostings = readPostings(in, classTerms);
+      String[] methodTerms = new String[in.readInt()];
+      int[][] methodPostings = readPostings(in, methodTerms);
+      String[] fieldTerms = new String[in.readInt()];
+      int[][] fieldPostings = readPostings(in, fieldTerms);
+
+      byte[] summaries = new byte[in.readInt()];
+      in.readFully(summaries);
+
+      return new ReferenceIndex(fnames, classNames, summaryOffsets, summaries,
+                                classTerms, classPostings, methodTerms, methodPostings,
+                                fieldTerms, fieldPostings);
+    }
+  }
+
+  /**
+   * @return Number of classes in this index.
+   */
+  public int size(){
+    return fnames.length;
+  }
+
+  private ClassSummary summaryOf(int id){
+    try(var in = new DataInputStream(new ByteArrayInputStream(summaries, summaryOffsets[id], summaries.length - summaryOffsets[id]))){
+      return ClassSummary.readFrom(in);
+    }
+    catch(IOException e){
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Find classes which match with filter conditions.
+   * This method is thread-safe, so the index can be shared by queries.
+   * This is same as ClassInfoDumper::shouldProcess of all classes.
+   *
+   * @param filter Filter conditions.
+   * @return Ids of classes in ascending order.
+   */
+  public BitSet find(ClassFilter filter){
+    var hits = new BitSet(fnames.length);
+
+    if(filter.hasTargetFilter()){
+      for(int i = 0; i < classNames.length; i++){
+        if(filter.matchesTarget(classNames[i])){
+          hits.set(i);
+        }
+      }
+    }
+
+    if(filter.hasClassFilter()){
+      for(int i = 0; i < classTerms.length; i++){
+        if(filter.matchesClass(classTerms[i])){
+          Arrays.stream(classPostings[i]).forEach(hits::set);
+        }
+      }
+    }
+
+    if(filter.hasMethodFilter()){
+      for(int i = 0; i < methodTerms.length; i++){
+        if(filter.matchesMethod(methodTerms[i])){
+          Arrays.stream(methodPostings[i]).forEach(hits::set);
+        }
+        else if(filter.mightMatchMethodMember(methodTerms[i])){
+          // Postings have method names only, so owner and descriptor
+          // are checked with the summary.
+          Arrays.stream(methodPostings[i])
+                .filter(id -> !hits.get(id) && summaryOf(id).methodRefs()
+                                                            .stream()
+                                                            .anyMatch(m -> filter.matchesMethod(m.owner().replace('/', '.'), m.name(), m.type())))
+                .forEach(hits::set);
+        }
+      }
+    }
+
+    if(filter.hasFieldFilter()){
+      for(int i = 0; i < fieldTerms.length; i++){
+        if(filter.matchesField(fieldTerms[i])){
+          Arrays.stream(fieldPostings[i]).forEach(hits::set);
+        }
+        else if(filter.mightMatchFieldMember(fieldTerms[i])){
+          // Postings have field names only, so owner and descriptor
+          // are checked with the summary.
+          Arrays.stream(fieldPostings[i])
+                .filter(id -> !hits.get(id) && summaryOf(id).fieldRefs()
+                                                            .stream()
+                                                            .anyMatch(f -> filter.matchesField(f.owner().replace('/', '.'), f.name(), f.type())))
+                .forEach(hits::set);
+        }
+      }
+    }
+
+    return hits;
+  }
+
+  /**
+   * Print classes which match with filter conditions in order of the scan.
+   *
+   * @param option Option which contains filter conditions.
+   * @param out Writer to print.
+   */
+  public void query(Option option, PrintWriter out){
+    find(option.getFilter()).stream()
+                            .forEach(id -> new ClassInfoDumper(summaryOf(id), fnames[id]).printInfo(option, out));
+  }
+
+}
@@ -0,0 +1,446 @@
+package com.yasuenag.cfa;
+
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import java.io.Closeable;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+
+/**
+ * Scan pipeline to process classes from all inputs in parallel.
+ *
+ * The pipeline consists of following stages:
+ * <ol>
+ *   <li>Source: enumerates inputs in a dedicated thread.</li>
+ *   <li>Read: opens and reads each input on its own virtual thread,
+ *       so I/O latency of inputs overlaps with each other.</li>
+ *   <li>Decode and filter: parses classes and checks filter conditions
+ *       as tasks on a work-stealing pool.</li>
+ *   <li>Render: prints matched classes in order of the source.</li>
+ * </ol>
+ * Each input has its own bounded queue which is linked from the queue of
+ * its parent, so readers are blocked when the render stage falls behind.
+ * Bytes which are read but not parsed yet are bounded by --io-budget.
+ */
+public class ScanPipeline implements AutoCloseable{
+
+  /**
+   * Number of in-flight classes per worker thread.
+   * Parsed classes are held until they are rendered, so this bounds
+   * memory usage for inputs which have a lot of classes.
+   */
+  private static final int CLASSES_PER_THREAD = 4;
+
+  /**
+   * Maximum number of inputs which are read concurrently.
+   * Inputs are read in the current thread if it is exceeded.
+   */
+  private static final int MAX_CONCURRENT_INPUTS = 64;
+
+  /**
+   * Step of the render stage.
+   */
+  @FunctionalInterface
+  private static interface RenderStep{
+    public void render() throws Exception;
+  }
+
+  /**
+   * Marker of the end of the source or the input.
+   */
+  private static final RenderStep END_OF_SOURCE = () -> {};
+
+  private final Option option;
+
+  private final PrintWriter out;
+
+  private final ForkJoinPool pool;
+
+  private final int queueCapacity;
+
+  private final BlockingQueue<RenderStep> queue;
+
+  /**
+   * Queue of the input which is read in the current thread.
+   */
+  private final ThreadLocal<BlockingQueue<RenderStep>> currentQueue;
+
+  /**
+   * Permits for inputs which are read on their own virtual thread.
+   */
+  private final Semaphore inputs;
+
+  /**
+   * Budget in KB of bytes which are read but not parsed yet.
+   */
+  private final Semaphore ioBudget;
+
+  private final int ioBudgetKB;
+
+  /**
+   * Constructor of ScanPipeline.
+   *
+   * @param option Option to use in this pipeline.
+   * @param out Writer to print class information.
+   */
+  public ScanPipeline(Option option, PrintWriter out){
+    this.option = option;
+    this.out = out;
+    pool = new ForkJoinPool(option.getParallelism());
+    queueCapacity = option.getParallelism() * CLASSES_PER_THREAD;
+    queue = new ArrayBlockingQueue<>(queueCapacity);
+    currentQueue = ThreadLocal.withInitial(() -> queue);
+    inputs = new Semaphore(MAX_CONCURRENT_INPUTS);
+    ioBudgetKB = option.getIOBudget() * 1024;
+    ioBudget = new Semaphore(ioBudgetKB);
+  }
+
+  public Option getOption(){
+    return option;
+  }
+
+  private void put(RenderStep step){
+    try{
+      currentQueue.get().put(step);
+    }
+    catch(InterruptedException e){
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Acquire the I/O budget for the buffer.
+   * A class which is larger than the budget takes the whole budget.
+   *
+   * @return Number of permits to release after the buffer is parsed.
+   */
+  private int acquireBudget(ByteBuffer buf){
+    int permits = (int)Math.min(ioBudgetKB, (buf.remaining() + 1023L) / 1024);
+    try{
+      ioBudget.acquire(permits);
+    }
+    catch(InterruptedException e){
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+    return permits;
+  }
+
+  private ClassInfoDumper decode(String fname, Callable<ByteBuffer> reader){
+    try{
+      return ClassInfoDumper.parseIfMatches(reader.call(), fname, option);
+    }
+    catch(Exception e){
+      // Broken classes are ignored as same as sequential mode.
+      option.getStats().parseFailed();
+      return null;
+    }
+  }
+
+  private void putRender(ForkJoinTask<ClassInfoDumper> task, Consumer<ClassInfoDumper> listener){
+    put(() -> {
+      ClassInfoDumper dumper = task.join();
+      if(dumper != null){
+        dumper.printInfo(option, out);
+        if(listener != null){
+          listener.accept(dumper);
+        }
+      }
+    });
+  }
+
+  /**
+   * Submit the class to decode and filter.
+   * This method blocks while the render stage is full.
+   *
+   * @param fname File name or archive of class.
+   * @param reader Function to read bytes of the class file.
+   *               It is called in the current thread.
+   */
+  public void submit(String fname, Callable<ByteBuffer> reader){
+    submit(fname, reader, null);
+  }
+
+  /**
+   * Submit the class to decode and filter.
+   * This method blocks while the render stage is full, or the I/O budget
+   * is exhausted.
+   *
+   * @param fname File name or archive of class.
+   * @param reader Function to read bytes of the class file.
+   *               It is called in the current thread.
+   * @param listener Listener which is called with the matched class after
+   *                 it is printed in the render stage. null is allowed.
+   */
+  public void submit(String fname, Callable<ByteBuffer> reader, Consumer<ClassInfoDumper> listener){
+    ByteBuffer buf;
+    try{
+      buf = option.getStats().read(reader);
+    }
+    catch(Exception e){
+      // Unreadable classes are ignored as same as sequential mode.
+      option.getStats().parseFailed();
+      return;
+    }
+
+    int permits = acquireBudget(buf);
+    putRender(pool.submit(() -> {
+                try{
+                  return decode(fname, () -> buf);
+                }
+                finally{
+                  ioBudget.release(permits);
+                }
+              }), listener);
+  }
+
+  /**
+   * Submit the class which is already in memory (e.g. memory-mapped
+   * archive which has been loaded) to decode and filter.
+   * This method blocks while the render stage is full.
+   *
+   * @param fname File name or archive of class.
+   * @param decoder Function to get bytes of the class file (e.g. inflate).
+   *                It is called in worker thread.
+   * @param listener Listener which is called with the matched class after
+   *                 it is printed in the render stage. null is allowed.
+   */
+  public void submitInMemory(String fname, Callable<ByteBuffer> decoder, Consumer<ClassInfoDumper> listener){
+    putRender(pool.submit(() -> decode(fname, () -> option.getStats().read(decoder))), listener);
+  }
+
+  private ClassSummary decodeSummary(String fname, Callable<ByteBuffer> reader){
+    try{
+      return ClassInfoDumper.parse(reader.call(), fname, option).toSummary();
+    }
+    catch(Exception e){
+      option.getStats().parseFailed();
+      return null;
+    }
+  }
+
+  /**
+   * Summarize the class in worker thread regardless of filter conditions.
+   * This method blocks while the I/O budget is exhausted.
+   *
+   * @param fname File name or archive of class.
+   * @param reader Function to read bytes of the class file.
+   *               It is called in the current thread.
+   * @return Task which returns the summary, or null if the class cannot be parsed.
+   */
+  public ForkJoinTask<ClassSummary> summarize(String fname, Callable<ByteBuffer> reader){
+    ByteBuffer buf;
+    try{
+      buf = option.getStats().read(reader);
+    }
+    catch(Exception e){
+      option.getStats().parseFailed();
+      return pool.submit(() -> null);
+    }
+
+    int permits = acquireBudget(buf);
+    return pool.submit(() -> {
+             try{
+               return decodeSummary(fname, () -> buf);
+             }
+             finally{
+               ioBudget.release(permits);
+             }
+           });
+  }
+
+  /**
+   * Summarize the class which is already in memory in worker thread
+   * regardless of filter conditions.
+   *
+   * @param fname File name or archive of class.
+   * @param decoder Function to get bytes of the class file (e.g. inflate).
+   *                It is called in worker thread.
+   * @return Task which returns the summary, or null if the class cannot be parsed.
+   */
+  public ForkJoinTask<ClassSummary> summarizeInMemory(String fname, Callable<ByteBuffer> decoder){
+    return pool.submit(() -> decodeSummary(fname, () -> option.getStats().read(decoder)));
+  }
+
+  /**
+   * Submit the class which already matches with filter conditions.
+   *
+   * @param dumper ClassInfoDumper to render.
+   */
+  public void submitMatched(ClassInfoDumper dumper){
+    put(() -> dumper.printInfo(option, out));
+  }
+
+  /**
+   * Submit the class which is already parsed.
+   *
+   * @param dumper ClassInfoDumper to filter and render.
+   */
+  public void submit(ClassInfoDumper dumper){
+    put(() -> {
+      if(dumper.shouldProcess(option)){
+        dumper.printInfo(option, out);
+      }
+    });
+  }
+
+  /**
+   * Submit the resource to be closed after all of classes which are
+   * submitted before are rendered.
+   *
+   * @param resource Resource to close.
+   */
+  public void submitClose(Closeable resource){
+    put(resource::close);
+  }
+
+  /**
+   * Submit the input to be read on its own virtual thread.
+   * Classes in the input are rendered at this point of the current input.
+   * The input is read in the current thread if too many inputs are
+   * being read.
+   *
+   * @param dumper Dumper of the input.
+   */
+  public void fork(Dumper dumper){
+    // Do not wait for the permit: the input which is rendered next
+    // might be waiting for it.
+    if(!inputs.tryAcquire()){
+      dumper.submitTo(this);
+      return;
+    }
+
+    BlockingQueue<RenderStep> inputQueue = new ArrayBlockingQueue<>(queueCapacity);
+    Throwable[] inputError = new Throwable[1];
+    Thread reader;
+    try{
+      reader = Thread.ofVirtual().name("cfa-reader").start(() -> {
+        currentQueue.set(inputQueue);
+        try{
+          dumper.submitTo(this);
+        }
+        catch(Throwable t){
+          inputError[0] = t;
+        }
+        finally{
+          put(END_OF_SOURCE);
+          inputs.release();
+        }
+      });
+    }
+    catch(Throwable t){
+      inputs.release();
+      throw t;
+    }
+
+    put(() -> {
+      render(inputQueue);
+      reader.join();
+      rethrow(inputError[0]);
+    });
+  }
+
+  /**
+   * Render steps in the queue until the end of the source or the input.
+   */
+  private void render(BlockingQueue<RenderStep> stepQueue) throws Exception{
+    RenderStep step;
+    while(true){
+      step = stepQueue.poll();
+      if(step == null){
+        // Flush results while the render stage waits for readers.
+        out.flush();
+        step = stepQueue.take();
+      }
+      if(step == END_OF_SOURCE){
+        break;
+      }
+      step.render();
+    }
+  }
+
+  private static void rethrow(Throwable t){
+    if(t instanceof RuntimeException e){
+      throw e;
+    }
+    else if(t instanceof Error e){
+      throw e;
+    }
+    else if(t != null){
+      throw new RuntimeException(t);
+    }
+  }
+
+  /**
+   * Process all dumpers through this pipeline.
+   * Results are printed in the current thread.
+   *
+   * @param dumpers Dumpers of inputs.
+   */
+  public void run(Stream<? extends Dumper> dumpers){
+    Throwable[] sourceError = new Throwable[1];
+    Thread source = Thread.ofPlatform().name("cfa-source").start(() -> {
+      try{
+        dumpers.forEachOrdered(this::fork);
+      }
+      catch(Throwable t){
+        sourceError[0] = t;
+      }
+      finally{
+        put(END_OF_SOURCE);
+      }
+    });
+
+    try{
+      render(queue);
+      source.join();
+    }
+    catch(InterruptedException e){
+      Thread.currentThread().interrupt();
+      source.interrupt();
+      throw new RuntimeException(e);
+    }
+    catch(RuntimeException | Error e){
+      source.interrupt();
+      throw e;
+    }
+    catch(Exception e){
+      source.interrupt();
+      throw new RuntimeException(e);
+    }
+
+    rethrow(sourceError[0]);
+  }
+
+  @Override
+  public void close(){
+    pool.close();
+  }
+
+}
@@ -0,0 +1,281 @@
+package com.yasuenag.cfa;
+
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Counters and timers of the scan.
+ * Counters are LongAdder because they are updated from worker threads.
+ * All methods return immediately without calling System::nanoTime
+ * if statistics are disabled.
+ */
+public class ScanStats{
+
+  /**
+   * Phase of processing of a class.
+   */
+  public static enum Phase{
+
+    /**
+     * Reading bytes of the class, including inflation of the archive entry.
+     */
+    READ("read"),
+
+    /**
+     * Scan of raw ConstantPool by ConstantPoolScanner.
+     */
+    PRESCAN("prescan"),
+
+    /**
+     * ClassFile::parse
+     */
+    PARSE("parse"),
+
+    /**
+     * Collecting classes and members from ClassModel.
+     */
+    INITIALIZE("initialize"),
+
+    /**
+     * Evaluation of filter conditions.
+     */
+    FILTER("filter"),
+
+    /**
+     * Printing matched classes.
+     */
+    PRINT("print");
+
+    private final String label;
+
+    private Phase(String label){
+      this.label = label;
+    }
+
+  }
+
+  /**
+   * Instance which does not record anything.
+   */
+  public static final ScanStats DISABLED = new ScanStats(false);
+
+  private final boolean enabled;
+
+  private final long startTime;
+
+  private final LongAdder bytesRead;
+
+  private final LongAdder entriesSeen;
+
+  private final LongAdder classesParsed;
+
+  private final LongAdder classesMatched;
+
+  private final LongAdder parseFailures;
+
+  private final LongAdder duplicateArchives;
+
+  private final LongAdder duplicateClasses;
+
+  /**
+   * Total nanoseconds of each phase in all threads.
+   */
+  private final LongAdder[] phaseNanos;
+
+  private ScanStats(boolean enabled){
+    this.enabled = enabled;
+    startTime = System.nanoTime();
+    bytesRead = new LongAdder();
+    entriesSeen = new LongAdder();
+    classesParsed = new LongAdder();
+    classesMatched = new LongAdder();
+    parseFailures = new LongAdder();
+    duplicateArchives = new LongAdder();
+    duplicateClasses = new LongAdder();
+    phaseNanos = new LongAdder[Phase.values().length];
+    for(int i = 0; i < phaseNanos.length; i++){
+      phaseNanos[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Create ScanStats which records statistics from now.
+   *
+   * @return Enabled ScanStats.
+   */
+  public static ScanStats create(){
+    return new ScanStats(true);
+  }
+
+  public boolean isEnabled(){
+    return enabled;
+  }
+
+  /**
+   * @return Start time of the phase which should be passed to end().
+   */
+  public long start(){
+    return enabled ? System.nanoTime() : 0L;
+  }
+
+  /**
+   * Record the time of the phase.
+   *
+   * @param phase Phase to record.
+   * @param start Return value of start().
+   */
+  public void end(Phase phase, long start){
+    if(enabled){
+      phaseNanos[phase.ordinal()].add(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Read bytes of the class, and record the time and the size of it.
+   *
+   * @param reader Function to read bytes of the class.
+   * @return Return value of the reader.
+   * @throws Exception if the reader throws it.
+   */
+  public ByteBuffer read(Callable<ByteBuffer> reader) throws Exception{
+    if(!enabled){
+      return reader.call();
+    }
+
+    long start = System.nanoTime();
+    ByteBuffer buf = reader.call();
+    endRead(start, buf);
+    return buf;
+  }
+
+  /**
+   * Record the time of READ phase and the size of the class.
+   *
+   * @param start Return value of start().
+   * @param buf Bytes of the class which are read.
+   */
+  public void endRead(long start, ByteBuffer buf){
+    if(enabled){
+      phaseNanos[Phase.READ.ordinal()].add(System.nanoTime() - start);
+      bytesRead.add(buf.remaining());
+    }
+  }
+
+  /**
+   * Record class entries which are found in inputs.
+   *
+   * @param count Number of entries.
+   */
+  public void entriesSeen(int count){
+    if(enabled){
+      entriesSeen.add(count);
+    }
+  }
+
+  public void classParsed(){
+    if(enabled){
+      classesParsed.increment();
+    }
+  }
+
+  public void classMatched(){
+    if(enabled){
+      classesMatched.increment();
+    }
+  }
+
+  public void parseFailed(){
+    if(enabled){
+      parseFailures.increment();
+    }
+  }
+
+  public void archiveDeduplicated(){
+    if(enabled){
+      duplicateArchives.increment();
+    }
+  }
+
+  public void classDeduplicated(){
+    if(enabled){
+      duplicateClasses.increment();
+    }
+  }
+
+  public long getBytesRead(){
+    return bytesRead.sum();
+  }
+
+  public long getEntriesSeen(){
+    return entriesSeen.sum();
+  }
+
+  public long getClassesParsed(){
+    return classesParsed.sum();
+  }
+
+  public long getClassesMatched(){
+    return classesMatched.sum();
+  }
+
+  public long getParseFailures(){
+    return parseFailures.sum();
+  }
+
+  public long getDuplicateArchives(){
+    return duplicateArchives.sum();
+  }
+
+  public long getDuplicateClasses(){
+    return duplicateClasses.sum();
+  }
+
+  public long getPhaseNanos(Phase phase){
+    return phaseNanos[phase.ordinal()].sum();
+  }
+
+  /**
+   * Print the summary of statistics.
+   *
+   * @param out Stream to print.
+   */
+  public void print(PrintStream out){
+    double elapsedSec = (System.nanoTime() - startTime) / 1_000_000_000.0d;
+    out.println("CFA statistics:");
+    out.format("  Elapsed time:    %.3f s\n", elapsedSec);
+    out.format("  Bytes read:      %d\n", getBytesRead());
+    out.format("  Entries seen:    %d\n", getEntriesSeen());
+    out.format("  Classes parsed:  %d\n", getClassesParsed());
+    out.format("  Classes matched: %d\n", getClassesMatched());
+    out.format("  Parse failures:  %d\n", getParseFailures());
+    out.format("  Dup. archives:   %d\n", getDuplicateArchives());
+    out.format("  Dup. classes:    %d\n", getDuplicateClasses());
+    out.format("  Classes/sec:     %.1f\n", (elapsedSec > 0.0d) ? getEntriesSeen() / elapsedSec : 0.0d);
+    out.println("  Time of phases (total of all threads):");
+    for(Phase phase : Phase.values()){
+      out.format("    %-10s %12.3f ms\n", phase.label + ":", getPhaseNanos(phase) / 1_000_000.0d);
+    }
+  }
+
+}
@@ -0,0 +1,102 @@
+package com.yasuenag.cfa;
+
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Table of symbols (class names, member names and descriptors) which
+ * gives an int id to each distinct string.
+ * Lookup of known symbols does not take a lock, so this table can be
+ * shared by worker threads.
+ */
+public class SymbolTable{
+
+  /**
+   * Table which is shared by all of ClassSummary.
+   */
+  public static final SymbolTable SHARED = new SymbolTable();
+
+  private final ConcurrentHashMap<String, Integer> ids;
+
+  /**
+   * Symbols in order of id. The array is replaced when it grows,
+   * and elements are not changed after they are added.
+   */
+  private volatile String[] symbols;
+
+  private int size;
+
+  public SymbolTable(){
+    ids = new ConcurrentHashMap<>();
+    symbols = new String[1024];
+    size = 0;
+  }
+
+  /**
+   * Get the id of the symbol. New id is assigned if the symbol is not
+   * in this table.
+   *
+   * @param symbol Symbol to intern.
+   * @return id of the symbol.
+   */
+  public int intern(String symbol){
+    Integer id = ids.get(symbol);
+    if(id != null){
+      return id;
+    }
+
+    synchronized(this){
+      id = ids.get(symbol);
+      if(id != null){
+        return id;
+      }
+
+      int newId = size;
+      String[] current = symbols;
+      if(newId == current.length){
+        current = Arrays.copyOf(current, newId * 2);
+      }
+      current[newId] = symbol;
+      symbols = current;
+      size = newId + 1;
+      // Publish the id after the symbol is stored.
+      ids.put(symbol, newId);
+      return newId;
+    }
+  }
+
+  /**
+   * @param id id which is returned from intern().
+   * @return Symbol of the id.
+   */
+  public String get(int id){
+    return symbols[id];
+  }
+
+  /**
+   * @return Number of symbols in this table.
+   */
+  public int size(){
+    return ids.size();
+  }
+
+}
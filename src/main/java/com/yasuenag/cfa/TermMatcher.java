@@ -0,0 +1,267 @@
+package com.yasuenag.cfa;
+
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+
+/**
+ * Matcher of filter terms. A term is one of following:
+ * <ul>
+ *   <li>Literal: matches if the string contains it.</li>
+ *   <li>Glob which has * or ?: matches if the whole string matches it.</li>
+ *   <li>Regex which is enclosed in slashes (e.g. /Log(ger|Factory)$/):
+ *       matches if the regex is found in the string.</li>
+ * </ul>
+ * Literals are matched by MultiPatternMatcher, and globs and regexes are
+ * compiled into one Pattern. Regexes which refer their groups (e.g.
+ * backreferences) are compiled separately because groups are renumbered
+ * in the joined pattern. Literals which are required by all of
+ * patterns are matched by another MultiPatternMatcher before the regex
+ * engine runs, so most of strings are rejected without regex.
+ * This class is immutable and thread-safe after construction.
+ */
+public class TermMatcher{
+
+  private static final String REGEX_META = "\\.[]{}()*+?^$|";
+
+  /**
+   * Matcher for literal terms. null if there are no literal terms.
+   */
+  private final MultiPatternMatcher literalMatcher;
+
+  /**
+   * Globs and regexes. Joined pattern is the first one, and regexes which
+   * refer their groups follow it. null if there are no such terms.
+   */
+  private final Pattern[] patterns;
+
+  /**
+   * Matcher for literals which are required by patterns.
+   * null if any of patterns does not have required literal.
+   */
+  private final MultiPatternMatcher requiredMatcher;
+
+  /**
+   * Matchers of patterns which are reused in each thread.
+   */
+  private final ThreadLocal<Matcher[]> patternMatchers;
+
+  /**
+   * @param term Filter term.
+   * @return true if the term is a regex which is enclosed in slashes.
+   */
+  public static boolean isRegex(String term){
+    return term.length() >= 2 && term.startsWith("/") && term.endsWith("/");
+  }
+
+  /**
+   * @param term Filter term.
+   * @return true if the term is a glob.
+   */
+  public static boolean isGlob(String term){
+    return !isRegex(term) && (term.indexOf('*') != -1 || term.indexOf('?') != -1);
+  }
+
+  private static String globToRegex(String glob){
+    var regex = new StringBuilder("^");
+    var literal = new StringBuilder();
+    for(int i = 0; i < glob.length(); i++){
+      char c = glob.charAt(i);
+      if(c == '*' || c == '?'){
+        if(!literal.isEmpty()){
+          regex.append(Pattern.quote(literal.toString()));
+          literal.setLength(0);
+        }
+        regex.append((c == '*') ? ".*" : ".");
+      }
+      else{
+        literal.append(c);
+      }
+    }
+    if(!literal.isEmpty()){
+      regex.append(Pattern.quote(literal.toString()));
+    }
+    return regex.append('$').toString();
+  }
+
+  /**
+   * @return The longest literal between wildcards.
+   */
+  private static String requiredLiteralOfGlob(String glob){
+    String longest = "";
+    for(String part : glob.split("[*?]")){
+      if(part.length() > longest.length()){
+        longest = part;
+      }
+    }
+    return longest;
+  }
+
+  /**
+   * Extract the literal prefix of the regex. This is conservative:
+   * empty string is returned if the regex has alternation, and the last
+   * character is removed if it is followed by a quantifier.
+   *
+   * @return Literal which every match contains.
+   */
+  private static String requiredLiteralOfRegex(String regex){
+    if(regex.indexOf('|') != -1){
+      return "";
+    }
+
+    var literal = new StringBuilder();
+    int i = regex.startsWith("^") ? 1 : 0;
+    while(i < regex.length()){
+      char c = regex.charAt(i);
+      if(c == '\\' && i + 1 < regex.length() && REGEX_META.indexOf(regex.charAt(i + 1)) != -1){
+        c = regex.charAt(++i);
+      }
+      else if(REGEX_META.indexOf(c) != -1){
+        if((c == '*' || c == '?' || c == '{') && !literal.isEmpty()){
+          literal.setLength(literal.length() - 1);
+        }
+        break;
+      }
+      literal.append(c);
+      i++;
+    }
+    return literal.toString();
+  }
+
+  /**
+   * Return whether the regex refers its groups with backreferences or names.
+   * This is conservative, so escaped sequences in \Q...\E are also counted.
+   */
+  private static boolean refersGroup(String regex){
+    for(int i = 0; i < regex.length() - 1; i++){
+      char c = regex.charAt(i);
+      char next = regex.charAt(i + 1);
+      if(c == '\\'){
+        if((next >= '1' && next <= '9') || next == 'k'){
+          return true;
+        }
+        i++;
+      }
+      else if(c == '(' && regex.startsWith("?<", i + 1) &&
+              i + 3 < regex.length() && Character.isLetter(regex.charAt(i + 3))){
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static Pattern compilePattern(String regex) throws IllegalArgumentException{
+    try{
+      return Pattern.compile(regex);
+    }
+    catch(PatternSyntaxException e){
+      throw new IllegalArgumentException("Invalid pattern: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Constructor of TermMatcher.
+   *
+   * @param terms Filter terms.
+   * @throws IllegalArgumentException if any regex is invalid.
+   */
+  public TermMatcher(Collection<String> terms) throws IllegalArgumentException{
+    List<String> literals = new ArrayList<>();
+    List<String> regexes = new ArrayList<>();
+    List<String> separateRegexes = new ArrayList<>();
+    List<String> required = new ArrayList<>();
+    boolean allRequired = true;
+    for(String term : terms){
+      String regex;
+      String requiredLiteral;
+      if(isRegex(term)){
+        regex = term.substring(1, term.length() - 1);
+        requiredLiteral = requiredLiteralOfRegex(regex);
+      }
+      else if(isGlob(term)){
+        regex = globToRegex(term);
+        requiredLiteral = requiredLiteralOfGlob(term);
+      }
+      else{
+        literals.add(term);
+        continue;
+      }
+
+      if(refersGroup(regex)){
+        separateRegexes.add(regex);
+      }
+      else{
+        regexes.add("(?:" + regex + ")");
+      }
+      required.add(requiredLiteral);
+      allRequired &= !requiredLiteral.isEmpty();
+    }
+
+    literalMatcher = literals.isEmpty() ? null : new MultiPatternMatcher(literals);
+    if(regexes.isEmpty() && separateRegexes.isEmpty()){
+      patterns = null;
+      requiredMatcher = null;
+      patternMatchers = null;
+      return;
+    }
+
+    List<Pattern> compiled = new ArrayList<>();
+    if(!regexes.isEmpty()){
+      compiled.add(compilePattern(String.join("|", regexes)));
+    }
+    for(String regex : separateRegexes){
+      compiled.add(compilePattern(regex));
+    }
+    patterns = compiled.toArray(Pattern[]::new);
+    requiredMatcher = allRequired ? new MultiPatternMatcher(required) : null;
+    patternMatchers = ThreadLocal.withInitial(() -> Arrays.stream(patterns)
+                                                          .map(p -> p.matcher(""))
+                                                          .toArray(Matcher[]::new));
+  }
+
+  /**
+   * Return whether the string matches with any of terms.
+   *
+   * @param str String to match.
+   * @return true if the string matches.
+   */
+  public boolean matches(CharSequence str){
+    if(literalMatcher != null && literalMatcher.matches(str)){
+      return true;
+    }
+    if(patterns == null || (requiredMatcher != null && !requiredMatcher.matches(str))){
+      return false;
+    }
+    for(Matcher matcher : patternMatchers.get()){
+      if(matcher.reset(str).find()){
+        return true;
+      }
+    }
+    return false;
+  }
+
+}
@@ -0,0 +1,366 @@
+package com.yasuenag.cfa;
+
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.ZipFile;
+
+
+/**
+ * Watch inputs and print results of classes which are changed.
+ * Matched classes are kept in memory per file (class file or archive),
+ * and only files which are created, modified or deleted are parsed again.
+ * Classes which are added or changed are printed as same as the scan,
+ * and classes which do not match anymore are printed as "Removed".
+ */
+public class Watcher implements AutoCloseable{
+
+  /**
+   * Time to wait for following events after the first one.
+   * Compiler writes many class files at once, so they are processed together.
+   */
+  private static final long SETTLE_MILLIS = 100;
+
+  private final Option option;
+
+  private final PrintWriter out;
+
+  private final WatchService watchService;
+
+  /**
+   * Watched directory of each WatchKey.
+   */
+  private final Map<WatchKey, Path> watchedDirs;
+
+  /**
+   * Directories which are scanned recursively.
+   */
+  private final Set<Path> scannedDirs;
+
+  /**
+   * Files which are specified as inputs. Other files in their parent
+   * directories are not watched.
+   */
+  private final Set<Path> inputFiles;
+
+  /**
+   * Matched classes in each file. Key of inner map is "file name:class name".
+   */
+  private final Map<Path, Map<String, ClassSummary>> results;
+
+  /**
+   * Constructor of Watcher.
+   *
+   * @param option Option which contains inputs and filter conditions.
+   * @param out Writer to print results.
+   * @throws IOException if WatchService cannot be created.
+   */
+  public Watcher(Option option, PrintWriter out) throws IOException{
+    this.option = option;
+    this.out = out;
+    watchService = FileSystems.getDefault().newWatchService();
+    watchedDirs = new HashMap<>();
+    scannedDirs = new HashSet<>();
+    inputFiles = new HashSet<>();
+    results = new HashMap<>();
+  }
+
+  private void register(Path dir) throws IOException{
+    WatchKey key = dir.register(watchService,
+                                StandardWatchEventKinds.ENTRY_CREATE,
+                                StandardWatchEventKinds.ENTRY_MODIFY,
+                                StandardWatchEventKinds.ENTRY_DELETE);
+    // Keep the path which is registered at first if the directory
+    // is registered again.
+    watchedDirs.putIfAbsent(key, dir);
+  }
+
+  /**
+   * Register the directory and its subdirectories, and scan files in them.
+   */
+  private void registerAll(Path dir) throws IOException{
+    try(Stream<Path> paths = Files.walk(dir)){
+      for(Path p : paths.sorted().toList()){
+        if(Files.isDirectory(p)){
+          register(p);
+          scannedDirs.add(p);
+        }
+        else if(isTarget(p)){
+          update(p);
+        }
+      }
+    }
+  }
+
+  private static boolean isTarget(Path path){
+    String name = path.toString();
+    return name.endsWith(".class") || name.endsWith(".jmod") || JarClassInfoDumper.isArchiveName(name);
+  }
+
+  private static String keyOf(ClassInfoDumper dumper){
+    return dumper.getFileName() + ":" + dumper.getClassName();
+  }
+
+  /**
+   * Parse the file, and collect classes which match with filter conditions.
+   *
+   * @return Matched classes, or null if the file cannot be read or parsed.
+   *         The file might be written now, so it should be parsed again at
+   *         the next event.
+   */
+  private Map<String, ClassInfoDumper> collect(Path path){
+    var matched = new LinkedHashMap<String, ClassInfoDumper>();
+    if(!Files.isRegularFile(path)){
+      return matched;
+    }
+
+    try{
+      if(path.toString().endsWith(".class")){
+        ClassInfoDumper dumper = ClassInfoDumper.parseIfMatches(Files.readAllBytes(path), path.toString(), option);
+        if(dumper != null){
+          matched.put(keyOf(dumper), dumper);
+        }
+      }
+      else{
+        // Archive which is written now does not have the central directory
+        // yet. Check it here because dumpers do not report the failure.
+        new ZipFile(path.toFile()).close();
+        Dumper dumper = (new DumperChooser()).apply(path);
+        if(dumper != null){
+          dumper.forEachClass(option, d -> {
+            if(d.shouldProcess(option)){
+              matched.put(keyOf(d), d);
+            }
+          });
+        }
+      }
+    }
+    catch(Exception e){
+      return null;
+    }
+    return matched;
+  }
+
+  /**
+   * Parse the file again, and print classes which are changed.
+   *
+   * @param path File which is created, modified or deleted.
+   */
+  private void update(Path path){
+    Map<String, ClassSummary> previous = results.getOrDefault(path, Map.of());
+    Map<String, ClassInfoDumper> current = collect(path);
+    if(current == null){
+      // Keep previous results until the file can be read.
+      return;
+    }
+
+    var summaries = new LinkedHashMap<String, ClassSummary>();
+    current.forEach((key, dumper) -> {
+      ClassSummary summary = dumper.toSummary();
+      summaries.put(key, summary);
+      if(!summary.equals(previous.get(key))){
+        dumper.printInfo(option, out);
+      }
+    });
+
+    previous.forEach((key, summary) -> {
+      if(!summaries.containsKey(key)){
+        String file = key.substring(0, key.lastIndexOf(':'));
+        if(option.getFormat() == Option.Format.NDJSON){
+          out.write('{');
+          JsonWriter.writeName(out, "removed", true);
+          JsonWriter.writeString(out, summary.className());
+          JsonWriter.writeName(out, "file", false);
+          JsonWriter.writeString(out, file);
+          out.write("}\n");
+        }
+        else{
+          out.println("Removed: " + summary.className());
+          out.println("File: " + file);
+          out.println();
+        }
+      }
+    });
+
+    if(summaries.isEmpty()){
+      results.remove(path);
+    }
+    else{
+      results.put(path, summaries);
+    }
+  }
+
+  /**
+   * Scan all inputs, and print all of matched classes.
+   *
+   * @throws IOException if inputs cannot be watched.
+   */
+  public void scan() throws IOException{
+    for(Path path : (Iterable<Path>)option.getInputs()::iterator){
+      if(JrtDumper.isJrtPath(path)){
+        // Runtime image is not changed while CFA is running.
+        JrtDumper.ofJrtPath(path).dumpInfo(option, out);
+      }
+      else if(Files.isDirectory(path)){
+        registerAll(path);
+      }
+      else{
+        inputFiles.add(path);
+        register(path.toAbsolutePath().getParent());
+        update(path);
+      }
+    }
+    out.flush();
+  }
+
+  /**
+   * Resolve the changed file from the event.
+   *
+   * @return Path of the file in the same form as inputs, or null if it should be ignored.
+   */
+  private Path resolve(Path dir, WatchEvent<?> event){
+    Path changed = dir.resolve((Path)event.context());
+
+    // Input file is registered with the path in the arguments.
+    Path absolute = changed.toAbsolutePath();
+    for(Path input : inputFiles){
+      if(input.toAbsolutePath().equals(absolute)){
+        return input;
+      }
+    }
+
+    if(!scannedDirs.contains(dir)){
+      // Other files in the parent directory of input file
+      return null;
+    }
+    else if(isTarget(changed)){
+      return changed;
+    }
+    else if(event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(changed)){
+      return changed;
+    }
+    else if(event.kind() == StandardWatchEventKinds.ENTRY_DELETE &&
+            results.keySet().stream().anyMatch(p -> p.startsWith(changed))){
+      // Directory which has matched classes is deleted.
+      return changed;
+    }
+    return null;
+  }
+
+  private void rescan() throws IOException{
+    var files = new LinkedHashSet<Path>(results.keySet());
+    files.addAll(inputFiles);
+    for(Path dir : Set.copyOf(scannedDirs)){
+      try(Stream<Path> paths = Files.list(dir)){
+        paths.filter(Files::isRegularFile)
+             .filter(Watcher::isTarget)
+             .forEach(files::add);
+      }
+      catch(IOException e){
+        // The directory might be removed.
+      }
+    }
+    files.forEach(this::update);
+  }
+
+  /**
+   * Wait for changes of inputs, and print results of changed classes
+   * until this watcher is closed.
+   */
+  public void watch() throws IOException, InterruptedException{
+    try{
+      while(true){
+        WatchKey key = watchService.take();
+        var changed = new LinkedHashSet<Path>();
+        boolean overflow = false;
+
+        while(key != null){
+          Path dir = watchedDirs.get(key);
+          for(WatchEvent<?> event : key.pollEvents()){
+            if(event.kind() == StandardWatchEventKinds.OVERFLOW){
+              overflow = true;
+            }
+            else if(dir != null){
+              Path path = resolve(dir, event);
+              if(path != null){
+                changed.add(path);
+              }
+            }
+          }
+          if(!key.reset()){
+            // The directory is deleted.
+            watchedDirs.remove(key);
+            scannedDirs.remove(dir);
+          }
+          key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+
+        if(overflow){
+          rescan();
+        }
+        for(Path path : changed){
+          if(Files.isDirectory(path)){
+            registerAll(path);
+          }
+          else if(results.containsKey(path) || Files.isRegularFile(path)){
+            update(path);
+          }
+          else{
+            // Files in the deleted directory
+            for(Path p : Set.copyOf(results.keySet())){
+              if(p.startsWith(path)){
+                update(p);
+              }
+            }
+          }
+        }
+        out.flush();
+      }
+    }
+    catch(ClosedWatchServiceException e){
+      // close() was called.
+    }
+  }
+
+  /**
+   * Stop watching.
+   */
+  @Override
+  public void close() throws IOException{
+    watchService.close();
+  }
+
+}
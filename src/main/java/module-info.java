@@ -19,6 +19,8 @@
 
 @SuppressWarnings("module")
 module cfa{
+    requires jdk.jfr;
+
     /* For testcases */
     exports com.yasuenag.cfa to test.cfa;
     opens com.yasuenag.cfa to test.cfa;
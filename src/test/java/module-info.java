@@ -19,6 +19,7 @@
 module test.cfa{
   requires cfa;
   requires java.compiler;
+  requires jdk.jfr;
   requires transitive org.junit.jupiter.api;
 
   exports test.com.yasuenag.cfa;
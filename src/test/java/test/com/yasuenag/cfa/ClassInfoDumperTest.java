@@ -18,6 +18,8 @@
  */
 package test.com.yasuenag.cfa;
 
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.lang.classfile.constantpool.FieldRefEntry;
 import java.lang.classfile.constantpool.MemberRefEntry;
 import java.nio.file.Files;
@@ -28,6 +30,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import com.yasuenag.cfa.ClassInfoDumper;
+import com.yasuenag.cfa.JsonWriter;
 import com.yasuenag.cfa.Option;
 
 
@@ -200,4 +203,119 @@ public class ClassInfoDumperTest extends DumperTestBase{
     Assertions.assertFalse(info.shouldProcess(opt), "FieldHolder should not be processed.");
   }
 
+  @Test
+  public void testPatternFilter() throws Exception{
+    var subClass = new ClassInfoDumper(CLASSES_PATH.resolve("SubClass.class"));
+    var fieldHolder = new ClassInfoDumper(CLASSES_PATH.resolve("FieldHolder.class"));
+
+    var opt = new Option(new String[]{"-c", "java.io.*Exception"});
+    Assertions.assertTrue(subClass.shouldProcess(opt));
+    Assertions.assertFalse(fieldHolder.shouldProcess(opt));
+
+    // Glob matches the whole class name.
+    opt = new Option(new String[]{"-c", "IO*Exception"});
+    Assertions.assertFalse(subClass.shouldProcess(opt));
+
+    opt = new Option(new String[]{"-c", "/\\.IOExcep/"});
+    Assertions.assertTrue(subClass.shouldProcess(opt));
+    Assertions.assertFalse(fieldHolder.shouldProcess(opt));
+
+    // Regex which has . is not a member query.
+    opt = new Option(new String[]{"-m", "/^cl.se$/"});
+    Assertions.assertTrue(subClass.shouldProcess(opt));
+    Assertions.assertFalse(fieldHolder.shouldProcess(opt));
+
+    opt = new Option(new String[]{"-t", "Sub*"});
+    Assertions.assertTrue(subClass.shouldProcess(opt));
+    Assertions.assertFalse(fieldHolder.shouldProcess(opt));
+  }
+
+  @Test
+  public void testMethodMemberFilter() throws Exception{
+    var subClass = new ClassInfoDumper(CLASSES_PATH.resolve("SubClass.class"));
+    var caller = new ClassInfoDumper(CLASSES_PATH.resolve("InterfaceMethodCaller.class"));
+
+    // SubClass calls SubClass.close()V, and InterfaceMethodCaller calls java.io.Closeable.close()V
+    var opt = new Option(new String[]{"-m", "java/io/Closeable.close:()V"});
+    Assertions.assertFalse(subClass.shouldProcess(opt));
+    Assertions.assertTrue(caller.shouldProcess(opt));
+
+    opt = new Option(new String[]{"-m", "java.io.Closeable.close:()I"});
+    Assertions.assertFalse(caller.shouldProcess(opt));
+
+    // Glob in the owner
+    opt = new Option(new String[]{"-m", "java.io.*.close"});
+    Assertions.assertFalse(subClass.shouldProcess(opt));
+    Assertions.assertTrue(caller.shouldProcess(opt));
+
+    opt = new Option(new String[]{"-m", "*.close"});
+    Assertions.assertTrue(subClass.shouldProcess(opt));
+    Assertions.assertTrue(caller.shouldProcess(opt));
+
+    opt = new Option(new String[]{"-m", "*.clos"});
+    Assertions.assertFalse(subClass.shouldProcess(opt), "Member query should not match a part of the name.");
+
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new Option(new String[]{"-m", "Foo.:()V"}));
+  }
+
+  @Test
+  public void testFieldFilter() throws Exception{
+    var accessor = new ClassInfoDumper(CLASSES_PATH.resolve("FieldAccessor.class"));
+    var holder = new ClassInfoDumper(CLASSES_PATH.resolve("FieldHolder.class"));
+
+    var opt = new Option(new String[]{"-f", "testField"});
+    Assertions.assertTrue(accessor.shouldProcess(opt));
+    Assertions.assertFalse(holder.shouldProcess(opt));
+
+    opt = new Option(new String[]{"-f", "FieldHolder.testField:Ljava/lang/String;"});
+    Assertions.assertTrue(accessor.shouldProcess(opt));
+
+    opt = new Option(new String[]{"-f", "Other.testField"});
+    Assertions.assertFalse(accessor.shouldProcess(opt));
+  }
+
+  private static String toJsonString(String str){
+    var buf = new StringWriter();
+    try(var out = new PrintWriter(buf)){
+      JsonWriter.writeString(out, str);
+    }
+    return buf.toString();
+  }
+
+  @Test
+  public void testNdjson() throws Exception{
+    var buf = new StringWriter();
+    try(var out = new PrintWriter(buf)){
+      var opt = new Option(new String[]{"--format", "ndjson"});
+      new ClassInfoDumper(CLASSES_PATH.resolve("FieldHolder.class")).printInfo(opt, out);
+      new ClassInfoDumper(CLASSES_PATH.resolve("FieldAccessor.class")).printInfo(opt, out);
+
+      opt = new Option(new String[]{"--format", "ndjson", "-s"});
+      new ClassInfoDumper(CLASSES_PATH.resolve("FieldHolder.class")).printInfo(opt, out);
+    }
+
+    var lines = buf.toString().split("\n", -1);
+    Assertions.assertEquals(4, lines.length);
+    Assertions.assertEquals("", lines[3]);
+
+    String file = toJsonString(CLASSES_PATH.resolve("FieldHolder.class").toString());
+    Assertions.assertTrue(lines[0].startsWith("{\"name\":\"FieldHolder\",\"file\":" + file +
+                                              ",\"superClass\":\"java.lang.Object\",\"interfaces\":[],\"classVersion\":{\"major\":"), lines[0]);
+    Assertions.assertTrue(lines[0].endsWith(",\"fieldRefs\":[],\"methodRefs\":[{\"owner\":\"java.lang.Object\",\"name\":\"<init>\",\"type\":\"()V\"}]}"), lines[0]);
+    Assertions.assertTrue(lines[1].contains("\"fieldRefs\":[{\"owner\":\"FieldHolder\",\"name\":\"testField\",\"type\":\"Ljava/lang/String;\"}]"), lines[1]);
+    Assertions.assertEquals("{\"name\":\"FieldHolder\",\"file\":" + file + "}", lines[2]);
+  }
+
+  @Test
+  public void testJsonEscape(){
+    Assertions.assertEquals("\"a\\\"b\\\\c\\n\\u0001/\"", toJsonString("a\"b\\c\n\u0001/"));
+    Assertions.assertEquals("null", toJsonString(null));
+
+    var buf = new StringWriter();
+    try(var out = new PrintWriter(buf)){
+      JsonWriter.writeClassName(out, "java/lang/String");
+    }
+    Assertions.assertEquals("\"java.lang.String\"", buf.toString());
+  }
+
 }
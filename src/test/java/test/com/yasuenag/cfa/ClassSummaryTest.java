@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ */
+package test.com.yasuenag.cfa;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.yasuenag.cfa.ClassInfoDumper;
+import com.yasuenag.cfa.ClassSummary;
+import com.yasuenag.cfa.Option;
+
+
+@SuppressWarnings("missing-explicit-ctor")
+public class ClassSummaryTest extends DumperTestBase{
+
+  @Test
+  public void testAccessors(){
+    var field = new ClassSummary.MemberRef(false, "FieldHolder", "testField", "Ljava/lang/String;");
+    var method = new ClassSummary.MemberRef(false, "java/lang/Object", "<init>", "()V");
+    var interfaceMethod = new ClassSummary.MemberRef(true, "java/io/Closeable", "close", "()V");
+    var summary = new ClassSummary("Foo", null, List.of("java.io.Closeable"),
+                                   List.of(field), List.of(method, interfaceMethod), 65, 0xffff);
+
+    Assertions.assertEquals("Foo", summary.className());
+    Assertions.assertNull(summary.superClass());
+    Assertions.assertEquals(List.of("java.io.Closeable"), summary.interfaces());
+    Assertions.assertEquals(List.of(field), summary.fieldRefs());
+    Assertions.assertEquals(List.of(method, interfaceMethod), summary.methodRefs());
+    Assertions.assertEquals(65, summary.majorVersion());
+    Assertions.assertEquals(0xffff, summary.minorVersion());
+
+    var same = new ClassSummary(new String("Foo"), null, List.of("java.io.Closeable"),
+                                List.of(field), List.of(method, interfaceMethod), 65, 0xffff);
+    Assertions.assertEquals(summary, same);
+    Assertions.assertEquals(summary.hashCode(), same.hashCode());
+
+    var other = new ClassSummary("Foo", null, List.of("java.io.Closeable"),
+                                 List.of(field), List.of(method), 65, 0xffff);
+    Assertions.assertNotEquals(summary, other);
+  }
+
+  @Test
+  public void testSerialize() throws Exception{
+    var summary = new ClassInfoDumper(CLASSES_PATH.resolve("InterfaceMethodCaller.class")).toSummary();
+
+    var buf = new ByteArrayOutputStream();
+    try(var out = new DataOutputStream(buf)){
+      summary.writeTo(out);
+    }
+    try(var in = new DataInputStream(new ByteArrayInputStream(buf.toByteArray()))){
+      var restored = ClassSummary.readFrom(in);
+      Assertions.assertEquals(summary, restored);
+      Assertions.assertTrue(restored.methodRefs().stream().anyMatch(m -> m.isInterface() && m.name().equals("close")));
+    }
+  }
+
+  @Test
+  public void testMatches() throws Exception{
+    var filters = List.of(new String[]{"-t", "Holder"},
+                          new String[]{"-c", "IOException"},
+                          new String[]{"-c", "java.lang.String"},
+                          new String[]{"-c", "java.io.*"},
+                          new String[]{"-m", "close"},
+                          new String[]{"-m", "java/io/Closeable.close:()V"},
+                          new String[]{"-f", "testField"},
+                          new String[]{"-f", "FieldHolder.testField:I"});
+    for(var name : List.of("FieldHolder", "MethodHolder", "FieldAccessor", "MethodCaller", "InterfaceMethodCaller", "InterfaceImplementer", "SubClass")){
+      var dumper = new ClassInfoDumper(CLASSES_PATH.resolve(name + ".class"));
+      var summary = dumper.toSummary();
+      for(var args : filters){
+        var option = new Option(args);
+        Assertions.assertEquals(dumper.shouldProcess(option), summary.matches(option.getFilter()), name + " with " + String.join(" ", args));
+      }
+    }
+  }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ */
+package test.com.yasuenag.cfa;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.yasuenag.cfa.ClassInfoDumper;
+import com.yasuenag.cfa.ClassSummary;
+import com.yasuenag.cfa.ColumnarExport;
+import com.yasuenag.cfa.JarClassInfoDumper;
+import com.yasuenag.cfa.Option;
+
+
+@SuppressWarnings("missing-explicit-ctor")
+public class ColumnarExportTest extends DumperTestBase{
+
+  private static final Path EXPORT_PATH = GENCODE_PATH.resolve("columnar-export-test.bin");
+
+  private static final List<ClassInfoDumper> classes = new ArrayList<>();
+
+  @BeforeAll
+  public static void export() throws Exception{
+    var option = new Option(new String[]{});
+    var builder = new ColumnarExport.Builder();
+    (new JarClassInfoDumper(TEST_JAR_PATH)).forEachClass(option, d -> {
+      classes.add(d);
+      builder.add(d);
+    });
+    builder.write(EXPORT_PATH);
+  }
+
+  private static List<String> strings(ColumnarExport export, int[] ids){
+    return Arrays.stream(ids).mapToObj(export::string).toList();
+  }
+
+  @Test
+  public void testClasses() throws Exception{
+    try(var export = ColumnarExport.open(EXPORT_PATH)){
+      Assertions.assertEquals(classes.size(), export.classCount());
+
+      for(int i = 0; i < classes.size(); i++){
+        ClassSummary summary = classes.get(i).toSummary();
+        Assertions.assertEquals(summary.className(), export.string(export.classNameId(i)));
+        Assertions.assertEquals(TEST_JAR_PATH.toString(), export.string(export.fileId(i)));
+        if(summary.superClass() == null){
+          Assertions.assertEquals(-1, export.superClassId(i));
+        }
+        else{
+          Assertions.assertEquals(summary.superClass(), export.string(export.superClassId(i)));
+        }
+        Assertions.assertEquals(summary.majorVersion(), export.majorVersion(i));
+        Assertions.assertEquals(summary.minorVersion(), export.minorVersion(i));
+        Assertions.assertEquals(summary.interfaces(), strings(export, export.interfaceIds(i)));
+      }
+    }
+  }
+
+  @Test
+  public void testRefs() throws Exception{
+    try(var export = ColumnarExport.open(EXPORT_PATH)){
+      for(int i = 0; i < classes.size(); i++){
+        ClassSummary summary = classes.get(i).toSummary();
+        var expected = new ArrayList<String>();
+        summary.fieldRefs().forEach(f -> expected.add("F " + f.owner().replace('/', '.') + " " + f.name() + " " + f.type()));
+        summary.methodRefs().forEach(m -> expected.add((m.isInterface() ? "I " : "M ") + m.owner().replace('/', '.') + " " + m.name() + " " + m.type()));
+
+        var actual = new ArrayList<String>();
+        for(int ref : export.refIds(i)){
+          String kind = switch(export.refKind(ref)){
+            case ColumnarExport.KIND_FIELD -> "F ";
+            case ColumnarExport.KIND_METHOD -> "M ";
+            default -> "I ";
+          };
+          actual.add(kind + export.string(export.refOwnerId(ref)) + " " +
+                     export.string(export.refNameId(ref)) + " " + export.string(export.refTypeId(ref)));
+        }
+        Assertions.assertEquals(expected, actual);
+      }
+
+      // Member refs are shared by classes.
+      int edges = 0;
+      for(int i = 0; i < export.classCount(); i++){
+        edges += export.refIds(i).length;
+      }
+      Assertions.assertTrue(export.refCount() < edges);
+    }
+  }
+
+  @Test
+  public void testInvalidFile() throws Exception{
+    Path invalid = GENCODE_PATH.resolve("columnar-export-invalid.bin");
+    Files.write(invalid, new byte[]{1, 2, 3, 4});
+    Assertions.assertThrows(IOException.class, () -> ColumnarExport.open(invalid));
+  }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ */
+package test.com.yasuenag.cfa;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.yasuenag.cfa.ClassInfoDumper;
+import com.yasuenag.cfa.ConstantPoolScanner;
+import com.yasuenag.cfa.Option;
+
+
+@SuppressWarnings("missing-explicit-ctor")
+public class ConstantPoolScannerTest extends DumperTestBase{
+
+  private static final List<String> CLASSES = List.of("FieldHolder", "MethodHolder", "FieldAccessor", "MethodCaller", "InterfaceMethodCaller", "InterfaceImplementer", "SubClass");
+
+  private void assertSameResult(String... args) throws Exception{
+    var opt = new Option(args);
+    for(var name : CLASSES){
+      byte[] bytes = Files.readAllBytes(CLASSES_PATH.resolve(name + ".class"));
+      boolean expected = new ClassInfoDumper(bytes, name).shouldProcess(opt);
+      boolean actual = ConstantPoolScanner.mightMatch(ByteBuffer.wrap(bytes), opt.getFilter());
+      Assertions.assertEquals(expected, actual, name + " with " + String.join(" ", args));
+    }
+  }
+
+  @Test
+  public void testTargetFilter() throws Exception{
+    assertSameResult("-t", "FieldHolder");
+    assertSameResult("-t", "Caller,Sub");
+  }
+
+  @Test
+  public void testClassFilter() throws Exception{
+    assertSameResult("-c", "IOException");
+    assertSameResult("-c", "java.io.Closeable");
+    assertSameResult("-c", "java.lang.String");
+    assertSameResult("-c", "MethodHolder,FieldHolder");
+  }
+
+  @Test
+  public void testPatternFilter() throws Exception{
+    assertSameResult("-t", "*Holder");
+    assertSameResult("-c", "java.io.*");
+    assertSameResult("-c", "/^java\\.io\\.(IO|Close)/");
+    assertSameResult("-m", "clo?e");
+    assertSameResult("-m", "/^test/");
+    assertSameResult("-f", "test*");
+  }
+
+  @Test
+  public void testMethodFilter() throws Exception{
+    assertSameResult("-m", "close");
+    assertSameResult("-m", "testMethod,<init>");
+    assertSameResult("-m", "java/io/Closeable.close:()V");
+    assertSameResult("-m", "*.close,MethodHolder.*");
+    assertSameResult("-m", "java.io.*.close");
+    assertSameResult("-m", "Method*.test*:()I");
+  }
+
+  @Test
+  public void testFieldFilter() throws Exception{
+    assertSameResult("-f", "testField");
+    assertSameResult("-f", "FieldHolder.testField:Ljava/lang/String;");
+    assertSameResult("-f", "FieldHolder.testField:I");
+  }
+
+  @Test
+  public void testNoFilter() throws Exception{
+    assertSameResult();
+  }
+
+  @Test
+  public void testMalformedClass() throws Exception{
+    var opt = new Option(new String[]{"-t", "Foo"});
+    Assertions.assertTrue(ConstantPoolScanner.mightMatch(ByteBuffer.wrap(new byte[]{(byte)0xCA, (byte)0xFE}), opt.getFilter()));
+  }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ */
+package test.com.yasuenag.cfa;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.yasuenag.cfa.DirectoryDumper;
+import com.yasuenag.cfa.Option;
+import com.yasuenag.cfa.ScanPipeline;
+
+
+@SuppressWarnings("missing-explicit-ctor")
+public class DedupCacheTest extends DumperTestBase{
+
+  private static final Path DEDUP_PATH = GENCODE_PATH.resolve("dedup-test");
+
+  /**
+   * Create a directory which has test.jar twice and class files twice.
+   */
+  private static Path prepare() throws Exception{
+    Files.createDirectories(DEDUP_PATH.resolve("a"));
+    Files.createDirectories(DEDUP_PATH.resolve("b"));
+    for(var dir : List.of("a", "b")){
+      Files.copy(TEST_JAR_PATH, DEDUP_PATH.resolve(dir).resolve("test.jar"), StandardCopyOption.REPLACE_EXISTING);
+      Files.copy(CLASSES_PATH.resolve("SubClass.class"), DEDUP_PATH.resolve(dir).resolve("SubClass.class"), StandardCopyOption.REPLACE_EXISTING);
+    }
+    return DEDUP_PATH;
+  }
+
+  private static String scan(Option option, Path dir){
+    var buf = new StringWriter();
+    try(var out = new PrintWriter(buf)){
+      if(option.getParallelism() > 1){
+        try(var pipeline = new ScanPipeline(option, out)){
+          pipeline.run(Stream.of(new DirectoryDumper(dir)));
+        }
+      }
+      else{
+        (new DirectoryDumper(dir)).dumpInfo(option, out);
+      }
+    }
+    return buf.toString();
+  }
+
+  private static void assertSameResult(String... args) throws Exception{
+    Path dir = prepare();
+    String expected = scan(new Option(args), dir);
+
+    String[] dedupArgs = new String[args.length + 2];
+    System.arraycopy(args, 0, dedupArgs, 0, args.length);
+    dedupArgs[args.length] = "--dedup";
+    dedupArgs[args.length + 1] = "--stats";
+    var option = new Option(dedupArgs);
+    String actual = scan(option, dir);
+
+    Assertions.assertFalse(expected.isEmpty());
+    Assertions.assertEquals(expected, actual);
+    if(option.getParallelism() == 1){
+      // Archives and classes which are scanned concurrently in the pipeline
+      // might not be deduplicated.
+      Assertions.assertEquals(1, option.getStats().getDuplicateArchives());
+      // SubClass.class is also in test.jar.
+      Assertions.assertTrue(option.getStats().getDuplicateClasses() >= 1);
+    }
+  }
+
+  @Test
+  public void testDedup() throws Exception{
+    assertSameResult("-t", "SubClass,FieldHolder");
+  }
+
+  @Test
+  public void testDedupSecondCopy() throws Exception{
+    // The second copy should be deduplicated although the first one
+    // does not have its digest.
+    Path dir = GENCODE_PATH.resolve("dedup-second-copy-test");
+    for(var sub : List.of("a", "b")){
+      Files.createDirectories(dir.resolve(sub));
+      Files.copy(CLASSES_PATH.resolve("SubClass.class"), dir.resolve(sub).resolve("SubClass.class"), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    var option = new Option(new String[]{"-t", "SubClass", "--dedup", "--stats"});
+    String actual = scan(option, dir);
+    Assertions.assertEquals(scan(new Option(new String[]{"-t", "SubClass"}), dir), actual);
+    Assertions.assertEquals(1, option.getStats().getDuplicateClasses());
+  }
+
+  @Test
+  public void testDedupNoMatch() throws Exception{
+    // Classes which do not match are also deduplicated.
+    assertSameResult("-c", "java.io.IOException");
+  }
+
+  @Test
+  public void testDedupMmap() throws Exception{
+    assertSameResult("-t", "SubClass,FieldHolder", "--mmap");
+  }
+
+  @Test
+  public void testDedupPipeline() throws Exception{
+    assertSameResult("-t", "SubClass,FieldHolder", "-j", "4");
+  }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ */
+package test.com.yasuenag.cfa;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.yasuenag.cfa.ClassInfoDumper;
+import com.yasuenag.cfa.ClassSummary;
+import com.yasuenag.cfa.DependencyGraph;
+import com.yasuenag.cfa.DirectoryDumper;
+import com.yasuenag.cfa.Option;
+
+
+@SuppressWarnings("missing-explicit-ctor")
+public class DependencyGraphTest extends DumperTestBase{
+
+  private static DependencyGraph buildGraph(){
+    var builder = new DependencyGraph.Builder();
+    (new DirectoryDumper(CLASSES_PATH)).forEachClass(new Option(new String[]{}), builder::add);
+    return builder.build();
+  }
+
+  private static List<String> query(DependencyGraph graph, String query, int parallelism){
+    var buf = new StringWriter();
+    try(var out = new PrintWriter(buf)){
+      graph.query(DependencyGraph.Query.parse(query), parallelism, out);
+    }
+    return buf.toString().lines().toList();
+  }
+
+  private static Set<String> querySet(DependencyGraph graph, String query){
+    return query(graph, query, 1).stream().collect(Collectors.toSet());
+  }
+
+  @Test
+  public void testReaching(){
+    var graph = buildGraph();
+    Assertions.assertEquals(Set.of("InterfaceImplementer", "InterfaceMethodCaller", "SubClass"),
+                            querySet(graph, "reaching=java.io.Closeable"));
+  }
+
+  @Test
+  public void testReachable(){
+    var graph = buildGraph();
+    Set<String> result = querySet(graph, "reachable=SubClass");
+    Assertions.assertTrue(result.containsAll(Set.of("InterfaceImplementer", "java.io.Closeable", "java.io.IOException")), result.toString());
+    Assertions.assertFalse(result.contains("SubClass"));
+    Assertions.assertFalse(result.contains("FieldHolder"));
+  }
+
+  @Test
+  public void testUnreachable(){
+    var graph = buildGraph();
+    Assertions.assertEquals(Set.of("FieldHolder", "FieldAccessor", "InterfaceMethodCaller", "InterfaceImplementer", "SubClass"),
+                            querySet(graph, "unreachable=MethodCaller"));
+  }
+
+  @Test
+  public void testPath(){
+    var graph = buildGraph();
+    Assertions.assertEquals(List.of("SubClass", "InterfaceImplementer", "java.io.Closeable"),
+                            query(graph, "path=SubClass,java.io.Closeable", 1));
+    Assertions.assertEquals(List.of(), query(graph, "path=java.io.Closeable,SubClass", 1));
+  }
+
+  @Test
+  public void testParallelSearch(){
+    // Binary tree: Node<i> extends Node<(i - 1) / 2>
+    var builder = new DependencyGraph.Builder();
+    for(int i = 0; i < 1000; i++){
+      String superClass = (i == 0) ? null : "Node" + ((i - 1) / 2);
+      builder.add(new ClassInfoDumper(new ClassSummary("Node" + i, superClass, List.of(), List.of(), List.of(), 65, 0), "Node" + i + ".class"));
+    }
+    var graph = builder.build();
+    Assertions.assertEquals(1000, graph.size());
+    Assertions.assertEquals(999, graph.edgeCount());
+    for(int id = 0; id < graph.size(); id++){
+      Assertions.assertEquals(id, graph.idOf(graph.nameOf(id)));
+    }
+    Assertions.assertEquals(-1, graph.idOf("NoSuchNode"));
+
+    List<String> expected = IntStream.range(1, 1000).mapToObj(i -> "Node" + i).toList();
+    Assertions.assertEquals(expected, query(graph, "reaching=Node0", 4));
+    Assertions.assertEquals(List.of("Node999", "Node499", "Node249", "Node124", "Node61", "Node30", "Node14", "Node6", "Node2", "Node0"),
+                            query(graph, "path=Node999,Node0", 4));
+  }
+
+  @Test
+  public void testInvalidQuery(){
+    Assertions.assertThrows(IllegalArgumentException.class, () -> DependencyGraph.Query.parse("reachable"));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> DependencyGraph.Query.parse("unknown=Foo"));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> DependencyGraph.Query.parse("path=Foo"));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new Option(new String[]{"--graph", "reachable=Foo", "--export", "out.cfac"}));
+  }
+
+}
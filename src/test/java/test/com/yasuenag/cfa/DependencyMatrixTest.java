@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ */
+package test.com.yasuenag.cfa;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.yasuenag.cfa.ClassInfoDumper;
+import com.yasuenag.cfa.ClassSummary;
+import com.yasuenag.cfa.DependencyMatrix;
+import com.yasuenag.cfa.DirectoryDumper;
+import com.yasuenag.cfa.JarClassInfoDumper;
+import com.yasuenag.cfa.Option;
+
+
+@SuppressWarnings("missing-explicit-ctor")
+public class DependencyMatrixTest extends DumperTestBase{
+
+  private static DependencyMatrix build(DependencyMatrix.Level level, int parallelism){
+    var option = new Option(new String[]{});
+    var builder = new DependencyMatrix.Builder();
+    (new DirectoryDumper(CLASSES_PATH)).forEachClass(option, builder::add);
+    (new JarClassInfoDumper(TEST_JAR_PATH)).forEachClass(option, builder::add);
+    return builder.build(level, parallelism);
+  }
+
+  private static long count(DependencyMatrix matrix, String from, String to){
+    return matrix.edges()
+                 .stream()
+                 .filter(e -> e.from().equals(from) && e.to().equals(to))
+                 .mapToLong(DependencyMatrix.Edge::count)
+                 .sum();
+  }
+
+  @Test
+  public void testPackage(){
+    var matrix = build(DependencyMatrix.Level.PACKAGE, 1);
+    // Classes in the default package refer java.io.Closeable and java.io.IOException
+    // in the directory and the JAR.
+    Assertions.assertTrue(count(matrix, "(default)", "java.io") >= 4, matrix.edges().toString());
+    Assertions.assertTrue(matrix.edges().stream().allMatch(e -> e.from().equals("(default)")), matrix.edges().toString());
+    Assertions.assertEquals(matrix.edges(), build(DependencyMatrix.Level.PACKAGE, 4).edges());
+  }
+
+  @Test
+  public void testArchive(){
+    var matrix = build(DependencyMatrix.Level.ARCHIVE, 1);
+    String dir = CLASSES_PATH.toString();
+    String jar = TEST_JAR_PATH.toString();
+    // Classes in the JAR refer classes in the directory because the directory is scanned first.
+    Assertions.assertTrue(count(matrix, jar, dir) > 0, matrix.edges().toString());
+    Assertions.assertEquals(0, count(matrix, dir, jar));
+    Assertions.assertTrue(count(matrix, dir, DependencyMatrix.NOT_FOUND) > 0, matrix.edges().toString());
+    Assertions.assertEquals(matrix.edges(), build(DependencyMatrix.Level.ARCHIVE, 4).edges());
+  }
+
+  @Test
+  public void testPrint(){
+    var matrix = build(DependencyMatrix.Level.PACKAGE, 1);
+    var buf = new StringWriter();
+    try(var out = new PrintWriter(buf)){
+      matrix.printEdges(new Option(new String[]{}), out);
+    }
+    List<String> lines = buf.toString().lines().toList();
+    Assertions.assertEquals(matrix.edges().size(), lines.size());
+    Assertions.assertTrue(lines.get(0).startsWith("(default) -> "), lines.get(0));
+
+    buf = new StringWriter();
+    try(var out = new PrintWriter(buf)){
+      matrix.printTable(out);
+    }
+    lines = buf.toString().lines().toList();
+    Assertions.assertTrue(lines.get(0).startsWith("\t(default)\t"), lines.get(0));
+    Assertions.assertTrue(lines.get(1).startsWith("(default)\t0\t"), lines.get(1));
+  }
+
+  @Test
+  public void testArrayOwner(){
+    var summary = new ClassSummary("com.example.Foo", "java.lang.Object", List.of(), List.of(),
+                                   List.of(new ClassSummary.MemberRef(false, "[Ljava/lang/String;", "clone", "()Ljava/lang/Object;"),
+                                           new ClassSummary.MemberRef(false, "[[Lcom/example/bar/Bar;", "clone", "()Ljava/lang/Object;"),
+                                           new ClassSummary.MemberRef(false, "[I", "clone", "()Ljava/lang/Object;")),
+                                   65, 0);
+    var builder = new DependencyMatrix.Builder();
+    builder.add(new ClassInfoDumper(summary, "foo.jar"));
+    var matrix = builder.build(DependencyMatrix.Level.PACKAGE, 1);
+    Assertions.assertEquals(2, count(matrix, "com.example", "java.lang"), matrix.edges().toString());
+    Assertions.assertEquals(1, count(matrix, "com.example", "com.example.bar"), matrix.edges().toString());
+    Assertions.assertTrue(matrix.edges().stream().noneMatch(e -> e.to().startsWith("[") || e.to().equals("(default)")), matrix.edges().toString());
+
+    var buf = new StringWriter();
+    try(var out = new PrintWriter(buf)){
+      matrix.printEdges(new Option(new String[]{"--format", "ndjson"}), out);
+    }
+    Assertions.assertTrue(buf.toString().endsWith("}\n"));
+    Assertions.assertFalse(buf.toString().contains("\r"));
+  }
+
+  @Test
+  public void testSpec(){
+    Assertions.assertEquals(new DependencyMatrix.Spec(DependencyMatrix.Level.PACKAGE, false), DependencyMatrix.Spec.parse("package"));
+    Assertions.assertEquals(new DependencyMatrix.Spec(DependencyMatrix.Level.ARCHIVE, true), DependencyMatrix.Spec.parse("archive:table"));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> DependencyMatrix.Spec.parse("module"));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new Option(new String[]{"--matrix", "package", "--graph", "reachable=Foo"}));
+  }
+
+}
@@ -18,6 +18,8 @@
  */
 package test.com.yasuenag.cfa;
 
+import java.nio.file.Path;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -43,6 +45,12 @@ public class DumperChooserTest extends DumperTestBase{
     Assertions.assertInstanceOf(JarClassInfoDumper.class, actual);
   }
 
+  @Test
+  public void testWarAndEar() throws Exception{
+    Assertions.assertInstanceOf(JarClassInfoDumper.class, (new DumperChooser()).apply(Path.of("app.war")));
+    Assertions.assertInstanceOf(JarClassInfoDumper.class, (new DumperChooser()).apply(Path.of("app.ear")));
+  }
+
   @Test
   public void testClassFile() throws Exception{
     Dumper actual = (new DumperChooser()).apply(CLASSES_PATH.resolve("FieldHolder.class"));
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ */
+package test.com.yasuenag.cfa;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.yasuenag.cfa.ClassInfoDumper;
+import com.yasuenag.cfa.ClassSummary;
+import com.yasuenag.cfa.IndexCache;
+import com.yasuenag.cfa.JarClassInfoDumper;
+import com.yasuenag.cfa.Option;
+
+
+@SuppressWarnings("missing-explicit-ctor")
+public class IndexCacheTest extends DumperTestBase{
+
+  private static final Path CACHE_PATH = GENCODE_PATH.resolve("index-cache-test");
+
+  private static ClassSummary summarize(String name) throws Exception{
+    return ClassInfoDumper.summarize(ByteBuffer.wrap(Files.readAllBytes(CLASSES_PATH.resolve(name + ".class"))));
+  }
+
+  @Test
+  public void testSummary() throws Exception{
+    var option = new Option(new String[]{"-t", "MethodCaller"});
+    var expected = new StringWriter();
+    var parsed = new ClassInfoDumper(CLASSES_PATH.resolve("MethodCaller.class"));
+    try(var out = new PrintWriter(expected)){
+      parsed.printInfo(option, out);
+    }
+
+    var actual = new StringWriter();
+    var restored = new ClassInfoDumper(parsed.toSummary(), CLASSES_PATH.resolve("MethodCaller.class").toString());
+    try(var out = new PrintWriter(actual)){
+      restored.printInfo(option, out);
+    }
+
+    Assertions.assertEquals(expected.toString(), actual.toString());
+    Assertions.assertEquals(parsed.toSummary(), restored.toSummary());
+  }
+
+  @Test
+  public void testStoreAndLoad() throws Exception{
+    Path archive = GENCODE_PATH.resolve("index-cache-test.jar");
+    Files.copy(TEST_JAR_PATH, archive, StandardCopyOption.REPLACE_EXISTING);
+
+    var cache = new IndexCache(CACHE_PATH);
+    var entries = List.of(new IndexCache.Entry(archive.toString(), "FieldHolder.class", 1L, summarize("FieldHolder")),
+                          new IndexCache.Entry(archive.toString(), "SubClass.class", 2L, summarize("SubClass")));
+    cache.store(archive, entries);
+
+    var index = cache.load(archive);
+    Assertions.assertNotNull(index);
+    Assertions.assertEquals(entries, index.entries());
+    Assertions.assertTrue(cache.isValid(index, archive));
+
+    Assertions.assertEquals(entries.get(1).summary(), index.find(archive.toString(), "SubClass.class", 2L));
+    Assertions.assertNull(index.find(archive.toString(), "SubClass.class", 3L));
+    Assertions.assertNull(index.find(archive.toString(), "NoSuchClass.class", 2L));
+
+    // Same content with different modified time
+    Files.setLastModifiedTime(archive, FileTime.fromMillis(Files.getLastModifiedTime(archive).toMillis() - 10_000));
+    Assertions.assertTrue(cache.isValid(index, archive));
+
+    // Different content
+    Files.write(archive, new byte[]{0}, StandardOpenOption.APPEND);
+    Assertions.assertFalse(cache.isValid(index, archive));
+
+    Assertions.assertNull(cache.load(CLASSES_PATH.resolve("SubClass.class")));
+  }
+
+  private static String dumpWithCache(Path archive, String... args){
+    var buf = new StringWriter();
+    try(var out = new PrintWriter(buf)){
+      new JarClassInfoDumper(archive).dumpInfo(new Option(args), out);
+    }
+    return buf.toString();
+  }
+
+  @Test
+  public void testParallelCache() throws Exception{
+    Path archive = GENCODE_PATH.resolve("index-cache-parallel-test.jar");
+    Files.copy(TEST_JAR_PATH, archive, StandardCopyOption.REPLACE_EXISTING);
+    String expected = dumpWithCache(archive, "-c", "java.io");
+    Assertions.assertTrue(expected.contains("Name: SubClass"));
+
+    for(var mmap : List.of(false, true)){
+      Path cacheDir = CACHE_PATH.resolve("parallel-" + mmap);
+      var args = new ArrayList<>(List.of("-c", "java.io", "--cache", cacheDir.toString(), "-j", "4"));
+      if(mmap){
+        args.add("--mmap");
+      }
+
+      // Cold entries are summarized in worker threads, and then they are loaded from the cache.
+      Assertions.assertEquals(expected, dumpWithCache(archive, args.toArray(String[]::new)), "cold, mmap=" + mmap);
+      Assertions.assertEquals(expected, dumpWithCache(archive, args.toArray(String[]::new)), "warm, mmap=" + mmap);
+      args.set(args.indexOf("4"), "1");
+      Assertions.assertEquals(expected, dumpWithCache(archive, args.toArray(String[]::new)), "serial, mmap=" + mmap);
+    }
+  }
+
+}
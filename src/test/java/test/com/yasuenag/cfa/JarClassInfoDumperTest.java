@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ */
+package test.com.yasuenag.cfa;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.yasuenag.cfa.JarClassInfoDumper;
+import com.yasuenag.cfa.Option;
+
+
+@SuppressWarnings("missing-explicit-ctor")
+public class JarClassInfoDumperTest extends DumperTestBase{
+
+  private static final String ALL_CLASSES = "FieldHolder,MethodHolder,FieldAccessor,MethodCaller,InterfaceMethodCaller,InterfaceImplementer,SubClass";
+
+  private String dump(String... args){
+    return dump(TEST_JAR_PATH, args);
+  }
+
+  private String dump(Path jar, String... args){
+    var stdout = System.out;
+    var buf = new ByteArrayOutputStream();
+    try(var out = new PrintStream(buf)){
+      System.setOut(out);
+      new JarClassInfoDumper(jar).dumpInfo(new Option(args));
+    }
+    finally{
+      System.setOut(stdout);
+    }
+    return buf.toString();
+  }
+
+  private static void putEntry(ZipOutputStream zip, String name, byte[] content, boolean stored) throws Exception{
+    var entry = new ZipEntry(name);
+    if(stored){
+      var crc = new CRC32();
+      crc.update(content);
+      entry.setMethod(ZipEntry.STORED);
+      entry.setSize(content.length);
+      entry.setCompressedSize(content.length);
+      entry.setCrc(crc.getValue());
+    }
+    zip.putNextEntry(entry);
+    zip.write(content);
+    zip.closeEntry();
+  }
+
+  /**
+   * Create the archive like Spring Boot fat JAR which has test.jar
+   * as both of STORED and DEFLATED, and WAR in it.
+   */
+  private static Path createFatJar() throws Exception{
+    byte[] jar = Files.readAllBytes(TEST_JAR_PATH);
+
+    var war = new ByteArrayOutputStream();
+    try(var zip = new ZipOutputStream(war)){
+      putEntry(zip, "WEB-INF/lib/test.jar", jar, false);
+    }
+
+    Path fatJar = GENCODE_PATH.resolve("fat.jar");
+    try(var zip = new ZipOutputStream(Files.newOutputStream(fatJar))){
+      putEntry(zip, "BOOT-INF/classes/SubClass.class", Files.readAllBytes(CLASSES_PATH.resolve("SubClass.class")), false);
+      putEntry(zip, "BOOT-INF/lib/stored.jar", jar, true);
+      putEntry(zip, "BOOT-INF/lib/deflated.jar", jar, false);
+      putEntry(zip, "app.war", war.toByteArray(), false);
+    }
+    return fatJar;
+  }
+
+  @Test
+  public void testNestedArchives() throws Exception{
+    Path fatJar = createFatJar();
+    String expected = dump(fatJar, "-s", "-t", "SubClass");
+
+    String prefix = "File: " + fatJar.toString();
+    Assertions.assertEquals(List.of(prefix,
+                                    prefix + "!/BOOT-INF/lib/stored.jar",
+                                    prefix + "!/BOOT-INF/lib/deflated.jar",
+                                    prefix + "!/app.war!/WEB-INF/lib/test.jar"),
+                            expected.lines().filter(l -> l.startsWith("File: ")).toList());
+
+    Assertions.assertEquals(expected, dump(fatJar, "-s", "-t", "SubClass", "-j", "4"));
+    Assertions.assertEquals(expected, dump(fatJar, "-s", "-t", "SubClass", "--mmap"));
+    Assertions.assertEquals(expected, dump(fatJar, "-s", "-t", "SubClass", "--mmap", "-j", "4"));
+  }
+
+  @Test
+  public void testParallelOrder(){
+    String expected = dump("-t", ALL_CLASSES);
+    Assertions.assertFalse(expected.isEmpty());
+
+    Assertions.assertEquals(expected, dump("-t", ALL_CLASSES, "-j", "4"));
+    Assertions.assertEquals(expected, dump("-t", ALL_CLASSES, "-j", "2"));
+  }
+
+  @Test
+  public void testCache() throws Exception{
+    String cacheDir = GENCODE_PATH.resolve("jar-cache-test").toString();
+    String expected = dump("-t", ALL_CLASSES);
+
+    // The first run builds the index, and the next runs read it.
+    Assertions.assertEquals(expected, dump("-t", ALL_CLASSES, "--cache", cacheDir));
+    try(var files = Files.list(Path.of(cacheDir))){
+      Assertions.assertEquals(1L, files.filter(p -> p.toString().endsWith(".idx")).count());
+    }
+    Assertions.assertEquals(expected, dump("-t", ALL_CLASSES, "--cache", cacheDir));
+    Assertions.assertEquals(expected, dump("-t", ALL_CLASSES, "--cache", cacheDir, "-j", "4"));
+
+    // Queries which are different from the first run should be answered from the index.
+    Assertions.assertEquals(dump("-s", "-m", "testMethod"), dump("-s", "-m", "testMethod", "--cache", cacheDir));
+  }
+
+  @Test
+  public void testMappedJar(){
+    String expected = dump("-t", ALL_CLASSES);
+    Assertions.assertEquals(expected, dump("-t", ALL_CLASSES, "--mmap"));
+    Assertions.assertEquals(expected, dump("-t", ALL_CLASSES, "--mmap", "-j", "4"));
+  }
+
+}
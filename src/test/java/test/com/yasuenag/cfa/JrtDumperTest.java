@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ */
+package test.com.yasuenag.cfa;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.yasuenag.cfa.Dumper;
+import com.yasuenag.cfa.DumperChooser;
+import com.yasuenag.cfa.JarClassInfoDumper;
+import com.yasuenag.cfa.JrtDumper;
+import com.yasuenag.cfa.Option;
+
+
+@SuppressWarnings("missing-explicit-ctor")
+public class JrtDumperTest extends DumperTestBase{
+
+  private static final Path JAVA_LANG = Path.of(URI.create("jrt:/java.base/java/lang"));
+
+  private String dump(Dumper dumper, String... args){
+    var stdout = System.out;
+    var buf = new ByteArrayOutputStream();
+    try(var out = new PrintStream(buf)){
+      System.setOut(out);
+      dumper.dumpInfo(new Option(args));
+    }
+    finally{
+      System.setOut(stdout);
+    }
+    return buf.toString();
+  }
+
+  @Test
+  public void testChooser() throws Exception{
+    Assertions.assertInstanceOf(JrtDumper.class, (new DumperChooser()).apply(JAVA_LANG));
+    Assertions.assertInstanceOf(JarClassInfoDumper.class, (new DumperChooser()).apply(Path.of("java.base.jmod")));
+  }
+
+  @Test
+  public void testJrtPath(){
+    String expected = dump(JrtDumper.ofJrtPath(JAVA_LANG), "-s", "-t", "java.lang.Object");
+    Assertions.assertTrue(expected.lines().anyMatch(l -> l.equals("File: jrt:/java.base")));
+    Assertions.assertTrue(expected.contains("java.lang.Object"));
+
+    Assertions.assertEquals(expected, dump(JrtDumper.ofJrtPath(JAVA_LANG), "-s", "-t", "java.lang.Object", "-j", "4"));
+  }
+
+  /**
+   * Create JMOD file which has "JM" header and test classes in "classes/".
+   * jmod tool cannot be used because test classes are in unnamed package.
+   */
+  private static Path createJmod() throws Exception{
+    Path jmodPath = GENCODE_PATH.resolve("test.jmod");
+    try(var out = Files.newOutputStream(jmodPath)){
+      out.write(new byte[]{'J', 'M', 1, 0});
+      var zip = new ZipOutputStream(out);
+      try(var classes = Files.list(CLASSES_PATH)){
+        for(Path p : classes.sorted().toList()){
+          zip.putNextEntry(new ZipEntry("classes/" + p.getFileName().toString()));
+          zip.write(Files.readAllBytes(p));
+          zip.closeEntry();
+        }
+      }
+      zip.finish();
+    }
+    return jmodPath;
+  }
+
+  @Test
+  public void testJmod() throws Exception{
+    Path jmodPath = createJmod();
+
+    var dumper = (new DumperChooser()).apply(jmodPath);
+    String expected = dump(dumper, "-s", "-t", "SubClass");
+    Assertions.assertTrue(expected.contains("SubClass"));
+
+    Assertions.assertEquals(expected, dump(dumper, "-s", "-t", "SubClass", "--mmap"));
+    Assertions.assertEquals(expected, dump(dumper, "-s", "-t", "SubClass", "-j", "4"));
+  }
+
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ */
+package test.com.yasuenag.cfa;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.List;
+import java.util.jar.JarFile;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.yasuenag.cfa.ClassInfoDumper;
+import com.yasuenag.cfa.MappedZipFile;
+
+
+@SuppressWarnings("missing-explicit-ctor")
+public class MappedZipFileTest extends DumperTestBase{
+
+  private static byte[] toArray(ByteBuffer buf){
+    byte[] result = new byte[buf.remaining()];
+    buf.get(buf.position(), result);
+    return result;
+  }
+
+  @Test
+  public void testDeflatedEntries() throws Exception{
+    var zip = MappedZipFile.open(TEST_JAR_PATH);
+    try(var jar = new JarFile(TEST_JAR_PATH.toFile())){
+      var expectedNames = jar.stream().map(e -> e.getName()).toList();
+      var actualNames = zip.entries().stream().map(e -> e.name()).toList();
+      Assertions.assertEquals(expectedNames, actualNames);
+
+      for(var entry : zip.entries()){
+        if(entry.isDirectory()){
+          continue;
+        }
+        try(var in = jar.getInputStream(jar.getEntry(entry.name()))){
+          Assertions.assertArrayEquals(in.readAllBytes(), toArray(zip.read(entry)), entry.name());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testStoredEntries() throws Exception{
+    byte[] content = Files.readAllBytes(CLASSES_PATH.resolve("FieldHolder.class"));
+    var crc = new CRC32();
+    crc.update(content);
+
+    var bytes = new ByteArrayOutputStream();
+    try(var out = new ZipOutputStream(bytes)){
+      var entry = new ZipEntry("FieldHolder.class");
+      entry.setMethod(ZipEntry.STORED);
+      entry.setSize(content.length);
+      entry.setCompressedSize(content.length);
+      entry.setCrc(crc.getValue());
+      out.putNextEntry(entry);
+      out.write(content);
+      out.closeEntry();
+    }
+
+    var zip = new MappedZipFile(ByteBuffer.wrap(bytes.toByteArray()));
+    Assertions.assertEquals(1, zip.entries().size());
+
+    var entry = zip.entries().get(0);
+    Assertions.assertEquals(MappedZipFile.STORED, entry.method());
+    Assertions.assertEquals(crc.getValue(), entry.crc());
+    Assertions.assertArrayEquals(content, toArray(zip.read(entry)));
+  }
+
+  /**
+   * Compile the class which has a chain of methods to make it larger than
+   * the initial inflate buffer.
+   */
+  private static byte[] compileLargeClass(String name, String prefix) throws Exception{
+    var src = new StringBuilder("public class " + name + "{\n");
+    for(int i = 0; i < 1500; i++){
+      src.append("  public void ").append(prefix).append(i).append("(){ ").append(prefix).append(i + 1).append("(); }\n");
+    }
+    src.append("  public void ").append(prefix).append(1500).append("(){}\n}\n");
+
+    var dir = Files.createDirectories(GENCODE_PATH.resolve("large-classes"));
+    var srcFile = dir.resolve(name + ".java");
+    Files.writeString(srcFile, src);
+    var compiler = javax.tools.ToolProvider.getSystemJavaCompiler();
+    if(compiler.run(null, null, null, "-d", dir.toString(), srcFile.toString()) != 0){
+      throw new RuntimeException("Compilation failed");
+    }
+    return Files.readAllBytes(dir.resolve(name + ".class"));
+  }
+
+  @Test
+  public void testLargeDeflatedEntries() throws Exception{
+    var names = List.of("LargeA", "LargeB");
+    var contents = List.of(compileLargeClass("LargeA", "a"), compileLargeClass("LargeB", "b"));
+
+    var bytes = new ByteArrayOutputStream();
+    try(var out = new ZipOutputStream(bytes)){
+      for(int i = 0; i < names.size(); i++){
+        Assertions.assertTrue(contents.get(i).length > 64 * 1024, names.get(i) + " should be larger than 64KB");
+        out.putNextEntry(new ZipEntry(names.get(i) + ".class"));
+        out.write(contents.get(i));
+        out.closeEntry();
+      }
+    }
+
+    // Parse both entries in the same thread, then check the first one
+    // is not overwritten by the second one.
+    var zip = new MappedZipFile(ByteBuffer.wrap(bytes.toByteArray()));
+    Assertions.assertTrue(zip.read(zip.entries().get(0)).isReadOnly(), "Shared buffer should not be writable");
+    var first = ClassInfoDumper.parse(zip.read(zip.entries().get(0)), "large.jar");
+    var second = ClassInfoDumper.parse(zip.read(zip.entries().get(1)), "large.jar");
+
+    var expected = new ClassInfoDumper(contents.get(0), "large.jar").toSummary();
+    var actual = first.toSummary();
+    Assertions.assertEquals(expected.className(), actual.className());
+    Assertions.assertEquals(new HashSet<>(expected.methodRefs()), new HashSet<>(actual.methodRefs()));
+    Assertions.assertEquals("LargeB", second.toSummary().className());
+  }
+
+  private static byte[] createArchive() throws Exception{
+    byte[] content = Files.readAllBytes(CLASSES_PATH.resolve("FieldHolder.class"));
+    var crc = new CRC32();
+    crc.update(content);
+
+    var bytes = new ByteArrayOutputStream();
+    try(var out = new ZipOutputStream(bytes)){
+      var stored = new ZipEntry("stored/FieldHolder.class");
+      stored.setMethod(ZipEntry.STORED);
+      stored.setSize(content.length);
+      stored.setCompressedSize(content.length);
+      stored.setCrc(crc.getValue());
+      out.putNextEntry(stored);
+      out.write(content);
+      out.closeEntry();
+
+      out.putNextEntry(new ZipEntry("deflated/FieldHolder.class"));
+      out.write(content);
+      out.closeEntry();
+    }
+    return bytes.toByteArray();
+  }
+
+  @Test
+  public void testCorruptArchive() throws Exception{
+    byte[] original = createArchive();
+
+    // Broken archive should be reported as ZipException at any position.
+    for(int i = 0; i < original.length; i++){
+      byte[] corrupt = original.clone();
+      corrupt[i] ^= (byte)0xff;
+      try{
+        var zip = new MappedZipFile(ByteBuffer.wrap(corrupt));
+        for(var entry : zip.entries()){
+          zip.read(entry);
+        }
+      }
+      catch(ZipException e){
+        // expected
+      }
+      catch(Exception e){
+        Assertions.fail("Unexpected exception at " + i, e);
+      }
+    }
+
+    for(int len = 0; len < original.length; len++){
+      var truncated = ByteBuffer.wrap(original, 0, len);
+      Assertions.assertThrows(ZipException.class, () -> {
+        var zip = new MappedZipFile(truncated);
+        for(var entry : zip.entries()){
+          zip.read(entry);
+        }
+      }, "length " + len);
+    }
+  }
+
+  @Test
+  public void testPrefixedZip64Archive() throws Exception{
+    byte[] original = createArchive();
+    var eocd = ByteBuffer.wrap(original, original.length - 22, 22).slice().order(ByteOrder.LITTLE_ENDIAN);
+    Assertions.assertEquals(0x06054b50, eocd.getInt(0));
+    long total = eocd.getShort(10);
+    long cdSize = eocd.getInt(12);
+    long cdOffset = eocd.getInt(16);
+    int prefixSize = 100;
+
+    // Replace the end of central directory with ZIP64 records, and put
+    // a prefix before the archive as JMOD does.
+    var zip64 = ByteBuffer.allocate(prefixSize + original.length - 22 + 56 + 20 + 22).order(ByteOrder.LITTLE_ENDIAN);
+    zip64.put(new byte[prefixSize]);
+    zip64.put(original, 0, original.length - 22);
+    long zip64End = original.length - 22;
+    zip64.putInt(0x06064b50).putLong(44).putShort((short)45).putShort((short)45).putInt(0).putInt(0)
+         .putLong(total).putLong(total).putLong(cdSize).putLong(cdOffset);
+    zip64.putInt(0x07064b50).putInt(0).putLong(zip64End).putInt(1);
+    zip64.putInt(0x06054b50).putShort((short)0).putShort((short)0).putShort((short)0xffff).putShort((short)0xffff)
+         .putInt(0xffffffff).putInt(0xffffffff).putShort((short)0);
+    zip64.flip();
+
+    var expected = new MappedZipFile(ByteBuffer.wrap(original));
+    var zip = new MappedZipFile(zip64);
+    Assertions.assertEquals(expected.entries(), zip.entries());
+    for(var entry : zip.entries()){
+      Assertions.assertArrayEquals(toArray(expected.read(entry)), toArray(zip.read(entry)), entry.name());
+    }
+  }
+
+  @Test
+  public void testInvalidArchive(){
+    Assertions.assertThrows(ZipException.class, () -> new MappedZipFile(ByteBuffer.wrap(new byte[100])));
+  }
+
+}
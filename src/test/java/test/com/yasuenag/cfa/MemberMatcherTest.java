@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ */
+package test.com.yasuenag.cfa;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.yasuenag.cfa.MemberMatcher;
+
+
+@SuppressWarnings("missing-explicit-ctor")
+public class MemberMatcherTest{
+
+  @Test
+  public void testExactMember(){
+    var matcher = new MemberMatcher(List.of("java/io/Closeable.close:()V"));
+    Assertions.assertTrue(matcher.matches("java.io.Closeable", "close", "()V"));
+    Assertions.assertFalse(matcher.matches("java.io.Closeable", "close", "()I"));
+    Assertions.assertFalse(matcher.matches("java.io.Closeable", "closeQuietly", "()V"));
+    Assertions.assertFalse(matcher.matches("java.lang.AutoCloseable", "close", "()V"));
+  }
+
+  @Test
+  public void testWildcard(){
+    var matcher = new MemberMatcher(List.of("java.io.Closeable.*", "*.close", "toString:()Ljava/lang/String;"));
+    Assertions.assertTrue(matcher.matches("java.io.Closeable", "anything", "()V"));
+    Assertions.assertTrue(matcher.matches("Foo", "close", "(I)V"));
+    Assertions.assertTrue(matcher.matches("Bar", "toString", "()Ljava/lang/String;"));
+    Assertions.assertFalse(matcher.matches("Bar", "toString", "(I)Ljava/lang/String;"));
+    Assertions.assertFalse(matcher.matches("Foo", "isClosed", "()Z"));
+  }
+
+  @Test
+  public void testGlobPart(){
+    var matcher = new MemberMatcher(List.of("java.io.*.close", "Foo.get*", "Bar.set?:(I)V"));
+    Assertions.assertTrue(matcher.matches("java.io.Closeable", "close", "()V"));
+    Assertions.assertTrue(matcher.matches("java.io.Reader", "close", "()V"));
+    Assertions.assertFalse(matcher.matches("java.nio.Channel", "close", "()V"));
+    Assertions.assertFalse(matcher.matches("java.io.Closeable", "closeQuietly", "()V"));
+    Assertions.assertTrue(matcher.matches("Foo", "getName", "()Ljava/lang/String;"));
+    Assertions.assertFalse(matcher.matches("Foo", "setName", "(Ljava/lang/String;)V"));
+    Assertions.assertFalse(matcher.matches("FooBar", "getName", "()Ljava/lang/String;"));
+    Assertions.assertTrue(matcher.matches("Bar", "setX", "(I)V"));
+    Assertions.assertFalse(matcher.matches("Bar", "setXY", "(I)V"));
+
+    Assertions.assertTrue(matcher.mightMatchName("close"));
+    Assertions.assertTrue(matcher.mightMatchName("getName"));
+    Assertions.assertFalse(matcher.mightMatchName("setName"));
+  }
+
+  @Test
+  public void testMightMatchName(){
+    var matcher = new MemberMatcher(List.of("Foo.bar:()V"));
+    Assertions.assertTrue(matcher.mightMatchName("bar"));
+    Assertions.assertFalse(matcher.mightMatchName("baz"));
+
+    matcher = new MemberMatcher(List.of("Foo.*"));
+    Assertions.assertTrue(matcher.mightMatchName("baz"));
+  }
+
+  @Test
+  public void testIsMemberQuery(){
+    Assertions.assertTrue(MemberMatcher.isMemberQuery("Foo.bar"));
+    Assertions.assertTrue(MemberMatcher.isMemberQuery("bar:()V"));
+    Assertions.assertFalse(MemberMatcher.isMemberQuery("bar"));
+  }
+
+  @Test
+  public void testInvalidQuery(){
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new MemberMatcher(List.of("Foo.")));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new MemberMatcher(List.of(".bar")));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new MemberMatcher(List.of("bar:")));
+  }
+
+  @Test
+  public void testManyQueries(){
+    var queries = new ArrayList<String>();
+    for(int i = 0; i < 10000; i++){
+      queries.add("com/example/Class" + i + ".method" + i + ":()V");
+    }
+    var matcher = new MemberMatcher(queries);
+    Assertions.assertTrue(matcher.matches("com.example.Class9999", "method9999", "()V"));
+    Assertions.assertFalse(matcher.matches("com.example.Class9999", "method9998", "()V"));
+  }
+
+}
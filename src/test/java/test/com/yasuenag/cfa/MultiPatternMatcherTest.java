@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ */
+package test.com.yasuenag.cfa;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.yasuenag.cfa.MultiPatternMatcher;
+
+
+@SuppressWarnings("missing-explicit-ctor")
+public class MultiPatternMatcherTest{
+
+  @Test
+  public void testSinglePattern(){
+    var matcher = new MultiPatternMatcher(List.of("IOException"));
+    Assertions.assertTrue(matcher.matches("java.io.IOException"));
+    Assertions.assertTrue(matcher.matches("IOException"));
+    Assertions.assertFalse(matcher.matches("java.io.IOExceptio"));
+    Assertions.assertFalse(matcher.matches(""));
+  }
+
+  @Test
+  public void testOverlappingPatterns(){
+    var matcher = new MultiPatternMatcher(List.of("he", "she", "his", "hers"));
+    Assertions.assertTrue(matcher.matches("ushers"));
+    Assertions.assertTrue(matcher.matches("ahis"));
+    Assertions.assertTrue(matcher.matches("sshe"));
+    Assertions.assertFalse(matcher.matches("iss"));
+    Assertions.assertFalse(matcher.matches("shi"));
+  }
+
+  @Test
+  public void testFailureLink(){
+    // "abd" must be found after mismatch on "abc".
+    var matcher = new MultiPatternMatcher(List.of("abc", "bd"));
+    Assertions.assertTrue(matcher.matches("xabd"));
+    Assertions.assertFalse(matcher.matches("xabxd"));
+  }
+
+  @Test
+  public void testNonAscii(){
+    var matcher = new MultiPatternMatcher(List.of("クラス"));
+    Assertions.assertTrue(matcher.matches("com.example.クラスA"));
+    Assertions.assertFalse(matcher.matches("com.example.クラ"));
+  }
+
+  @Test
+  public void testEmptyPattern(){
+    var matcher = new MultiPatternMatcher(List.of(""));
+    Assertions.assertTrue(matcher.matches("anything"));
+    Assertions.assertTrue(matcher.matches(""));
+  }
+
+  @Test
+  public void testManyPatterns(){
+    var patterns = new ArrayList<String>();
+    for(int i = 0; i < 1000; i++){
+      patterns.add("Class" + i + "$");
+    }
+    var matcher = new MultiPatternMatcher(patterns);
+    Assertions.assertTrue(matcher.matches("com.example.Class999$Inner"));
+    Assertions.assertFalse(matcher.matches("com.example.Class1000$Inner"));
+  }
+
+}
@@ -18,7 +18,15 @@
  */
 package test.com.yasuenag.cfa;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -29,6 +37,16 @@ import com.yasuenag.cfa.Option;
 @SuppressWarnings("missing-explicit-ctor")
 public class OptionTest extends DumperTestBase{
 
+  @Test
+  public void testHelp(){
+    Assertions.assertTrue(new Option(new String[]{"-h"}).isHelp());
+    Assertions.assertFalse(new Option(new String[]{}).isHelp());
+
+    var opt = new Option(new String[]{"-c", "-h"});
+    Assertions.assertFalse(opt.isHelp());
+    Assertions.assertEquals(Set.of("-h"), opt.getClassFilterSet().get());
+  }
+
   @Test
   public void testTargetFilter(){
     var opt = new Option(new String[]{"-t", "Foo,Bar"});
@@ -65,6 +83,116 @@ public class OptionTest extends DumperTestBase{
     Assertions.assertFalse(opt.getMethodFilterSet().isPresent());
   }
 
+  @Test
+  public void testParallelism(){
+    Assertions.assertEquals(1, new Option(new String[]{}).getParallelism());
+    Assertions.assertEquals(4, new Option(new String[]{"-j", "4"}).getParallelism());
+
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new Option(new String[]{"-j"}));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new Option(new String[]{"-j", "0"}));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new Option(new String[]{"-j", "four"}));
+  }
+
+  @Test
+  public void testIOBudget(){
+    Assertions.assertEquals(64, new Option(new String[]{}).getIOBudget());
+    Assertions.assertEquals(8, new Option(new String[]{"--io-budget", "8"}).getIOBudget());
+
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new Option(new String[]{"--io-budget"}));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new Option(new String[]{"--io-budget", "0"}));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new Option(new String[]{"--io-budget", "abc"}));
+  }
+
+  @Test
+  public void testOutput(){
+    var opt = new Option(new String[]{});
+    Assertions.assertFalse(opt.getOutputPath().isPresent());
+    Assertions.assertFalse(opt.isAsyncOutput());
+
+    opt = new Option(new String[]{"-o", "out.txt", "--async-output"});
+    Assertions.assertEquals(Path.of("out.txt"), opt.getOutputPath().get());
+    Assertions.assertTrue(opt.isAsyncOutput());
+
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new Option(new String[]{"-o"}));
+  }
+
+  @Test
+  public void testDedup(){
+    Assertions.assertFalse(new Option(new String[]{}).getDedupCache().isPresent());
+    Assertions.assertTrue(new Option(new String[]{"--dedup"}).getDedupCache().isPresent());
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new Option(new String[]{"--dedup", "--cache", "cfa-cache"}));
+  }
+
+  @Test
+  public void testCacheDir(){
+    var opt = new Option(new String[]{});
+    Assertions.assertFalse(opt.getCacheDir().isPresent());
+
+    opt = new Option(new String[]{"--cache", "cfa-cache"});
+    Assertions.assertEquals(Path.of("cfa-cache"), opt.getCacheDir().get());
+
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new Option(new String[]{"--cache"}));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new Option(new String[]{"--cache", TEST_JAR_PATH.toString()}));
+  }
+
+  @Test
+  public void testIndex(){
+    var opt = new Option(new String[]{"--build-index", "cfa.idx"});
+    Assertions.assertEquals(Path.of("cfa.idx"), opt.getBuildIndexPath().get());
+    Assertions.assertFalse(opt.getIndexPath().isPresent());
+
+    opt = new Option(new String[]{"--index", TEST_JAR_PATH.toString()});
+    Assertions.assertEquals(TEST_JAR_PATH, opt.getIndexPath().get());
+
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new Option(new String[]{"--index", "silver-bullet"}));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new Option(new String[]{"--build-index"}));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new Option(new String[]{"--build-index", "cfa.idx", "--index", TEST_JAR_PATH.toString()}));
+  }
+
+  @Test
+  public void testExport(){
+    var opt = new Option(new String[]{"--export", "cfa.bin", TEST_JAR_PATH.toString()});
+    Assertions.assertEquals(Path.of("cfa.bin"), opt.getExportPath().get());
+    Assertions.assertFalse(new Option(new String[]{}).getExportPath().isPresent());
+
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new Option(new String[]{"--export"}));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new Option(new String[]{"--export", "cfa.bin", "--build-index", "cfa.idx"}));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new Option(new String[]{"--export", "cfa.bin", "--watch"}));
+  }
+
+  @Test
+  public void testQueryServer(){
+    var opt = new Option(new String[]{"--server", "cfa.sock", TEST_JAR_PATH.toString()});
+    Assertions.assertEquals(Path.of("cfa.sock"), opt.getServerSocketPath().get());
+
+    opt = new Option(new String[]{"-s", "--client", "cfa.sock", "-c", "Foo"});
+    Assertions.assertEquals(Path.of("cfa.sock"), opt.getClientSocketPath().get());
+    Assertions.assertEquals(List.of("-s", "-c", "Foo"), opt.getQueryArguments());
+
+    // Options which are not for the query are not sent.
+    opt = new Option(new String[]{"--client", "cfa.sock", "-o", "out.txt", "--format", "ndjson", "-m", "-s", "-t", "Bar"});
+    Assertions.assertEquals(List.of("--format", "ndjson", "-m", "-s", "-t", "Bar"), opt.getQueryArguments());
+
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new Option(new String[]{"--client"}));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new Option(new String[]{"--client", "cfa.sock", TEST_JAR_PATH.toString()}));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new Option(new String[]{"--client", "cfa.sock", "--server", "cfa.sock"}));
+  }
+
+  @Test
+  public void testWatch(){
+    Assertions.assertFalse(new Option(new String[]{}).isWatch());
+    Assertions.assertTrue(new Option(new String[]{"--watch", CLASSES_PATH.toString()}).isWatch());
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new Option(new String[]{"--watch", "--build-index", "cfa.idx"}));
+  }
+
+  @Test
+  public void testFormat(){
+    Assertions.assertEquals(Option.Format.TEXT, new Option(new String[]{}).getFormat());
+    Assertions.assertEquals(Option.Format.NDJSON, new Option(new String[]{"--format", "ndjson"}).getFormat());
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new Option(new String[]{"--format", "xml"}));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new Option(new String[]{"--format"}));
+  }
+
   @Test
   public void testTargetFiles(){
     var opt = new Option(new String[]{CLASSES_PATH.toString(), TEST_JAR_PATH.toString()});
@@ -78,6 +206,68 @@ public class OptionTest extends DumperTestBase{
     Assertions.assertThrows(IllegalArgumentException.class, () -> new Option(new String[]{"silver-bullet"}));
   }
 
+  @Test
+  public void testClasspath(){
+    String classpath = String.join(File.pathSeparator, TEST_JAR_PATH.toString(), "no-such-file.jar", CLASSES_PATH.toString());
+    var opt = new Option(new String[]{"--classpath", classpath, TEST_JAR_PATH.toString()});
+    // Invalid entries are skipped, and duplicated inputs are processed once.
+    Assertions.assertEquals(List.of(TEST_JAR_PATH, CLASSES_PATH), opt.getInputs().toList());
+    // File set has direct arguments only.
+    Assertions.assertEquals(Set.of(TEST_JAR_PATH), opt.getFileSet());
+    Assertions.assertTrue(opt.hasInputs());
+    Assertions.assertFalse(new Option(new String[]{}).hasInputs());
+
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new Option(new String[]{"--classpath"}));
+  }
+
+  @Test
+  public void testArgFile() throws Exception{
+    Path argFile = GENCODE_PATH.resolve("inputs.txt");
+    Files.writeString(argFile, "# comment\n" + CLASSES_PATH + "\n\n" + TEST_JAR_PATH + "\n");
+    var opt = new Option(new String[]{"@" + argFile, DUMMY_FILE_PATH.toString()});
+    Assertions.assertEquals(List.of(CLASSES_PATH, TEST_JAR_PATH, DUMMY_FILE_PATH), opt.getInputs().toList());
+
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new Option(new String[]{"@no-such-file.txt"}));
+  }
+
+  @Test
+  public void testStdin(){
+    var stdin = System.in;
+    try{
+      var closed = new AtomicBoolean();
+      System.setIn(new ByteArrayInputStream((TEST_JAR_PATH + "\n" + CLASSES_PATH + "\n").getBytes(StandardCharsets.UTF_8)){
+                     @Override
+                     public void close(){
+                       closed.set(true);
+                     }
+                   });
+      var opt = new Option(new String[]{"-"});
+      Assertions.assertEquals(List.of(TEST_JAR_PATH, CLASSES_PATH), opt.getInputs().toList());
+      Assertions.assertTrue(closed.get(), "stdin should be closed after reading");
+    }
+    finally{
+      System.setIn(stdin);
+    }
+  }
+
+  @Test
+  public void testJrtPath(){
+    var opt = new Option(new String[]{"jrt:/java.base"});
+    Assertions.assertEquals(Set.of(Path.of(URI.create("jrt:/java.base"))), opt.getFileSet());
+
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new Option(new String[]{"jrt:/no.such.module"}));
+  }
+
+  @Test
+  public void testPatternFilter(){
+    var opt = new Option(new String[]{"-c", "org.apache.*.Logger,/Log(ger|Factory)$/"});
+    Assertions.assertEquals(Set.of("org.apache.*.Logger", "/Log(ger|Factory)$/"), opt.getClassFilterSet().get());
+    Assertions.assertTrue(opt.getFilter().matchesClass("org.apache.log4j.Logger"));
+    Assertions.assertTrue(opt.getFilter().matchesClass("org.apache.commons.logging.LogFactory"));
+    Assertions.assertFalse(opt.getFilter().matchesClass("org.apache.log4j.Level"));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new Option(new String[]{"-c", "/[a-/"}));
+  }
+
   @Test
   public void testAllArguments(){
     var opt = new Option(new String[]{"-t", "Foo,Bar",
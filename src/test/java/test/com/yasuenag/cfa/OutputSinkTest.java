@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ */
+package test.com.yasuenag.cfa;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.yasuenag.cfa.JarClassInfoDumper;
+import com.yasuenag.cfa.Option;
+import com.yasuenag.cfa.OutputSink;
+
+
+@SuppressWarnings("missing-explicit-ctor")
+public class OutputSinkTest extends DumperTestBase{
+
+  private String dumpToFile(String fname, boolean async) throws Exception{
+    var outFile = GENCODE_PATH.resolve(fname);
+    var args = async ? new String[]{"-t", "Holder", "-o", outFile.toString(), "--async-output"}
+                     : new String[]{"-t", "Holder", "-o", outFile.toString()};
+    var opt = new Option(args);
+    try(var out = OutputSink.open(opt)){
+      new JarClassInfoDumper(TEST_JAR_PATH).dumpInfo(opt, out);
+    }
+    return Files.readString(outFile);
+  }
+
+  @Test
+  public void testFileOutput() throws Exception{
+    String actual = dumpToFile("sync-output.txt", false);
+    Assertions.assertTrue(actual.contains("Name: FieldHolder"));
+    Assertions.assertTrue(actual.contains("Name: MethodHolder"));
+  }
+
+  @Test
+  public void testAsyncOutput() throws Exception{
+    Assertions.assertEquals(dumpToFile("sync-output.txt", false), dumpToFile("async-output.txt", true));
+  }
+
+  @Test
+  public void testAsyncLargeOutput() throws Exception{
+    var outFile = GENCODE_PATH.resolve("async-large-output.txt");
+    var opt = new Option(new String[]{"-o", outFile.toString(), "--async-output"});
+    var expected = new StringBuilder();
+    try(var out = OutputSink.open(opt)){
+      for(int i = 0; i < 100000; i++){
+        String line = "line " + i;
+        out.println(line);
+        expected.append(line).append(System.lineSeparator());
+        if(i % 30000 == 0){
+          out.flush();
+        }
+      }
+    }
+    Assertions.assertEquals(expected.toString(), Files.readString(outFile));
+  }
+
+  private static class BrokenStream extends OutputStream{
+
+    boolean closed = false;
+
+    @Override
+    public void write(int b) throws IOException{
+      throw new IOException("Broken pipe");
+    }
+
+    @Override
+    public void close(){
+      closed = true;
+    }
+
+  }
+
+  @Test
+  public void testAsyncOutputError() throws Exception{
+    var stdout = System.out;
+    var broken = new BrokenStream();
+    System.setOut(new PrintStream(broken));
+    try{
+      var opt = new Option(new String[]{"--async-output"});
+      Assertions.assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+        var out = OutputSink.open(opt);
+        out.println("line");
+        out.flush();
+        Assertions.assertTrue(out.checkError());
+        out.close();
+      });
+      Assertions.assertFalse(broken.closed, "stdout should not be closed");
+    }
+    finally{
+      System.setOut(stdout);
+    }
+  }
+
+  @Test
+  public void testStdoutNotClosed() throws Exception{
+    var stdout = System.out;
+    var bytes = new ByteArrayOutputStream();
+    System.setOut(new PrintStream(bytes, true));
+    try{
+      try(var out = OutputSink.open(new Option(new String[0]))){
+        out.print("first");
+      }
+      System.out.print(" second");
+      Assertions.assertEquals("first second", bytes.toString());
+      Assertions.assertFalse(System.out.checkError());
+    }
+    finally{
+      System.setOut(stdout);
+    }
+  }
+
+}
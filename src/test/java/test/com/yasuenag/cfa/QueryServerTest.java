@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ */
+package test.com.yasuenag.cfa;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.yasuenag.cfa.JarClassInfoDumper;
+import com.yasuenag.cfa.Option;
+import com.yasuenag.cfa.QueryServer;
+import com.yasuenag.cfa.ReferenceIndex;
+
+
+@SuppressWarnings("missing-explicit-ctor")
+public class QueryServerTest extends DumperTestBase{
+
+  private static final Path SOCKET_PATH = GENCODE_PATH.resolve("cfa-test.sock");
+
+  private static String scan(String... args){
+    var option = new Option(args);
+    var buf = new StringWriter();
+    try(var out = new PrintWriter(buf)){
+      new JarClassInfoDumper(TEST_JAR_PATH).dumpInfo(option, out);
+    }
+    return buf.toString();
+  }
+
+  private static String query(String... args) throws Exception{
+    var buf = new StringWriter();
+    QueryServer.query(SOCKET_PATH, List.of(args), buf);
+    return buf.toString();
+  }
+
+  private static final int STATUS_ERROR = 1;
+
+  /**
+   * Send the request which has the number of arguments and the arguments.
+   *
+   * @return Status of the response.
+   */
+  private static int sendRaw(int count, int actualCount, int argLength) throws Exception{
+    try(SocketChannel ch = SocketChannel.open(UnixDomainSocketAddress.of(SOCKET_PATH))){
+      var request = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(ch)));
+      request.writeInt(count);
+      for(int i = 0; i < actualCount; i++){
+        request.writeUTF("a".repeat(argLength));
+      }
+      request.flush();
+      return Channels.newInputStream(ch).read();
+    }
+  }
+
+  @Test
+  public void testQuery() throws Exception{
+    var builder = new ReferenceIndex.Builder();
+    new JarClassInfoDumper(TEST_JAR_PATH).forEachClass(new Option(new String[]{}), builder::add);
+
+    var server = new QueryServer(SOCKET_PATH, builder.build());
+    var serverThread = Thread.ofPlatform().start(() -> {
+      try{
+        server.serve();
+      }
+      catch(Exception e){
+        throw new RuntimeException(e);
+      }
+    });
+
+    try{
+      Assertions.assertEquals(scan("-c", "FieldHolder"), query("-c", "FieldHolder"));
+      Assertions.assertEquals(scan("-s", "-m", "testMethod"), query("-s", "-m", "testMethod"));
+      Assertions.assertEquals("", query("-c", "NoSuchClass"));
+
+      var e = Assertions.assertThrows(IllegalArgumentException.class, () -> query("-c"));
+      Assertions.assertEquals("Invalid class filter list.", e.getMessage());
+      Assertions.assertEquals(scan("-c", "-h"), query("-c", "-h"));
+      Assertions.assertEquals(scan("--format", "ndjson", "-c", "FieldHolder"), query("--format", "ndjson", "-c", "FieldHolder"));
+
+      // Inputs and modes should be rejected before they are parsed.
+      for(String[] args : List.of(new String[]{"-h"},
+                                  new String[]{TEST_JAR_PATH.toString()},
+                                  new String[]{"-c", "FieldHolder", "@" + TEST_JAR_PATH.toString()},
+                                  new String[]{"-"},
+                                  new String[]{"--classpath", TEST_JAR_PATH.toString()},
+                                  new String[]{"--index", TEST_JAR_PATH.toString()},
+                                  new String[]{"-o", GENCODE_PATH.resolve("query-server-test.out").toString()})){
+        e = Assertions.assertThrows(IllegalArgumentException.class, () -> query(args), String.join(" ", args));
+        Assertions.assertTrue(e.getMessage().startsWith("Unsupported argument in the query: "), e.getMessage());
+      }
+
+      // Malformed requests should be rejected without killing the server.
+      Assertions.assertEquals(STATUS_ERROR, sendRaw(-1, 0, 0));
+      Assertions.assertEquals(STATUS_ERROR, sendRaw(Integer.MAX_VALUE, 0, 0));
+      Assertions.assertEquals(STATUS_ERROR, sendRaw(17, 17, 65000));
+      Assertions.assertEquals(scan("-c", "FieldHolder"), query("-c", "FieldHolder"));
+    }
+    finally{
+      server.close();
+      serverThread.join();
+    }
+    Assertions.assertFalse(Files.exists(SOCKET_PATH));
+  }
+
+}
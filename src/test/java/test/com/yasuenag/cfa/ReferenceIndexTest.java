@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ */
+package test.com.yasuenag.cfa;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.yasuenag.cfa.DirectoryDumper;
+import com.yasuenag.cfa.Dumper;
+import com.yasuenag.cfa.JarClassInfoDumper;
+import com.yasuenag.cfa.Option;
+import com.yasuenag.cfa.ReferenceIndex;
+
+
+@SuppressWarnings("missing-explicit-ctor")
+public class ReferenceIndexTest extends DumperTestBase{
+
+  private static final Path INDEX_PATH = GENCODE_PATH.resolve("reference-index-test.idx");
+
+  private static List<Dumper> inputs(){
+    return List.of(new DirectoryDumper(CLASSES_PATH), new JarClassInfoDumper(TEST_JAR_PATH));
+  }
+
+  @BeforeAll
+  public static void buildIndex() throws Exception{
+    var option = new Option(new String[]{});
+    var builder = new ReferenceIndex.Builder();
+    inputs().forEach(d -> d.forEachClass(option, builder::add));
+    builder.build().write(INDEX_PATH);
+  }
+
+  private static String scan(String... args){
+    var option = new Option(args);
+    var buf = new StringWriter();
+    try(var out = new PrintWriter(buf)){
+      inputs().forEach(d -> d.dumpInfo(option, out));
+    }
+    return buf.toString();
+  }
+
+  private static String query(String... args) throws Exception{
+    var option = new Option(args);
+    var buf = new StringWriter();
+    try(var out = new PrintWriter(buf)){
+      ReferenceIndex.load(INDEX_PATH).query(option, out);
+    }
+    return buf.toString();
+  }
+
+  @Test
+  public void testSize() throws Exception{
+    // 7 classes in the directory and the JAR respectively
+    Assertions.assertEquals(14, ReferenceIndex.load(INDEX_PATH).size());
+  }
+
+  @Test
+  public void testQuery() throws Exception{
+    for(String[] args : List.of(new String[]{"-t", "FieldHolder"},
+                                new String[]{"-c", "FieldHolder"},
+                                new String[]{"-m", "testMethod"},
+                                new String[]{"-c", "java.lang.Object", "-s"},
+                                new String[]{"-t", "SubClass", "-c", "MethodHolder", "-m", "testAccess"},
+                                new String[]{"-c", "NoSuchClass"},
+                                new String[]{"-m", "java.io.Closeable.close:()V"},
+                                new String[]{"-m", "*.<init>", "-s"},
+                                new String[]{"-f", "FieldHolder.testField"},
+                                new String[]{"-f", "testField"},
+                                new String[]{"-f", "*.testField", "-s"},
+                                new String[]{"-f", "/^test/"},
+                                new String[]{"-f", "NoSuchClass.testField"},
+                                new String[]{"-m", "testMethod", "-f", "testField"})){
+      String expected = scan(args);
+      Assertions.assertEquals(expected, query(args), String.join(" ", args));
+    }
+    Assertions.assertFalse(query("-c", "FieldHolder").isEmpty());
+    Assertions.assertFalse(query("-f", "testField").isEmpty());
+  }
+
+}
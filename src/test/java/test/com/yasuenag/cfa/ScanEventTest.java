@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ */
+package test.com.yasuenag.cfa;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.yasuenag.cfa.Dumper;
+import com.yasuenag.cfa.DirectoryDumper;
+import com.yasuenag.cfa.JarClassInfoDumper;
+import com.yasuenag.cfa.Option;
+
+
+@SuppressWarnings("missing-explicit-ctor")
+public class ScanEventTest extends DumperTestBase{
+
+  private static final String ARCHIVE_SCAN = "com.yasuenag.cfa.ArchiveScan";
+
+  private static final String CLASS_PARSE = "com.yasuenag.cfa.ClassParse";
+
+  private static List<RecordedEvent> record(Dumper dumper, String... args) throws Exception{
+    var option = new Option(args);
+    Path jfr = GENCODE_PATH.resolve("scan-event-test.jfr");
+    try(var recording = new Recording()){
+      recording.enable(ARCHIVE_SCAN).withThreshold(Duration.ZERO);
+      recording.enable(CLASS_PARSE).withThreshold(Duration.ZERO);
+      recording.start();
+      try(var out = new PrintWriter(Writer.nullWriter())){
+        dumper.dumpInfo(option, out);
+      }
+      recording.stop();
+      recording.dump(jfr);
+    }
+    return RecordingFile.readAllEvents(jfr);
+  }
+
+  private static List<RecordedEvent> filter(List<RecordedEvent> events, String name){
+    return events.stream()
+                 .filter(e -> e.getEventType().getName().equals(name))
+                 .toList();
+  }
+
+  @Test
+  public void testJar() throws Exception{
+    var events = record(new JarClassInfoDumper(TEST_JAR_PATH), "-c", "FieldHolder");
+
+    var archives = filter(events, ARCHIVE_SCAN);
+    Assertions.assertEquals(1, archives.size());
+    Assertions.assertEquals(TEST_JAR_PATH.toString(), archives.get(0).getString("path"));
+    Assertions.assertEquals(7, archives.get(0).getInt("entries"));
+    Assertions.assertEquals(Files.size(TEST_JAR_PATH), archives.get(0).getLong("bytes"));
+
+    // Classes which do not have FieldHolder in ConstantPool are not parsed.
+    var classes = filter(events, CLASS_PARSE);
+    Assertions.assertFalse(classes.isEmpty());
+    for(RecordedEvent e : classes){
+      Assertions.assertEquals(e.getString("className").equals("FieldAccessor"), e.getBoolean("matched"));
+      Assertions.assertEquals(TEST_JAR_PATH.toString(), e.getString("file"));
+      Assertions.assertTrue(e.getInt("size") > 0);
+    }
+    Assertions.assertTrue(classes.stream().anyMatch(e -> e.getBoolean("matched")));
+  }
+
+  @Test
+  public void testDirectory() throws Exception{
+    var events = record(new DirectoryDumper(CLASSES_PATH), "-t", "SubClass");
+
+    var archives = filter(events, ARCHIVE_SCAN);
+    Assertions.assertEquals(1, archives.size());
+    Assertions.assertEquals(CLASSES_PATH.toString(), archives.get(0).getString("path"));
+    Assertions.assertEquals(7, archives.get(0).getInt("entries"));
+    Assertions.assertTrue(archives.get(0).getLong("bytes") > 0);
+  }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ */
+package test.com.yasuenag.cfa;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.yasuenag.cfa.DumperChooser;
+import com.yasuenag.cfa.Option;
+import com.yasuenag.cfa.ScanPipeline;
+
+
+@SuppressWarnings("missing-explicit-ctor")
+public class ScanPipelineTest extends DumperTestBase{
+
+  private static final String ALL_CLASSES = "FieldHolder,MethodHolder,FieldAccessor,MethodCaller,InterfaceMethodCaller,InterfaceImplementer,SubClass";
+
+  private String capture(Consumer<Option> task, String... args){
+    var stdout = System.out;
+    var buf = new ByteArrayOutputStream();
+    try(var out = new PrintStream(buf)){
+      System.setOut(out);
+      task.accept(new Option(args));
+    }
+    finally{
+      System.setOut(stdout);
+    }
+    return buf.toString();
+  }
+
+  @Test
+  public void testAllInputs(){
+    var inputs = List.of(TEST_JAR_PATH, CLASSES_PATH, CLASSES_PATH.resolve("SubClass.class"));
+    var chooser = new DumperChooser();
+
+    String expected = capture(opt -> inputs.stream()
+                                           .map(chooser)
+                                           .forEach(d -> d.dumpInfo(opt)),
+                              "-t", ALL_CLASSES);
+    String actual = capture(opt -> {
+                              var out = new PrintWriter(System.out);
+                              try(var pipeline = new ScanPipeline(opt, out)){
+                                pipeline.run(inputs.stream().map(chooser));
+                              }
+                              out.flush();
+                            },
+                            "-t", ALL_CLASSES, "-j", "4");
+
+    Assertions.assertFalse(expected.isEmpty());
+    Assertions.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void testManyInputs(){
+    // Inputs more than the limit of concurrent readers are read in the
+    // source thread, and results should be kept in order.
+    var inputs = new ArrayList<Path>();
+    for(int i = 0; i < 100; i++){
+      inputs.add(TEST_JAR_PATH);
+      inputs.add(CLASSES_PATH);
+    }
+    var chooser = new DumperChooser();
+
+    String expected = capture(opt -> inputs.stream()
+                                           .map(chooser)
+                                           .forEach(d -> d.dumpInfo(opt)),
+                              "-t", ALL_CLASSES);
+    String actual = capture(opt -> {
+                              var out = new PrintWriter(System.out);
+                              try(var pipeline = new ScanPipeline(opt, out)){
+                                pipeline.run(inputs.stream().map(chooser));
+                              }
+                              out.flush();
+                            },
+                            "-t", ALL_CLASSES, "-j", "2", "--io-budget", "1");
+
+    Assertions.assertFalse(expected.isEmpty());
+    Assertions.assertEquals(expected, actual);
+  }
+
+}
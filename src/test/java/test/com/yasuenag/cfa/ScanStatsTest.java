@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ */
+package test.com.yasuenag.cfa;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.yasuenag.cfa.DirectoryDumper;
+import com.yasuenag.cfa.JarClassInfoDumper;
+import com.yasuenag.cfa.Option;
+import com.yasuenag.cfa.ScanStats;
+
+
+@SuppressWarnings("missing-explicit-ctor")
+public class ScanStatsTest extends DumperTestBase{
+
+  private static ScanStats scanJar(String... args){
+    var option = new Option(args);
+    try(var out = new PrintWriter(Writer.nullWriter())){
+      (new JarClassInfoDumper(TEST_JAR_PATH)).dumpInfo(option, out);
+    }
+    return option.getStats();
+  }
+
+  private static void assertStats(ScanStats stats){
+    Assertions.assertTrue(stats.isEnabled());
+    Assertions.assertEquals(7, stats.getEntriesSeen());
+    Assertions.assertTrue(stats.getBytesRead() > 0);
+    // FieldAccessor refers FieldHolder.
+    Assertions.assertEquals(1, stats.getClassesMatched());
+    // Classes which do not have FieldHolder in ConstantPool are not parsed.
+    Assertions.assertTrue(stats.getClassesParsed() >= 1 && stats.getClassesParsed() < 7);
+    Assertions.assertEquals(0, stats.getParseFailures());
+    Assertions.assertTrue(stats.getPhaseNanos(ScanStats.Phase.READ) > 0);
+    Assertions.assertTrue(stats.getPhaseNanos(ScanStats.Phase.PARSE) > 0);
+    Assertions.assertTrue(stats.getPhaseNanos(ScanStats.Phase.PRINT) > 0);
+  }
+
+  @Test
+  public void testStats(){
+    assertStats(scanJar("--stats", "-c", "FieldHolder"));
+    assertStats(scanJar("--stats", "-c", "FieldHolder", "--mmap"));
+    assertStats(scanJar("--stats", "-c", "FieldHolder", "-j", "2"));
+  }
+
+  @Test
+  public void testDirectory(){
+    var option = new Option(new String[]{"--stats", "-t", "SubClass"});
+    try(var out = new PrintWriter(Writer.nullWriter())){
+      (new DirectoryDumper(CLASSES_PATH)).dumpInfo(option, out);
+    }
+    Assertions.assertEquals(7, option.getStats().getEntriesSeen());
+    Assertions.assertEquals(1, option.getStats().getClassesMatched());
+  }
+
+  @Test
+  public void testDisabled(){
+    ScanStats stats = scanJar("-c", "FieldHolder");
+    Assertions.assertFalse(stats.isEnabled());
+    Assertions.assertEquals(0, stats.getEntriesSeen());
+    Assertions.assertEquals(0, stats.getClassesMatched());
+    Assertions.assertEquals(0, stats.getPhaseNanos(ScanStats.Phase.READ));
+  }
+
+  @Test
+  public void testPrint(){
+    ScanStats stats = scanJar("--stats", "-c", "FieldHolder");
+    var buf = new ByteArrayOutputStream();
+    try(var out = new PrintStream(buf, true, StandardCharsets.UTF_8)){
+      stats.print(out);
+    }
+    String result = buf.toString(StandardCharsets.UTF_8);
+    Assertions.assertTrue(result.contains("Entries seen:    7"));
+    Assertions.assertTrue(result.contains("Classes matched: 1"));
+    Assertions.assertTrue(result.contains("parse:"));
+  }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ */
+package test.com.yasuenag.cfa;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.yasuenag.cfa.SymbolTable;
+
+
+@SuppressWarnings("missing-explicit-ctor")
+public class SymbolTableTest extends DumperTestBase{
+
+  @Test
+  public void testIntern(){
+    var table = new SymbolTable();
+    int foo = table.intern("foo");
+    int bar = table.intern("bar");
+
+    Assertions.assertNotEquals(foo, bar);
+    Assertions.assertEquals(foo, table.intern(new String("foo")));
+    Assertions.assertEquals("foo", table.get(foo));
+    Assertions.assertEquals("bar", table.get(bar));
+    Assertions.assertEquals(2, table.size());
+  }
+
+  @Test
+  public void testConcurrentIntern() throws Exception{
+    var table = new SymbolTable();
+    // More than the initial capacity to grow the table while interning.
+    List<String> symbols = IntStream.range(0, 10_000)
+                                    .mapToObj(i -> "symbol" + i)
+                                    .toList();
+
+    var tasks = new ArrayList<Callable<int[]>>();
+    for(int t = 0; t < 4; t++){
+      tasks.add(() -> symbols.stream().mapToInt(table::intern).toArray());
+    }
+
+    try(var executor = Executors.newFixedThreadPool(4)){
+      var results = executor.invokeAll(tasks);
+      int[] expected = results.get(0).get();
+      for(var result : results){
+        Assertions.assertArrayEquals(expected, result.get());
+      }
+      for(int i = 0; i < symbols.size(); i++){
+        Assertions.assertEquals(symbols.get(i), table.get(expected[i]));
+      }
+    }
+    Assertions.assertEquals(symbols.size(), table.size());
+  }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ */
+package test.com.yasuenag.cfa;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.yasuenag.cfa.TermMatcher;
+
+
+@SuppressWarnings("missing-explicit-ctor")
+public class TermMatcherTest{
+
+  @Test
+  public void testLiteral(){
+    var matcher = new TermMatcher(List.of("IOException"));
+    Assertions.assertTrue(matcher.matches("java.io.IOException"));
+    Assertions.assertFalse(matcher.matches("java.io.File"));
+  }
+
+  @Test
+  public void testGlob(){
+    var matcher = new TermMatcher(List.of("org.apache.*.Logger"));
+    Assertions.assertTrue(matcher.matches("org.apache.log4j.Logger"));
+    Assertions.assertTrue(matcher.matches("org.apache.logging.log4j.Logger"));
+    // Glob matches the whole string, and . is not a wildcard.
+    Assertions.assertFalse(matcher.matches("org.apache.log4j.LoggerFactory"));
+    Assertions.assertFalse(matcher.matches("com.org.apache.log4j.Logger"));
+    Assertions.assertFalse(matcher.matches("orgXapache.log4j.Logger"));
+
+    matcher = new TermMatcher(List.of("get?"));
+    Assertions.assertTrue(matcher.matches("getX"));
+    Assertions.assertFalse(matcher.matches("get"));
+    Assertions.assertFalse(matcher.matches("getXY"));
+  }
+
+  @Test
+  public void testRegex(){
+    var matcher = new TermMatcher(List.of("/^(get|set)[A-Z]/"));
+    Assertions.assertTrue(matcher.matches("getName"));
+    Assertions.assertTrue(matcher.matches("setName"));
+    Assertions.assertFalse(matcher.matches("getname"));
+    Assertions.assertFalse(matcher.matches("resetName"));
+
+    // Regex is searched in the string.
+    matcher = new TermMatcher(List.of("/Log+er$/"));
+    Assertions.assertTrue(matcher.matches("org.slf4j.Logger"));
+    Assertions.assertFalse(matcher.matches("org.slf4j.LoggerFactory"));
+
+    // Optional character must not be required by prefilter.
+    matcher = new TermMatcher(List.of("/colou?r/", "/ab*c/", "/x\\.y/"));
+    Assertions.assertTrue(matcher.matches("color"));
+    Assertions.assertTrue(matcher.matches("ac"));
+    Assertions.assertTrue(matcher.matches("x.y"));
+    Assertions.assertFalse(matcher.matches("xzy"));
+  }
+
+  @Test
+  public void testMixed(){
+    var matcher = new TermMatcher(List.of("Closeable", "*Exception", "/^java\\.util\\.concurrent\\./"));
+    Assertions.assertTrue(matcher.matches("java.io.Closeable"));
+    Assertions.assertTrue(matcher.matches("java.io.IOException"));
+    Assertions.assertTrue(matcher.matches("java.util.concurrent.Future"));
+    Assertions.assertFalse(matcher.matches("java.util.List"));
+    Assertions.assertFalse(matcher.matches("java.io.IOExceptions"));
+  }
+
+  @Test
+  public void testWithoutRequiredLiteral(){
+    var matcher = new TermMatcher(List.of("Foo*", "/[a-z]+[0-9]$/"));
+    Assertions.assertTrue(matcher.matches("FooBar"));
+    Assertions.assertTrue(matcher.matches("abc1"));
+    Assertions.assertFalse(matcher.matches("ABC1"));
+  }
+
+  @Test
+  public void testGroupReference(){
+    // Groups in the later regex should not be renumbered.
+    var matcher = new TermMatcher(List.of("/(get|set)Name/", "/(a)\\1/"));
+    Assertions.assertTrue(matcher.matches("getName"));
+    Assertions.assertTrue(matcher.matches("xaay"));
+    Assertions.assertFalse(matcher.matches("xaby"));
+
+    // Same group names can be used in different regexes.
+    matcher = new TermMatcher(List.of("/(?<c>[a-z])\\k<c>/", "/(?<c>[0-9])\\k<c>$/"));
+    Assertions.assertTrue(matcher.matches("foo"));
+    Assertions.assertTrue(matcher.matches("A11"));
+    Assertions.assertFalse(matcher.matches("Ab12"));
+  }
+
+  @Test
+  public void testSlash(){
+    Assertions.assertTrue(TermMatcher.isRegex("/a/"));
+    Assertions.assertFalse(TermMatcher.isRegex("/"));
+    Assertions.assertFalse(TermMatcher.isRegex("java/io/File"));
+    var matcher = new TermMatcher(List.of("/"));
+    Assertions.assertTrue(matcher.matches("java/io/File"));
+  }
+
+  @Test
+  public void testInvalidRegex(){
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new TermMatcher(List.of("/(abc/")));
+  }
+
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2026, Yasumasa Suenaga
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ */
+package test.com.yasuenag.cfa;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.yasuenag.cfa.Option;
+import com.yasuenag.cfa.Watcher;
+
+
+@SuppressWarnings("missing-explicit-ctor")
+public class WatcherTest extends DumperTestBase{
+
+  private static final Path WATCH_PATH = GENCODE_PATH.resolve("watch-test");
+
+  private static final long TIMEOUT_MILLIS = 10_000;
+
+  private static void waitFor(StringWriter buf, String expected) throws Exception{
+    long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+    while(!buf.toString().contains(expected)){
+      if(System.currentTimeMillis() > deadline){
+        Assertions.fail("\"" + expected + "\" is not found in:\n" + buf.toString());
+      }
+      Thread.sleep(50);
+    }
+  }
+
+  private static long count(StringWriter buf, String line){
+    return buf.toString().lines().filter(line::equals).count();
+  }
+
+  private static void cleanDirectory(Path dir) throws Exception{
+    if(Files.exists(dir)){
+      try(Stream<Path> paths = Files.walk(dir)){
+        for(Path p : paths.sorted(Comparator.reverseOrder()).toList()){
+          Files.delete(p);
+        }
+      }
+    }
+    Files.createDirectories(dir);
+  }
+
+  @Test
+  public void testWatch() throws Exception{
+    cleanDirectory(WATCH_PATH);
+    Files.copy(CLASSES_PATH.resolve("FieldHolder.class"), WATCH_PATH.resolve("FieldHolder.class"));
+
+    var buf = new StringWriter();
+    var out = new PrintWriter(buf);
+    var watcher = new Watcher(new Option(new String[]{"-s", "-t", "Field", WATCH_PATH.toString()}), out);
+    watcher.scan();
+    Assertions.assertEquals(1, count(buf, "Name: FieldHolder"));
+
+    var watchThread = Thread.ofPlatform().start(() -> {
+      try{
+        watcher.watch();
+      }
+      catch(Exception e){
+        throw new RuntimeException(e);
+      }
+    });
+
+    try{
+      // Added class
+      Files.copy(CLASSES_PATH.resolve("FieldAccessor.class"), WATCH_PATH.resolve("FieldAccessor.class"));
+      waitFor(buf, "Name: FieldAccessor");
+
+      // Class in new directory, and class which is rewritten with the same content
+      Files.createDirectories(WATCH_PATH.resolve("sub"));
+      Files.copy(CLASSES_PATH.resolve("FieldHolder.class"), WATCH_PATH.resolve("FieldHolder.class"), StandardCopyOption.REPLACE_EXISTING);
+      Files.copy(CLASSES_PATH.resolve("FieldHolder.class"), WATCH_PATH.resolve("sub").resolve("FieldHolder.class"));
+      waitFor(buf, "File: " + WATCH_PATH.resolve("sub").resolve("FieldHolder.class").toString());
+
+      // Deleted class
+      Files.delete(WATCH_PATH.resolve("FieldAccessor.class"));
+      waitFor(buf, "Removed: FieldAccessor");
+    }
+    finally{
+      watcher.close();
+      watchThread.join();
+    }
+
+    // Unchanged class should not be printed again.
+    Assertions.assertEquals(1, count(buf, "File: " + WATCH_PATH.resolve("FieldHolder.class").toString()));
+    Assertions.assertEquals(1, count(buf, "Name: FieldAccessor"));
+  }
+
+  @Test
+  public void testPartialWrite() throws Exception{
+    Path dir = GENCODE_PATH.resolve("watch-partial-test");
+    cleanDirectory(dir);
+    Path classFile = dir.resolve("FieldHolder.class");
+    Path jarFile = dir.resolve("test.jar");
+    byte[] classBytes = Files.readAllBytes(CLASSES_PATH.resolve("FieldHolder.class"));
+    byte[] jarBytes = Files.readAllBytes(TEST_JAR_PATH);
+    Files.write(classFile, classBytes);
+    Files.write(jarFile, jarBytes);
+
+    var buf = new StringWriter();
+    var out = new PrintWriter(buf);
+    var watcher = new Watcher(new Option(new String[]{"-s", "-t", "Field", dir.toString()}), out);
+    watcher.scan();
+    Assertions.assertEquals(2, count(buf, "Name: FieldHolder"));
+
+    var watchThread = Thread.ofPlatform().start(() -> {
+      try{
+        watcher.watch();
+      }
+      catch(Exception e){
+        throw new RuntimeException(e);
+      }
+    });
+
+    try{
+      // Files which are written now cannot be parsed.
+      Files.write(classFile, Arrays.copyOf(classBytes, classBytes.length / 2));
+      Files.write(jarFile, Arrays.copyOf(jarBytes, jarBytes.length / 2));
+      Thread.sleep(1000);
+
+      Files.write(classFile, classBytes);
+      Files.write(jarFile, jarBytes);
+      // Sentinel to wait for events above.
+      Files.copy(CLASSES_PATH.resolve("FieldAccessor.class"), dir.resolve("FieldAccessor.class"));
+      waitFor(buf, "File: " + dir.resolve("FieldAccessor.class").toString());
+      Files.delete(dir.resolve("FieldAccessor.class"));
+      waitFor(buf, "Removed: FieldAccessor");
+    }
+    finally{
+      watcher.close();
+      watchThread.join();
+    }
+
+    Assertions.assertEquals(0, count(buf, "Removed: FieldHolder"));
+    Assertions.assertEquals(2, count(buf, "Name: FieldHolder"));
+  }
+
+}